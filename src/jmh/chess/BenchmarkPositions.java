@@ -0,0 +1,32 @@
+package chess;
+
+/** Provides the positions the benchmarks run on, all with White to move. */
+final class BenchmarkPositions {
+
+  private BenchmarkPositions() {}
+
+  /**
+   * Builds a game in play mode from a named position.
+   *
+   * @param name One of "opening", "middlegame" and "endgame".
+   * @return The game, with White to move.
+   */
+  static Game createGame(String name) {
+    Game game = new Game();
+    game.startFromFen(fenOf(name));
+    return game;
+  }
+
+  private static String fenOf(String name) {
+    switch (name) {
+      case "opening":
+        return "r1bqkbnr/1ppp1ppp/p1n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 0 4";
+      case "middlegame":
+        return "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+      case "endgame":
+        return "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+      default:
+        throw new IllegalArgumentException("Unknown position: " + name);
+    }
+  }
+}
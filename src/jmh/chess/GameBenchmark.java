@@ -0,0 +1,65 @@
+package chess;
+
+import chess.move.Move;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks making a move through Game, which also includes parsing its notation and detecting
+ * the end of the game. A game cannot take moves back, so each iteration is one timed batch that
+ * makes the move once in each of a batch of games built beforehand. The score is the time of the
+ * whole batch, as setting up a game for each call would take longer than the call itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, batchSize = GameBenchmark.BATCH_SIZE)
+@Measurement(iterations = 20, batchSize = GameBenchmark.BATCH_SIZE)
+@Fork(1)
+public class GameBenchmark {
+
+  static final int BATCH_SIZE = 10000;
+
+  @Param({"opening", "middlegame", "endgame"})
+  private String position;
+
+  private Game[] games = new Game[BATCH_SIZE];
+  private int next;
+  private String moveNotation;
+
+  /** Chooses the move to make, the last legal move of the position. */
+  @Setup(Level.Trial)
+  public void setUpMove() {
+    Board board = BenchmarkPositions.createGame(position).getBoard();
+    ArrayList<Move> legalMoves = board.getMoves(Game.Player.WHITE);
+    moveNotation = legalMoves.get(legalMoves.size() - 1).getNotation(legalMoves, board);
+  }
+
+  /** Builds the games of the next batch, outside of the timed part. */
+  @Setup(Level.Iteration)
+  public void setUpGames() {
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      games[i] = BenchmarkPositions.createGame(position);
+    }
+    next = 0;
+  }
+
+  @Benchmark
+  public boolean tryMakeMove() {
+    return games[next++].tryMakeMove(moveNotation);
+  }
+}
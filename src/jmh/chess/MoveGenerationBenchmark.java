@@ -0,0 +1,89 @@
+package chess;
+
+import chess.move.Move;
+import chess.move.MoveList;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the hot paths of move generation and notation on an opening, a middlegame and an
+ * endgame position. Run with "gradle jmh", which also profiles the allocation rate of each
+ * benchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+
+  @Param({"opening", "middlegame", "endgame"})
+  private String position;
+
+  private Board board;
+  private ArrayList<Move> legalMoves;
+  private MoveList moveList = new MoveList();
+  private String lastMoveNotation;
+
+  /** Sets up the position and its legal moves. */
+  @Setup
+  public void setUp() {
+    board = BenchmarkPositions.createGame(position).getBoard();
+    legalMoves = board.getMoves(Game.Player.WHITE);
+    Move lastMove = legalMoves.get(legalMoves.size() - 1);
+    lastMoveNotation = lastMove.getNotation(legalMoves, board);
+  }
+
+  @Benchmark
+  public ArrayList<Move> getMoves() {
+    return board.getMoves(Game.Player.WHITE);
+  }
+
+  @Benchmark
+  public MoveList generateMoves() {
+    board.generateMoves(Game.Player.WHITE, moveList);
+    return moveList;
+  }
+
+  @Benchmark
+  public Board getCopy() {
+    return board.getCopy();
+  }
+
+  @Benchmark
+  public boolean inCheck() {
+    return board.inCheck(Game.Player.WHITE);
+  }
+
+  @Benchmark
+  public void getNotation(Blackhole blackhole) {
+    for (Move move : legalMoves) {
+      blackhole.consume(move.getNotation(legalMoves, board));
+    }
+  }
+
+  @Benchmark
+  public ArrayList<String> getNotations() {
+    return board.getNotations(legalMoves);
+  }
+
+  @Benchmark
+  public Move createMove() {
+    return Move.createMove(lastMoveNotation, legalMoves, board);
+  }
+}
@@ -1,13 +1,126 @@
+import chess.Board;
 import chess.Game;
+import chess.ParallelPerft;
+import chess.Perft;
+import chess.PerftTable;
+import chess.book.PolyglotBook;
+import chess.book.PolyglotBookBuilder;
+import chess.engine.ParallelSearch;
+import chess.engine.Search;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import chess.index.PositionIndex;
+import chess.index.PositionIndexBuilder;
+import chess.io.GameRecord;
+import chess.io.GameRecordReader;
+import chess.io.GameRecordWriter;
+import chess.io.IllegalMoveException;
+import chess.io.PgnGame;
+import chess.io.PgnImport;
+import chess.io.PgnReader;
+import chess.move.Move;
+import chess.move.MoveList;
+import chess.move.SanWriter;
+import chess.server.GameServer;
+import chess.server.LoadGenerator;
+import chess.tablebase.Tablebase;
+import chess.tablebase.TablebaseGenerator;
+import chess.tablebase.Tablebases;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Scanner;
 
 public class Main {
 
   /**
-   * Plays a chess game using the command line.
+   * Plays a chess game using the command line. Given the arguments "perft depth", it instead runs
+   * perft from the standard starting position, printing the count following each move. Given
+   * "perft depth threads hashMegabytes" it runs the same on a fork/join pool, sharing a table of
+   * counts of the given size, if not 0. Given the arguments "search milliseconds", it searches the
+   * standard starting position for that long.
+   * Given the arguments "smp depth threads", it searches the standard starting position to that
+   * depth with one thread, two threads and so on, doubling up to the given number of threads, and
+   * prints the speed-up over one thread. Given the arguments "pgn file threads", it replays every
+   * game of a PGN file with that many threads, reporting illegal moves and the speed. Given the
+   * arguments "records pgnFile recordFile", it converts the legal games of a PGN file into a game
+   * record file, then reads and replays that file, reporting its size and speed. Given the
+   * arguments "index recordFile indexFile", it builds a position index of the games of a game
+   * record file, and given "lookup indexFile fen", it lists the games that reached a position.
+   * Given the arguments "book pgnFile bookFile plies", it writes a Polyglot opening book of the
+   * first plies of the legal games of a PGN file, and given "probe bookFile fen", it lists the book
+   * moves of a position with their weights. Given the arguments "tablebase directory threads" and
+   * sets of pieces such as "KQK", it generates their tablebases, and those they depend on, into
+   * the directory, and given "tbprobe directory fen", it looks up a position in the tablebases of
+   * a directory. Given the arguments "server port", it hosts games for clients over TCP, printing
+   * its metrics every ten seconds, and given "load host port clients seconds", it plays random
+   * games on such a server with that many clients at once and prints the moves per second and
+   * latency.
    */
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length == 2 && args[0].equals("perft")) {
+      perft(Integer.parseInt(args[1]));
+      return;
+    }
+    if (args.length == 4 && args[0].equals("perft")) {
+      parallelPerft(
+          Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+      return;
+    }
+    if (args.length == 2 && args[0].equals("search")) {
+      search(Long.parseLong(args[1]));
+      return;
+    }
+    if (args.length == 3 && args[0].equals("smp")) {
+      parallelSearch(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+      return;
+    }
+    if (args.length == 3 && args[0].equals("pgn")) {
+      importPgn(args[1], Integer.parseInt(args[2]));
+      return;
+    }
+    if (args.length == 3 && args[0].equals("records")) {
+      convertToRecords(args[1], args[2]);
+      return;
+    }
+    if (args.length == 3 && args[0].equals("index")) {
+      buildIndex(args[1], args[2]);
+      return;
+    }
+    if (args.length == 3 && args[0].equals("lookup")) {
+      lookUp(args[1], args[2]);
+      return;
+    }
+    if (args.length == 4 && args[0].equals("book")) {
+      buildBook(args[1], args[2], Integer.parseInt(args[3]));
+      return;
+    }
+    if (args.length == 3 && args[0].equals("probe")) {
+      probeBook(args[1], args[2]);
+      return;
+    }
+    if (args.length >= 4 && args[0].equals("tablebase")) {
+      generateTablebases(args[1], Integer.parseInt(args[2]),
+          Arrays.copyOfRange(args, 3, args.length));
+      return;
+    }
+    if (args.length == 3 && args[0].equals("tbprobe")) {
+      probeTablebases(args[1], args[2]);
+      return;
+    }
+    if (args.length == 2 && args[0].equals("server")) {
+      serve(Integer.parseInt(args[1]));
+      return;
+    }
+    if (args.length == 5 && args[0].equals("load")) {
+      generateLoad(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+          Long.parseLong(args[4]));
+      return;
+    }
     Game game = new Game();
     game.setupStandardBoard();
     game.startGame();
@@ -22,4 +135,250 @@ public class Main {
       System.out.println(game.viewState());
     }
   }
+
+  private static void perft(int depth) {
+    Game game = new Game();
+    game.setupStandardBoard();
+    game.startGame();
+    Perft perft = new Perft();
+    for (Map.Entry<String, Long> entry : perft.divide(game.getBoard(), depth).entrySet()) {
+      System.out.println(entry.getKey() + ": " + entry.getValue());
+    }
+    System.out.println("Nodes: " + perft.getNodes());
+    System.out.println("Nodes per second: " + perft.getNodesPerSecond());
+  }
+
+  private static void parallelPerft(int depth, int threads, int hashMegabytes) {
+    Game game = new Game();
+    game.setupStandardBoard();
+    game.startGame();
+    PerftTable table = (hashMegabytes > 0) ? new PerftTable(hashMegabytes) : null;
+    ParallelPerft perft = new ParallelPerft(threads, table);
+    for (Map.Entry<String, Long> entry : perft.divide(game.getBoard(), depth).entrySet()) {
+      System.out.println(entry.getKey() + ": " + entry.getValue());
+    }
+    System.out.println("Nodes: " + perft.getNodes());
+    System.out.println("Nodes per second: " + perft.getNodesPerSecond());
+    perft.shutdown();
+  }
+
+  private static void search(long millis) {
+    Game game = new Game();
+    game.setupStandardBoard();
+    game.startGame();
+    Search search = new Search();
+    search.setTimeLimit(millis);
+    SearchResult result = search.search(game.getBoard());
+    System.out.println("Depth: " + result.getDepth());
+    System.out.println("Score: " + result.getScore());
+    System.out.println("Principal variation: " + result.viewPrincipalVariation());
+    System.out.println("Nodes: " + result.getNodes());
+    System.out.println("Nodes per second: " + result.getNodesPerSecond());
+    System.out.println("Hash hit rate: " + search.getTranspositionTable().getHitRate());
+  }
+
+  private static void parallelSearch(int depth, int maxThreads) {
+    // The first search only warms up the compiler, so that it does not count against one thread.
+    timeParallelSearch(depth, 1);
+    long singleThreadNanos = 0;
+    for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+      long start = System.nanoTime();
+      SearchResult result = timeParallelSearch(depth, threads);
+      long nanos = System.nanoTime() - start;
+      if (threads == 1) {
+        singleThreadNanos = nanos;
+      }
+      System.out.printf("Threads: %d, time: %d ms, speed-up: %.2f, nodes per second: %d, %s%n",
+          threads, nanos / 1000000, (double) singleThreadNanos / nanos,
+          result.getNodesPerSecond(), result.viewPrincipalVariation());
+    }
+  }
+
+  private static SearchResult timeParallelSearch(int depth, int threads) {
+    Game game = new Game();
+    game.setupStandardBoard();
+    game.startGame();
+    ParallelSearch search = new ParallelSearch(threads, new TranspositionTable(64));
+    search.setMaxDepth(depth);
+    return search.search(game.getBoard());
+  }
+
+  private static int nextThreadCount(int threads, int maxThreads) {
+    return (threads < maxThreads && 2 * threads > maxThreads) ? maxThreads : 2 * threads;
+  }
+
+  private static void importPgn(String file, int threads) throws IOException {
+    PgnImport pgnImport = new PgnImport(threads);
+    try (PgnReader reader = PgnReader.open(Paths.get(file))) {
+      pgnImport.run(reader, new PgnImport.Handler() {
+        @Override
+        public void onGame(PgnGame game, Board board) {}
+
+        @Override
+        public void onIllegalMove(PgnGame game, IllegalMoveException exception) {
+          System.out.println(exception.getMessage());
+        }
+      });
+    }
+    System.out.println("Games: " + pgnImport.getGames());
+    System.out.println("Games with illegal moves: " + pgnImport.getIllegalGames());
+    System.out.println("Moves: " + pgnImport.getMoves());
+    System.out.println("Games per second: " + pgnImport.getGamesPerSecond());
+  }
+
+  private static void convertToRecords(String pgnFile, String recordFile) throws IOException {
+    long moves = 0;
+    try (PgnReader reader = PgnReader.open(Paths.get(pgnFile));
+        GameRecordWriter writer = GameRecordWriter.create(
+            Paths.get(recordFile), GameRecordWriter.Encoding.MOVE_INDEX)) {
+      for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+        try {
+          GameRecord record = game.toRecord();
+          writer.write(record);
+          moves += record.getMoveCount();
+        } catch (IllegalMoveException e) {
+          System.out.println(e.getMessage());
+        }
+      }
+      System.out.println("Games: " + writer.getGames());
+      System.out.println("Moves: " + moves);
+      System.out.println("Bytes: " + writer.getBytes());
+      System.out.printf("Bytes per move: %.2f%n", (double) writer.getBytes() / Math.max(1, moves));
+    }
+    long start = System.nanoTime();
+    long games = 0;
+    try (GameRecordReader reader = GameRecordReader.open(Paths.get(recordFile))) {
+      for (GameRecord record = reader.next(); record != null; record = reader.next()) {
+        record.replay();
+        games++;
+      }
+    }
+    System.out.println("Games read and replayed per second: "
+        + (long) (games * 1e9 / (System.nanoTime() - start)));
+  }
+
+  private static void buildIndex(String recordFile, String indexFile) throws IOException {
+    long start = System.nanoTime();
+    try (GameRecordReader reader = GameRecordReader.open(Paths.get(recordFile));
+        PositionIndexBuilder builder = new PositionIndexBuilder(Paths.get(indexFile))) {
+      for (GameRecord record = reader.next(); record != null; record = reader.next()) {
+        builder.add(record);
+      }
+      builder.build();
+      System.out.println("Games: " + builder.getGames());
+      System.out.println("Positions: " + builder.getPositions());
+    }
+    System.out.println("Milliseconds: " + (System.nanoTime() - start) / 1000000);
+  }
+
+  private static void lookUp(String indexFile, String fen) throws IOException {
+    try (PositionIndex index = PositionIndex.open(Paths.get(indexFile))) {
+      long start = System.nanoTime();
+      long[] references = index.lookup(Board.fromFen(fen));
+      long nanos = System.nanoTime() - start;
+      for (long reference : references) {
+        System.out.println("Game " + PositionIndex.gameOf(reference)
+            + ", ply " + PositionIndex.plyOf(reference));
+      }
+      System.out.println("Games: " + references.length + ", microseconds: " + nanos / 1000);
+    }
+  }
+
+  private static void buildBook(String pgnFile, String bookFile, int plies) throws IOException {
+    PolyglotBookBuilder builder = new PolyglotBookBuilder(plies);
+    try (PgnReader reader = PgnReader.open(Paths.get(pgnFile))) {
+      for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+        try {
+          builder.add(game.toRecord());
+        } catch (IllegalMoveException e) {
+          System.out.println(e.getMessage());
+        }
+      }
+    }
+    builder.write(Paths.get(bookFile));
+    System.out.println("Games: " + builder.getGames());
+    System.out.println("Entries: " + builder.getEntryCount());
+  }
+
+  private static void probeBook(String bookFile, String fen) throws IOException {
+    try (PolyglotBook book = PolyglotBook.open(Paths.get(bookFile))) {
+      Board board = Board.fromFen(fen);
+      MoveList moves = new MoveList();
+      long start = System.nanoTime();
+      int totalWeight = book.probe(board, moves);
+      long nanos = System.nanoTime() - start;
+      for (int i = 0; i < moves.size(); i++) {
+        Move move = Move.createMove(moves.get(i));
+        System.out.println(SanWriter.notation(move, board.getMoves(board.getSideToMove()), board)
+            + ": " + moves.getScore(i));
+      }
+      System.out.println("Total weight: " + totalWeight + ", microseconds: " + nanos / 1000);
+    }
+  }
+
+  private static void generateTablebases(String directory, int threads, String[] names)
+      throws IOException {
+    Path path = Paths.get(directory);
+    TablebaseGenerator generator = new TablebaseGenerator(threads, Tablebases.open(path));
+    try {
+      for (String name : names) {
+        long start = System.nanoTime();
+        Tablebase tablebase = generator.generate(name);
+        long millis = (System.nanoTime() - start) / 1000000;
+        long[] counts = tablebase.countOutcomes();
+        System.out.println(tablebase.getName() + ": " + counts[0] + " wins, " + counts[1]
+            + " draws, " + counts[2] + " losses, longest mate " + tablebase.getMaxDistance()
+            + " plies, milliseconds: " + millis);
+      }
+      for (Tablebase tablebase : generator.getTablebases().getTablebases()) {
+        Path file = path.resolve(tablebase.getName() + Tablebases.FILE_SUFFIX);
+        // Tablebases found before are mapped from their files, which stay as they are.
+        if (!Files.exists(file)) {
+          tablebase.write(file);
+        }
+      }
+    } finally {
+      generator.shutdown();
+    }
+  }
+
+  private static void probeTablebases(String directory, String fen) throws IOException {
+    Tablebases tablebases = Tablebases.open(Paths.get(directory));
+    Board board = Board.fromFen(fen);
+    long start = System.nanoTime();
+    int value = tablebases.probe(board);
+    long nanos = System.nanoTime() - start;
+    int outcome = Tablebases.outcomeOf(value);
+    if (outcome == Tablebases.UNKNOWN) {
+      System.out.println("Not in the tablebases");
+    } else if (outcome == Tablebase.DRAW) {
+      System.out.println("Draw");
+    } else {
+      System.out.println(((outcome == Tablebase.WIN) ? "Win" : "Loss") + " in "
+          + Tablebases.distanceOf(value) + " plies");
+    }
+    System.out.println("Microseconds: " + nanos / 1000);
+  }
+
+  private static void serve(int port) throws IOException, InterruptedException {
+    try (GameServer server = GameServer.start(port)) {
+      System.out.println("Listening on port " + server.getPort());
+      while (true) {
+        Thread.sleep(10000);
+        System.out.println(server.viewMetrics());
+      }
+    }
+  }
+
+  private static void generateLoad(String host, int port, int clients, long seconds)
+      throws InterruptedException {
+    LoadGenerator load = new LoadGenerator(host, port);
+    load.run(clients, seconds * 1000);
+    System.out.println("Games: " + load.getGames() + ", moves: " + load.getMoves()
+        + ", errors: " + load.getErrors());
+    System.out.println("Moves per second: " + load.getMovesPerSecond());
+    System.out.println("Move latency in microseconds: median " + load.getLatencyMicros(0.5)
+        + ", 99th percentile " + load.getLatencyMicros(0.99)
+        + ", max " + load.getLatencyMicros(1));
+  }
 }
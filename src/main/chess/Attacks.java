@@ -0,0 +1,222 @@
+package chess;
+
+import chess.piece.Piece;
+
+/**
+ * Precomputed attack sets for the bitboard representation. Squares are indexed as
+ * rank * 8 + file, so bit 0 is a1 and bit 63 is h8.
+ */
+public final class Attacks {
+
+  public static final int SQUARE_COUNT = 64;
+
+  private static final Step[] KNIGHT_STEPS = {
+    new Step(-2, 1),
+    new Step(-1, 2),
+    new Step(1, 2),
+    new Step(2, 1),
+    new Step(2, -1),
+    new Step(1, -2),
+    new Step(-1, -2),
+    new Step(-2, -1)
+  };
+
+  private static final Step[] KING_STEPS = {
+    new Step(-1, 0),
+    new Step(-1, 1),
+    new Step(0, 1),
+    new Step(1, 1),
+    new Step(1, 0),
+    new Step(1, -1),
+    new Step(0, -1),
+    new Step(-1, -1)
+  };
+
+  // Ray directions. The first four increase the square index, the last four decrease it.
+  private static final Step[] RAY_STEPS = {
+    new Step(1, 0),
+    new Step(1, 1),
+    new Step(0, 1),
+    new Step(1, -1),
+    new Step(-1, 0),
+    new Step(-1, -1),
+    new Step(0, -1),
+    new Step(-1, 1)
+  };
+
+  private static final int[] ROOK_DIRECTIONS = {0, 2, 4, 6};
+  private static final int[] BISHOP_DIRECTIONS = {1, 3, 5, 7};
+
+  private static final long[] KNIGHT = new long[SQUARE_COUNT];
+  private static final long[] KING = new long[SQUARE_COUNT];
+  private static final long[][] PAWN = new long[2][SQUARE_COUNT];
+  private static final long[][] RAYS = new long[RAY_STEPS.length][SQUARE_COUNT];
+  private static final long[][] BETWEEN = new long[SQUARE_COUNT][SQUARE_COUNT];
+  private static final long[][] LINE = new long[SQUARE_COUNT][SQUARE_COUNT];
+
+  static {
+    for (int square = 0; square < SQUARE_COUNT; square++) {
+      Position position = Position.fromIndex(square);
+      KNIGHT[square] = leaps(position, KNIGHT_STEPS);
+      KING[square] = leaps(position, KING_STEPS);
+      PAWN[Game.Player.WHITE.ordinal()][square] =
+          leaps(position, new Step[] {new Step(1, -1), new Step(1, 1)});
+      PAWN[Game.Player.BLACK.ordinal()][square] =
+          leaps(position, new Step[] {new Step(-1, -1), new Step(-1, 1)});
+      for (int direction = 0; direction < RAY_STEPS.length; direction++) {
+        long ray = 0L;
+        Position posAfter = RAY_STEPS[direction].applyOn(position);
+        while (posAfter.insideBoard()) {
+          ray |= bit(posAfter.getIndex());
+          posAfter = RAY_STEPS[direction].applyOn(posAfter);
+        }
+        RAYS[direction][square] = ray;
+      }
+    }
+    for (int square = 0; square < SQUARE_COUNT; square++) {
+      for (int direction = 0; direction < RAY_STEPS.length; direction++) {
+        long ray = RAYS[direction][square];
+        long line = ray | RAYS[(direction + 4) % RAY_STEPS.length][square] | bit(square);
+        for (long targets = ray; targets != 0; targets &= targets - 1) {
+          int target = Long.numberOfTrailingZeros(targets);
+          BETWEEN[square][target] = ray & ~RAYS[direction][target] & ~bit(target);
+          LINE[square][target] = line;
+        }
+      }
+    }
+  }
+
+  private Attacks() {}
+
+  private static long leaps(Position position, Step[] steps) {
+    long attacks = 0L;
+    for (Step step : steps) {
+      Position posAfter = step.applyOn(position);
+      if (posAfter.insideBoard()) {
+        attacks |= bit(posAfter.getIndex());
+      }
+    }
+    return attacks;
+  }
+
+  public static long bit(int square) {
+    return 1L << square;
+  }
+
+  public static long rank(int rank) {
+    return 0xFFL << (8 * rank);
+  }
+
+  /**
+   * Returns the squares strictly between two squares on the same rank, file or diagonal.
+   *
+   * @param from One square.
+   * @param to The other square.
+   * @return The squares in between, empty if the squares are not aligned.
+   */
+  public static long between(int from, int to) {
+    return BETWEEN[from][to];
+  }
+
+  /**
+   * Returns the whole rank, file or diagonal through two squares, edge to edge.
+   *
+   * @param from One square.
+   * @param to The other square.
+   * @return The line, empty if the squares are not aligned.
+   */
+  public static long line(int from, int to) {
+    return LINE[from][to];
+  }
+
+  public static long knight(int square) {
+    return KNIGHT[square];
+  }
+
+  public static long king(int square) {
+    return KING[square];
+  }
+
+  /**
+   * Returns the squares a pawn standing on the given square attacks diagonally.
+   *
+   * @param square The square of the pawn.
+   * @param player The owner of the pawn.
+   * @return The attacked squares.
+   */
+  public static long pawn(int square, Game.Player player) {
+    return PAWN[player.ordinal()][square];
+  }
+
+  /**
+   * Calculates the squares a rook attacks, stopping each ray at (and including) the first blocker.
+   *
+   * @param square The square of the rook.
+   * @param occupied All occupied squares.
+   * @return The attacked squares.
+   */
+  public static long rook(int square, long occupied) {
+    long attacks = 0L;
+    for (int direction : ROOK_DIRECTIONS) {
+      attacks |= ray(direction, square, occupied);
+    }
+    return attacks;
+  }
+
+  /**
+   * Calculates the squares a bishop attacks, stopping each ray at (and including) the first
+   * blocker.
+   *
+   * @param square The square of the bishop.
+   * @param occupied All occupied squares.
+   * @return The attacked squares.
+   */
+  public static long bishop(int square, long occupied) {
+    long attacks = 0L;
+    for (int direction : BISHOP_DIRECTIONS) {
+      attacks |= ray(direction, square, occupied);
+    }
+    return attacks;
+  }
+
+  public static long queen(int square, long occupied) {
+    return rook(square, occupied) | bishop(square, occupied);
+  }
+
+  /**
+   * Calculates the squares a piece other than a pawn attacks.
+   *
+   * @param type The type of the piece, one of the constants in Piece.
+   * @param square The square of the piece.
+   * @param occupied All occupied squares.
+   * @return The attacked squares, empty for pawns.
+   */
+  public static long forPiece(int type, int square, long occupied) {
+    switch (type) {
+      case Piece.KNIGHT:
+        return knight(square);
+      case Piece.BISHOP:
+        return bishop(square, occupied);
+      case Piece.ROOK:
+        return rook(square, occupied);
+      case Piece.QUEEN:
+        return queen(square, occupied);
+      case Piece.KING:
+        return king(square);
+      default:
+        return 0L;
+    }
+  }
+
+  private static long ray(int direction, int square, long occupied) {
+    long ray = RAYS[direction][square];
+    long blockers = ray & occupied;
+    if (blockers != 0) {
+      int blocker = (direction < 4)
+          ? Long.numberOfTrailingZeros(blockers)
+          : 63 - Long.numberOfLeadingZeros(blockers);
+      ray ^= RAYS[direction][blocker];
+    }
+    return ray;
+  }
+}
@@ -0,0 +1,214 @@
+package chess;
+
+import chess.piece.Piece;
+
+import java.util.Arrays;
+
+/**
+ * Implements the bitboard representation of a chess board: one 64-bit occupancy per piece type and
+ * colour, plus a square-indexed mailbox for constant time lookups of what stands on a square.
+ */
+public class Bitboards {
+
+  public static final int EMPTY = -1;
+
+  private static final String ASCII_SYMBOLS = "PNBRQK";
+
+  private long[] pieces;
+  private long[] occupancy;
+  private int[] mailbox;
+  private long key;
+  private int middlegameScore;
+  private int endgameScore;
+  private int phase;
+
+  /** Constructor for an empty board. */
+  public Bitboards() {
+    pieces = new long[2 * ASCII_SYMBOLS.length()];
+    occupancy = new long[2];
+    mailbox = new int[Attacks.SQUARE_COUNT];
+    Arrays.fill(mailbox, EMPTY);
+  }
+
+  /**
+   * Combines a piece type and its owner into a piece code.
+   *
+   * @param type The type, one of the constants in Piece.
+   * @param player The owner.
+   * @return The piece code.
+   */
+  public static int code(int type, Game.Player player) {
+    return type * 2 + player.ordinal();
+  }
+
+  public static int typeOf(int code) {
+    return code >> 1;
+  }
+
+  public static Game.Player playerOf(int code) {
+    return ((code & 1) == Game.Player.WHITE.ordinal()) ? Game.Player.WHITE : Game.Player.BLACK;
+  }
+
+  /**
+   * Converts a piece code to the ascii symbol used by Piece.
+   *
+   * @param code The piece code.
+   * @return The ascii symbol, upper case for white and lower case for black.
+   */
+  public static char toAsciiSymbol(int code) {
+    char symbol = ASCII_SYMBOLS.charAt(typeOf(code));
+    return (playerOf(code) == Game.Player.WHITE) ? symbol : Character.toLowerCase(symbol);
+  }
+
+  public static int codeOf(Piece piece) {
+    return code(piece.getType(), piece.getPlayer());
+  }
+
+  /**
+   * Converts an ascii symbol as used by Piece to a piece code.
+   *
+   * @param asciiSymbol The ascii symbol, upper case for white and lower case for black.
+   * @return The piece code, EMPTY if the symbol is not a piece.
+   */
+  public static int codeOf(char asciiSymbol) {
+    int type = ASCII_SYMBOLS.indexOf(Character.toUpperCase(asciiSymbol));
+    if (type < 0) {
+      return EMPTY;
+    }
+    Game.Player player =
+        Character.isUpperCase(asciiSymbol) ? Game.Player.WHITE : Game.Player.BLACK;
+    return code(type, player);
+  }
+
+  public int pieceAt(int square) {
+    return mailbox[square];
+  }
+
+  public long pieces(int type, Game.Player player) {
+    return pieces[code(type, player)];
+  }
+
+  public long occupancy(Game.Player player) {
+    return occupancy[player.ordinal()];
+  }
+
+  public long occupied() {
+    return occupancy[0] | occupancy[1];
+  }
+
+  /**
+   * Returns the Zobrist key of the pieces on their squares, which is kept up to date by put and
+   * remove.
+   *
+   * @return The key.
+   */
+  public long getKey() {
+    return key;
+  }
+
+  /**
+   * Returns the sum of the middlegame values of the pieces on their squares, from White's point of
+   * view, which is kept up to date by put and remove.
+   *
+   * @return The score.
+   */
+  public int getMiddlegameScore() {
+    return middlegameScore;
+  }
+
+  /**
+   * Returns the sum of the endgame values of the pieces on their squares, from White's point of
+   * view, which is kept up to date by put and remove.
+   *
+   * @return The score.
+   */
+  public int getEndgameScore() {
+    return endgameScore;
+  }
+
+  /**
+   * Returns the phase of the game by the pieces left, PieceSquareTables.MAX_PHASE at the start and
+   * 0 with only kings and pawns.
+   *
+   * @return The phase, which may exceed the maximum after promotions.
+   */
+  public int getPhase() {
+    return phase;
+  }
+
+  /**
+   * Puts a piece on a square, replacing whatever stood there.
+   *
+   * @param square The square.
+   * @param code The piece code.
+   */
+  public void put(int square, int code) {
+    remove(square);
+    long bit = Attacks.bit(square);
+    pieces[code] |= bit;
+    occupancy[code & 1] |= bit;
+    mailbox[square] = code;
+    key ^= Zobrist.piece(code, square);
+    middlegameScore += PieceSquareTables.middlegame(code, square);
+    endgameScore += PieceSquareTables.endgame(code, square);
+    phase += PieceSquareTables.phaseWeight(code);
+  }
+
+  /**
+   * Removes whatever piece stands on a square.
+   *
+   * @param square The square.
+   */
+  public void remove(int square) {
+    int code = mailbox[square];
+    if (code == EMPTY) {
+      return;
+    }
+    long bit = Attacks.bit(square);
+    pieces[code] &= ~bit;
+    occupancy[code & 1] &= ~bit;
+    mailbox[square] = EMPTY;
+    key ^= Zobrist.piece(code, square);
+    middlegameScore -= PieceSquareTables.middlegame(code, square);
+    endgameScore -= PieceSquareTables.endgame(code, square);
+    phase -= PieceSquareTables.phaseWeight(code);
+  }
+
+  /**
+   * Calculates the squares from which a player's pieces attack a square, given an occupancy.
+   *
+   * @param square The attacked square.
+   * @param player The attacking player.
+   * @param occupied The occupied squares to use for sliding pieces.
+   * @return The squares of the attacking pieces.
+   */
+  public long attackersTo(int square, Game.Player player, long occupied) {
+    long queens = pieces(Piece.QUEEN, player);
+    return (Attacks.pawn(square, Game.otherPlayer(player)) & pieces(Piece.PAWN, player))
+        | (Attacks.knight(square) & pieces(Piece.KNIGHT, player))
+        | (Attacks.king(square) & pieces(Piece.KING, player))
+        | (Attacks.bishop(square, occupied) & (pieces(Piece.BISHOP, player) | queens))
+        | (Attacks.rook(square, occupied) & (pieces(Piece.ROOK, player) | queens));
+  }
+
+  public boolean isAttacked(int square, Game.Player player) {
+    return attackersTo(square, player, occupied()) != 0;
+  }
+
+  /**
+   * Creates a deep copy of the bitboards.
+   *
+   * @return The copy.
+   */
+  public Bitboards getCopy() {
+    Bitboards copy = new Bitboards();
+    copy.pieces = pieces.clone();
+    copy.occupancy = occupancy.clone();
+    copy.mailbox = mailbox.clone();
+    copy.key = key;
+    copy.middlegameScore = middlegameScore;
+    copy.endgameScore = endgameScore;
+    copy.phase = phase;
+    return copy;
+  }
+}
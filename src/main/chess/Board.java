@@ -4,29 +4,216 @@ import static chess.Game.FILE_COUNT;
 import static chess.Game.RANK_COUNT;
 
 import chess.move.Move;
+import chess.move.MoveList;
+import chess.move.PackedMove;
+import chess.move.SanWriter;
 import chess.piece.Piece;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
-/** Implements a chess board. */
+/**
+ * Implements a chess board. The pieces are stored as bitboards, and Piece objects are created on
+ * demand when they are asked for.
+ */
 public class Board {
 
-  private Piece[][] board;
+  public static final int WHITE_KINGSIDE = 1;
+  public static final int WHITE_QUEENSIDE = 2;
+  public static final int BLACK_KINGSIDE = 4;
+  public static final int BLACK_QUEENSIDE = 8;
+
+  private static final int[] CASTLING_RIGHTS_KEPT = new int[Attacks.SQUARE_COUNT];
+
+  static {
+    int allRights = WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE;
+    Arrays.fill(CASTLING_RIGHTS_KEPT, allRights);
+    CASTLING_RIGHTS_KEPT[new Position("a1").getIndex()] &= ~WHITE_QUEENSIDE;
+    CASTLING_RIGHTS_KEPT[new Position("e1").getIndex()] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+    CASTLING_RIGHTS_KEPT[new Position("h1").getIndex()] &= ~WHITE_KINGSIDE;
+    CASTLING_RIGHTS_KEPT[new Position("a8").getIndex()] &= ~BLACK_QUEENSIDE;
+    CASTLING_RIGHTS_KEPT[new Position("e8").getIndex()] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+    CASTLING_RIGHTS_KEPT[new Position("h8").getIndex()] &= ~BLACK_KINGSIDE;
+  }
+
+  private Bitboards bitboards;
   private History history;
+  private Game.Player sideToMove;
+  private int castlingRights;
+  private int enPassantSquare;
+  private int halfmoveClock;
+  private int fullmoveNumber;
+  private long stateKey;
+  private MoveGenerator generator;
 
+  /** Constructor for an empty board, with White to move. */
   public Board() {
-    board = new Piece[RANK_COUNT][FILE_COUNT];
+    bitboards = new Bitboards();
     history = new History();
+    sideToMove = Game.Player.WHITE;
+    enPassantSquare = -1;
+    fullmoveNumber = 1;
+  }
+
+  /**
+   * Builds a board from a position in Forsyth-Edwards Notation.
+   *
+   * @param fen The FEN string, with or without the halfmove and fullmove counters.
+   * @return The board.
+   * @throws IllegalArgumentException If the string is not valid FEN.
+   */
+  public static Board fromFen(String fen) {
+    return Fen.parse(fen);
   }
 
+  /**
+   * Describes the position in Forsyth-Edwards Notation.
+   *
+   * @return The FEN string.
+   */
+  public String toFen() {
+    return Fen.write(this);
+  }
+
+  /**
+   * Creates a snapshot of the pieces on the board, indexed by rank and file. Changing the returned
+   * array does not change the board.
+   *
+   * @return The pieces, null where a square is empty.
+   */
   public Piece[][] getBoard() {
+    Piece[][] board = new Piece[RANK_COUNT][FILE_COUNT];
+    long occupied = bitboards.occupied();
+    while (occupied != 0) {
+      int square = Long.numberOfTrailingZeros(occupied);
+      occupied &= occupied - 1;
+      Position position = Position.fromIndex(square);
+      board[position.getRank()][position.getFile()] = atPosition(position);
+    }
     return board;
   }
 
+  public Bitboards getBitboards() {
+    return bitboards;
+  }
+
   public History getHistory() {
     return history;
   }
 
+  public Game.Player getSideToMove() {
+    return sideToMove;
+  }
+
+  public void setSideToMove(Game.Player player) {
+    stateKey ^= Zobrist.sideToMove(sideToMove) ^ Zobrist.sideToMove(player);
+    sideToMove = player;
+  }
+
+  /**
+   * Returns the castling rights that remain, irrespective of whether castling is possible right
+   * now.
+   *
+   * @return The rights, a combination of the constants such as Board.WHITE_KINGSIDE.
+   */
+  public int getCastlingRights() {
+    return castlingRights;
+  }
+
+  public void setCastlingRights(int rights) {
+    stateKey ^= Zobrist.castling(castlingRights) ^ Zobrist.castling(rights);
+    castlingRights = rights;
+  }
+
+  /**
+   * Grants the castling rights of every king and rook that stand on their initial squares, as is
+   * done when a game starts.
+   */
+  public void resetCastlingRights() {
+    int rights = 0;
+    if (standsOn("e1", 'K') && standsOn("h1", 'R')) {
+      rights |= WHITE_KINGSIDE;
+    }
+    if (standsOn("e1", 'K') && standsOn("a1", 'R')) {
+      rights |= WHITE_QUEENSIDE;
+    }
+    if (standsOn("e8", 'k') && standsOn("h8", 'r')) {
+      rights |= BLACK_KINGSIDE;
+    }
+    if (standsOn("e8", 'k') && standsOn("a8", 'r')) {
+      rights |= BLACK_QUEENSIDE;
+    }
+    setCastlingRights(rights);
+  }
+
+  private boolean standsOn(String square, char asciiPiece) {
+    int code = bitboards.pieceAt(new Position(square).getIndex());
+    return code != Bitboards.EMPTY && Bitboards.toAsciiSymbol(code) == asciiPiece;
+  }
+
+  /**
+   * Returns the castling rights that survive a move from or to a square, which are all but those
+   * of a king or rook on its initial square.
+   *
+   * @param square The square moved from or to.
+   * @return The surviving rights.
+   */
+  public static int castlingRightsKeptBy(int square) {
+    return CASTLING_RIGHTS_KEPT[square];
+  }
+
+  /**
+   * Returns the square a pawn that just moved two steps skipped, if an opposing pawn could capture
+   * it en passant.
+   *
+   * @return The square, -1 if there is none.
+   */
+  public int getEnPassantSquare() {
+    return enPassantSquare;
+  }
+
+  public void setEnPassantSquare(int square) {
+    stateKey ^= Zobrist.enPassant(enPassantSquare) ^ Zobrist.enPassant(square);
+    enPassantSquare = square;
+  }
+
+  /**
+   * Returns the number of halfmoves since the last capture or pawn move, for the fifty-move rule.
+   *
+   * @return The halfmove clock.
+   */
+  public int getHalfmoveClock() {
+    return halfmoveClock;
+  }
+
+  public void setHalfmoveClock(int halfmoveClock) {
+    this.halfmoveClock = halfmoveClock;
+  }
+
+  /**
+   * Returns the number of the current full move, which starts at 1 and grows after each move of
+   * Black.
+   *
+   * @return The fullmove number.
+   */
+  public int getFullmoveNumber() {
+    return fullmoveNumber;
+  }
+
+  public void setFullmoveNumber(int fullmoveNumber) {
+    this.fullmoveNumber = fullmoveNumber;
+  }
+
+  /**
+   * Returns the Zobrist key of the position, covering the pieces, the side to move, the castling
+   * rights and the en passant square. It is updated incrementally as moves are applied and undone.
+   *
+   * @return The key.
+   */
+  public long getKey() {
+    return bitboards.getKey() ^ stateKey;
+  }
+
   /**
    * Returns (but doesn't print) an ASCII representation of the board, as seen from White's
    * perspective.
@@ -37,11 +224,11 @@ public class Board {
     StringBuilder asciiBoard = new StringBuilder();
     for (int i = RANK_COUNT - 1; i >= 0; i--) {
       for (int j = 0; j < FILE_COUNT; j++) {
-        Position position = new Position(i, j);
-        if (isEmpty(position)) {
+        int code = bitboards.pieceAt(new Position(i, j).getIndex());
+        if (code == Bitboards.EMPTY) {
           asciiBoard.append('.');
         } else {
-          asciiBoard.append(board[i][j].toAsciiSymbol());
+          asciiBoard.append(Bitboards.toAsciiSymbol(code));
         }
       }
       asciiBoard.append('\n');
@@ -59,7 +246,11 @@ public class Board {
     if (!position.insideBoard()) {
       return null;
     }
-    return board[position.getRank()][position.getFile()];
+    int code = bitboards.pieceAt(position.getIndex());
+    if (code == Bitboards.EMPTY) {
+      return null;
+    }
+    return Piece.createPiece(position, Bitboards.toAsciiSymbol(code));
   }
 
   /**
@@ -72,7 +263,7 @@ public class Board {
     if (!position.insideBoard()) {
       return false;
     }
-    return this.atPosition(position) == null;
+    return (bitboards.occupied() & Attacks.bit(position.getIndex())) == 0;
   }
 
   /**
@@ -83,10 +274,10 @@ public class Board {
    * @return Whether the given player occupies the given position.
    */
   public boolean isPlayer(Game.Player player, Position position) {
-    if (this.isEmpty(position)) {
+    if (!position.insideBoard()) {
       return false;
     }
-    return this.atPosition(position).getPlayer() == player;
+    return (bitboards.occupancy(player) & Attacks.bit(position.getIndex())) != 0;
   }
 
   /**
@@ -109,15 +300,11 @@ public class Board {
    */
   public ArrayList<Piece> getPieces(Game.Player player) {
     ArrayList<Piece> pieces = new ArrayList<>();
-    for (Piece[] rank : board) {
-      for (Piece piece : rank) {
-        if (piece == null) {
-          continue;
-        }
-        if (piece.getPlayer() == player) {
-          pieces.add(piece);
-        }
-      }
+    long occupancy = bitboards.occupancy(player);
+    while (occupancy != 0) {
+      int square = Long.numberOfTrailingZeros(occupancy);
+      occupancy &= occupancy - 1;
+      pieces.add(atPosition(Position.fromIndex(square)));
     }
     return pieces;
   }
@@ -129,13 +316,151 @@ public class Board {
    * @return A list of all legal moves of the given player.
    */
   public ArrayList<Move> getMoves(Game.Player player) {
-    ArrayList<Move> moves = new ArrayList<>();
-    for (Piece piece : this.getPieces(player)) {
-      moves.addAll(piece.getMoves(this));
+    MoveList packedMoves = new MoveList();
+    generateMoves(player, packedMoves);
+    ArrayList<Move> moves = new ArrayList<>(packedMoves.size());
+    for (int i = 0; i < packedMoves.size(); i++) {
+      moves.add(Move.createMove(packedMoves.get(i)));
     }
     return moves;
   }
 
+  /**
+   * Generates all legal moves of a given player as packed moves, without allocating.
+   *
+   * @param player The player whose moves to generate.
+   * @param moves The list to fill, which is cleared first.
+   */
+  public void generateMoves(Game.Player player, MoveList moves) {
+    if (generator == null) {
+      generator = new MoveGenerator(this);
+    }
+    generator.generate(player, moves);
+  }
+
+  /**
+   * Generates the legal captures and promotions of a given player as packed moves, or all its
+   * legal moves if it is in check, without allocating.
+   *
+   * @param player The player whose moves to generate.
+   * @param moves The list to fill, which is cleared first.
+   */
+  public void generateCaptures(Game.Player player, MoveList moves) {
+    if (generator == null) {
+      generator = new MoveGenerator(this);
+    }
+    generator.generateCaptures(player, moves);
+  }
+
+  /**
+   * Generates all legal moves of a given player as packed moves, scored so that taking them with
+   * MoveList.pickBest visits them best first: the hash move, captures by MVV-LVA, promotions,
+   * killer moves and then quiet moves by history.
+   *
+   * @param player The player whose moves to generate.
+   * @param moves The list to fill, which is cleared first.
+   * @param ordering The killer moves and history scores to score by.
+   * @param ply The distance from the root of the look-ahead.
+   * @param hashMove The packed move to try first, PackedMove.NONE if there is none.
+   */
+  public void generateOrderedMoves(
+      Game.Player player, MoveList moves, MoveOrdering ordering, int ply, int hashMove) {
+    generateMoves(player, moves);
+    ordering.score(this, moves, ply, hashMove);
+  }
+
+  /**
+   * Executes a packed move, which must be legal. The board state the move destroys is recorded in
+   * the history, so that the move can be taken back with unmakeMove.
+   *
+   * @param move The packed move.
+   */
+  public void makeMove(int move) {
+    int from = PackedMove.from(move);
+    int to = PackedMove.to(move);
+    int movingPiece = bitboards.pieceAt(from);
+    int capturedPiece = bitboards.pieceAt(to);
+    history.addMove(move, capturedPiece, this);
+    bitboards.put(to, movingPiece);
+    bitboards.remove(from);
+    switch (PackedMove.kind(move)) {
+      case PackedMove.CASTLING:
+        int rookFrom = PackedMove.castlingRookFrom(move);
+        bitboards.put(PackedMove.castlingRookTo(move), bitboards.pieceAt(rookFrom));
+        bitboards.remove(rookFrom);
+        break;
+      case PackedMove.EN_PASSANT:
+        bitboards.remove(PackedMove.enPassantCapture(move));
+        break;
+      case PackedMove.PROMOTION:
+        bitboards.put(to, PackedMove.promotedPiece(move));
+        break;
+      default:
+        break;
+    }
+    setCastlingRights(castlingRights & CASTLING_RIGHTS_KEPT[from] & CASTLING_RIGHTS_KEPT[to]);
+    setEnPassantSquare(enPassantSquareAfter(from, to, movingPiece));
+    if (Bitboards.typeOf(movingPiece) == Piece.PAWN || capturedPiece != Bitboards.EMPTY) {
+      halfmoveClock = 0;
+    } else {
+      halfmoveClock++;
+    }
+    if (sideToMove == Game.Player.BLACK) {
+      fullmoveNumber++;
+    }
+    setSideToMove(Game.otherPlayer(sideToMove));
+  }
+
+  private int enPassantSquareAfter(int from, int to, int movingPiece) {
+    if (Bitboards.typeOf(movingPiece) != Piece.PAWN || Math.abs(to - from) != 2 * FILE_COUNT) {
+      return -1;
+    }
+    int skipped = (from + to) / 2;
+    Game.Player player = Bitboards.playerOf(movingPiece);
+    long capturers =
+        Attacks.pawn(skipped, player) & bitboards.pieces(Piece.PAWN, Game.otherPlayer(player));
+    return (capturers != 0) ? skipped : -1;
+  }
+
+  /** Takes back the last move executed with makeMove, restoring the board to how it was. */
+  public void unmakeMove() {
+    int move = history.getLastPackedMove();
+    int from = PackedMove.from(move);
+    int to = PackedMove.to(move);
+    int capturedPiece = history.getLastCapturedPiece();
+    setCastlingRights(history.getLastCastlingRights());
+    setEnPassantSquare(history.getLastEnPassantSquare());
+    setSideToMove(Game.otherPlayer(sideToMove));
+    halfmoveClock = history.getLastHalfmoveClock();
+    if (sideToMove == Game.Player.BLACK) {
+      fullmoveNumber--;
+    }
+    history.removeLastMove();
+    int movedPiece = bitboards.pieceAt(to);
+    Game.Player player = Bitboards.playerOf(movedPiece);
+    switch (PackedMove.kind(move)) {
+      case PackedMove.CASTLING:
+        int rookTo = PackedMove.castlingRookTo(move);
+        bitboards.put(PackedMove.castlingRookFrom(move), bitboards.pieceAt(rookTo));
+        bitboards.remove(rookTo);
+        break;
+      case PackedMove.EN_PASSANT:
+        int capturedPawn = Bitboards.code(Piece.PAWN, Game.otherPlayer(player));
+        bitboards.put(PackedMove.enPassantCapture(move), capturedPawn);
+        break;
+      case PackedMove.PROMOTION:
+        movedPiece = Bitboards.code(Piece.PAWN, player);
+        break;
+      default:
+        break;
+    }
+    bitboards.put(from, movedPiece);
+    bitboards.remove(to);
+    if (capturedPiece != Bitboards.EMPTY) {
+      bitboards.put(to, capturedPiece);
+    }
+  }
+
   /**
    * Finds the king of a given color.
    *
@@ -143,25 +468,11 @@ public class Board {
    * @return The position of the king, null if there are none or multiple such positions.
    */
   public Position findKing(Game.Player player) {
-    char lookingFor = (player == Game.Player.BLACK) ? 'k' : 'K';
-    boolean foundIt = false;
-    Position position = null;
-    for (Piece[] rank : board) {
-      for (Piece piece : rank) {
-        if (piece == null) {
-          continue;
-        }
-        if (piece.toAsciiSymbol() == lookingFor) {
-          if (foundIt) {
-            return null;
-          } else {
-            position = piece.getPosition();
-            foundIt = true;
-          }
-        }
-      }
+    long kings = bitboards.pieces(Piece.KING, player);
+    if (Long.bitCount(kings) != 1) {
+      return null;
     }
-    return position;
+    return Position.fromIndex(Long.numberOfTrailingZeros(kings));
   }
 
   /**
@@ -176,23 +487,39 @@ public class Board {
     if (kingPosition == null) {
       return false;
     }
-    for (Piece piece : this.getPieces(otherPlayer)) {
-      // TODO: getReach skips special moves, which may be a problem in chess variants.
-      for (Position position : piece.getReach(this)) {
-        if (position.isEqual(kingPosition)) {
-          return true;
-        }
-      }
+    // TODO: Only regular attacks are considered, which may be a problem in chess variants.
+    return bitboards.isAttacked(kingPosition.getIndex(), otherPlayer);
+  }
+
+  /**
+   * Calculates whether a player has any legal move, stopping at the first one found.
+   *
+   * @param player The player to investigate.
+   * @return Whether the player can move.
+   */
+  public boolean hasMoves(Game.Player player) {
+    if (generator == null) {
+      generator = new MoveGenerator(this);
     }
-    return false;
+    return generator.hasAnyLegalMove(player);
   }
 
   public boolean inCheckMate(Game.Player player) {
-    return this.inCheck(player) && (this.getMoves(player).size() == 0);
+    return this.inCheck(player) && !this.hasMoves(player);
   }
 
   public boolean inStaleMate(Game.Player player) {
-    return (!this.inCheck(player)) && (this.getMoves(player).size() == 0);
+    return (!this.inCheck(player)) && !this.hasMoves(player);
+  }
+
+  /**
+   * Calculates the algebraic notation of every move in a list of legal moves, in one pass.
+   *
+   * @param legalMoves The legal moves of one player on this board, as given by getMoves.
+   * @return The notations, in the same order as the moves.
+   */
+  public ArrayList<String> getNotations(ArrayList<Move> legalMoves) {
+    return SanWriter.write(legalMoves, this);
   }
 
   /**
@@ -206,7 +533,7 @@ public class Board {
     if (!position.insideBoard()) {
       return false;
     }
-    board[position.getRank()][position.getFile()] = piece;
+    bitboards.put(position.getIndex(), Bitboards.codeOf(piece));
     return true;
   }
 
@@ -220,15 +547,10 @@ public class Board {
     if (!position.insideBoard() || this.isEmpty(position)) {
       return false;
     }
-    board[position.getRank()][position.getFile()] = null;
+    bitboards.remove(position.getIndex());
     return true;
   }
 
-  //TODO: Change so usages use getHistory.
-  public void addToHistory(Move move) {
-    history.addMove(move);
-  }
-
   /**
    * Creates a deep copy of the board.
    *
@@ -236,14 +558,13 @@ public class Board {
    */
   public Board getCopy() {
     Board copy = new Board();
-    for (Piece[] rank : board) {
-      for (Piece piece : rank) {
-        if (piece == null) {
-          continue;
-        }
-        copy.placePiece(piece.getCopy());
-      }
-    }
+    copy.bitboards = this.bitboards.getCopy();
+    copy.sideToMove = this.sideToMove;
+    copy.castlingRights = this.castlingRights;
+    copy.enPassantSquare = this.enPassantSquare;
+    copy.halfmoveClock = this.halfmoveClock;
+    copy.fullmoveNumber = this.fullmoveNumber;
+    copy.stateKey = this.stateKey;
     copy.history = this.history.getCopy();
     return copy;
   }
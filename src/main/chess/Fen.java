@@ -0,0 +1,223 @@
+package chess;
+
+import static chess.Game.FILE_COUNT;
+import static chess.Game.RANK_COUNT;
+
+import chess.piece.Piece;
+
+/**
+ * Implements Forsyth-Edwards Notation (FEN), the one-line description of a position: the piece
+ * placement, the side to move, the castling rights, the en passant square and the halfmove and
+ * fullmove counters, as in "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1".
+ *
+ * <p>Parsing reads the string character by character and puts the pieces straight into the
+ * bitboards. The two counters may be left out, as they are in EPD test suites. An en passant
+ * square is only kept if a pawn can capture on it, as after Board.makeMove, so that positions
+ * read from FEN have the same keys as those reached by moves.
+ */
+public final class Fen {
+
+  public static final String STARTING_POSITION =
+      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+  private static final String CASTLING_SYMBOLS = "KQkq";
+  private static final int[] CASTLING_RIGHTS = {
+      Board.WHITE_KINGSIDE, Board.WHITE_QUEENSIDE, Board.BLACK_KINGSIDE, Board.BLACK_QUEENSIDE
+  };
+
+  private Fen() {}
+
+  /**
+   * Builds a board from a FEN string.
+   *
+   * @param fen The FEN string, with or without the two counters.
+   * @return The board, with an empty history.
+   * @throws IllegalArgumentException If the string is not valid FEN.
+   */
+  public static Board parse(String fen) {
+    Board board = new Board();
+    Bitboards bitboards = board.getBitboards();
+    int length = fen.length();
+    int index = 0;
+
+    int rank = RANK_COUNT - 1;
+    int file = 0;
+    for (; index < length && fen.charAt(index) != ' '; index++) {
+      char symbol = fen.charAt(index);
+      if (symbol == '/') {
+        if (file != FILE_COUNT || rank == 0) {
+          throw invalid(fen, "wrong number of squares on rank " + (rank + 1));
+        }
+        rank--;
+        file = 0;
+      } else if (symbol >= '1' && symbol <= '8') {
+        file += symbol - '0';
+      } else {
+        int code = Bitboards.codeOf(symbol);
+        if (code == Bitboards.EMPTY || file >= FILE_COUNT) {
+          throw invalid(fen, "unexpected '" + symbol + "' in the piece placement");
+        }
+        bitboards.put(rank * FILE_COUNT + file, code);
+        file++;
+      }
+      if (file > FILE_COUNT) {
+        throw invalid(fen, "wrong number of squares on rank " + (rank + 1));
+      }
+    }
+    if (rank != 0 || file != FILE_COUNT) {
+      throw invalid(fen, "the piece placement does not cover the board");
+    }
+
+    index = skipSpace(fen, index);
+    if (index >= length) {
+      throw invalid(fen, "the side to move is missing");
+    }
+    char side = fen.charAt(index++);
+    if (side == 'w') {
+      board.setSideToMove(Game.Player.WHITE);
+    } else if (side == 'b') {
+      board.setSideToMove(Game.Player.BLACK);
+    } else {
+      throw invalid(fen, "unexpected side to move '" + side + "'");
+    }
+
+    index = skipSpace(fen, index);
+    int rights = 0;
+    if (index < length && fen.charAt(index) == '-') {
+      index++;
+    } else {
+      for (; index < length && fen.charAt(index) != ' '; index++) {
+        int symbol = CASTLING_SYMBOLS.indexOf(fen.charAt(index));
+        if (symbol < 0) {
+          throw invalid(fen, "unexpected castling right '" + fen.charAt(index) + "'");
+        }
+        rights |= CASTLING_RIGHTS[symbol];
+      }
+    }
+    board.setCastlingRights(rights);
+
+    index = skipSpace(fen, index);
+    if (index < length && fen.charAt(index) == '-') {
+      index++;
+    } else if (index + 1 < length) {
+      int enPassantFile = fen.charAt(index) - 'a';
+      int enPassantRank = fen.charAt(index + 1) - '1';
+      if (enPassantFile < 0 || enPassantFile >= FILE_COUNT
+          || enPassantRank != ((side == 'w') ? 5 : 2)) {
+        throw invalid(fen, "unexpected en passant square");
+      }
+      index += 2;
+      int square = enPassantRank * FILE_COUNT + enPassantFile;
+      Game.Player capturer = board.getSideToMove();
+      long capturers = Attacks.pawn(square, Game.otherPlayer(capturer))
+          & bitboards.pieces(Piece.PAWN, capturer);
+      if (capturers != 0) {
+        board.setEnPassantSquare(square);
+      }
+    } else {
+      throw invalid(fen, "the en passant square is missing");
+    }
+
+    index = skipSpace(fen, index);
+    if (index < length) {
+      int end = nextSpace(fen, index);
+      board.setHalfmoveClock(parseCounter(fen, index, end));
+      index = skipSpace(fen, end);
+      end = nextSpace(fen, index);
+      if (index < length) {
+        board.setFullmoveNumber(Math.max(1, parseCounter(fen, index, end)));
+      }
+      if (skipSpace(fen, end) < length) {
+        throw invalid(fen, "unexpected text after the fullmove number");
+      }
+    }
+    return board;
+  }
+
+  private static int skipSpace(String fen, int index) {
+    while (index < fen.length() && fen.charAt(index) == ' ') {
+      index++;
+    }
+    return index;
+  }
+
+  private static int nextSpace(String fen, int index) {
+    while (index < fen.length() && fen.charAt(index) != ' ') {
+      index++;
+    }
+    return index;
+  }
+
+  private static int parseCounter(String fen, int start, int end) {
+    if (end - start > 9) {
+      throw invalid(fen, "counter out of range");
+    }
+    int value = 0;
+    for (int i = start; i < end; i++) {
+      char digit = fen.charAt(i);
+      if (digit < '0' || digit > '9') {
+        throw invalid(fen, "unexpected '" + digit + "' in a counter");
+      }
+      value = value * 10 + (digit - '0');
+    }
+    return value;
+  }
+
+  private static IllegalArgumentException invalid(String fen, String reason) {
+    return new IllegalArgumentException("Invalid FEN \"" + fen + "\": " + reason);
+  }
+
+  /**
+   * Describes the position of a board in FEN.
+   *
+   * @param board The board.
+   * @return The FEN string, with both counters.
+   */
+  public static String write(Board board) {
+    Bitboards bitboards = board.getBitboards();
+    StringBuilder fen = new StringBuilder(90);
+    for (int rank = RANK_COUNT - 1; rank >= 0; rank--) {
+      int emptySquares = 0;
+      for (int file = 0; file < FILE_COUNT; file++) {
+        int code = bitboards.pieceAt(rank * FILE_COUNT + file);
+        if (code == Bitboards.EMPTY) {
+          emptySquares++;
+          continue;
+        }
+        if (emptySquares > 0) {
+          fen.append((char) ('0' + emptySquares));
+          emptySquares = 0;
+        }
+        fen.append(Bitboards.toAsciiSymbol(code));
+      }
+      if (emptySquares > 0) {
+        fen.append((char) ('0' + emptySquares));
+      }
+      if (rank > 0) {
+        fen.append('/');
+      }
+    }
+
+    fen.append((board.getSideToMove() == Game.Player.WHITE) ? " w " : " b ");
+    int rights = board.getCastlingRights();
+    if (rights == 0) {
+      fen.append('-');
+    }
+    for (int i = 0; i < CASTLING_RIGHTS.length; i++) {
+      if ((rights & CASTLING_RIGHTS[i]) != 0) {
+        fen.append(CASTLING_SYMBOLS.charAt(i));
+      }
+    }
+
+    int enPassantSquare = board.getEnPassantSquare();
+    fen.append(' ');
+    if (enPassantSquare < 0) {
+      fen.append('-');
+    } else {
+      fen.append(Position.fromIndex(enPassantSquare).getNotation());
+    }
+    fen.append(' ').append(board.getHalfmoveClock());
+    fen.append(' ').append(board.getFullmoveNumber());
+    return fen.toString();
+  }
+}
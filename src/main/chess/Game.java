@@ -27,6 +27,8 @@ public class Game {
   private State state;
   private Board board;
   private Player currentPlayer;
+  // The current player's legal moves, computed once after each move. Null until the game starts.
+  private ArrayList<Move> legalMoves;
 
   public Game() {
     state = State.SETUP;
@@ -88,18 +90,30 @@ public class Game {
    */
   public ArrayList<Position> whereCanItMoveTo(Position pieceLocation) {
     ArrayList<Position> positions = new ArrayList<>();
-    if (!pieceLocation.insideBoard()) {
+    if (!pieceLocation.insideBoard() || legalMoves == null) {
       return positions;
     }
-    if (!board.isPlayer(currentPlayer, pieceLocation)) {
-      return positions;
-    }
-    for (Move move : board.atPosition(pieceLocation).getMoves(board)) {
-      positions.add(move.getPosAfter());
+    for (Move move : legalMoves) {
+      if (move.getPosBefore().isEqual(pieceLocation)) {
+        positions.add(move.getPosAfter());
+      }
     }
     return positions;
   }
 
+  /**
+   * Calculates the algebraic notation of every legal move of the current player, for move lists
+   * in GUIs.
+   *
+   * @return The notations, empty if the game is not being played.
+   */
+  public ArrayList<String> getLegalMoveNotations() {
+    if (state != State.PLAY) {
+      return new ArrayList<>();
+    }
+    return board.getNotations(legalMoves);
+  }
+
   /**
    * Places a piece on the board, while in setup mode.
    *
@@ -168,9 +182,50 @@ public class Game {
     }
     state = State.PLAY;
     currentPlayer = Player.WHITE;
+    board.setSideToMove(currentPlayer);
+    board.resetCastlingRights();
+    legalMoves = board.getMoves(currentPlayer);
+    return true;
+  }
+
+  /**
+   * Sets up a position given in Forsyth-Edwards Notation and starts the game from it, while in
+   * setup mode. Unlike startGame, the side to move, castling rights, en passant square and move
+   * counters are taken from the FEN string.
+   *
+   * @param fen The FEN string, with or without the halfmove and fullmove counters.
+   * @return Whether the string was valid FEN, with one king each, and the game started.
+   */
+  public boolean startFromFen(String fen) {
+    if (state != State.SETUP) {
+      return false;
+    }
+    Board fenBoard;
+    try {
+      fenBoard = Board.fromFen(fen);
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    if (fenBoard.findKing(Player.WHITE) == null || fenBoard.findKing(Player.BLACK) == null) {
+      return false;
+    }
+    board = fenBoard;
+    state = State.PLAY;
+    currentPlayer = board.getSideToMove();
+    legalMoves = board.getMoves(currentPlayer);
+    checkEndOfGame();
     return true;
   }
 
+  /**
+   * Describes the current position in Forsyth-Edwards Notation.
+   *
+   * @return The FEN string.
+   */
+  public String toFen() {
+    return board.toFen();
+  }
+
   /**
    * Validated and executes a move given by the user.
    *
@@ -178,7 +233,7 @@ public class Game {
    * @return Whether the move was legal and carried out properly.
    */
   public boolean tryMakeMove(String moveNotation) {
-    Move move = Move.createMove(moveNotation, board.getMoves(currentPlayer), board);
+    Move move = Move.createMove(moveNotation, getLegalMoves(), board);
     if (move == null) {
       return false;
     }
@@ -194,7 +249,7 @@ public class Game {
    * @return Whether the move was legal and carried out properly.
    */
   public boolean tryMakeMove(Position posBefore, Position posAfter) {
-    Move move = Move.createMove(posBefore, posAfter, board.getMoves(currentPlayer));
+    Move move = Move.createMove(posBefore, posAfter, getLegalMoves());
     if (move == null) {
       return false;
     }
@@ -211,7 +266,7 @@ public class Game {
    * @return Whether the move was legal and carried out properly.
    */
   public boolean tryMakeMove(Position posBefore, Position posAfter, char promoteTo) {
-    Move move = Move.createMove(posBefore, posAfter, promoteTo, board.getMoves(currentPlayer));
+    Move move = Move.createMove(posBefore, posAfter, promoteTo, getLegalMoves());
     if (move == null) {
       return false;
     }
@@ -219,18 +274,30 @@ public class Game {
     return true;
   }
 
+  private ArrayList<Move> getLegalMoves() {
+    return (legalMoves == null) ? new ArrayList<>() : legalMoves;
+  }
+
   private void performMove(Move move) {
     move.applyTo(board);
     currentPlayer = otherPlayer(currentPlayer);
+    legalMoves = board.getMoves(currentPlayer);
     checkEndOfGame();
   }
 
+  /**
+   * Ends the game if the current player cannot move. Only the current player can be mated, as the
+   * other player's king cannot be in check.
+   */
   private void checkEndOfGame() {
-    if (board.inStaleMate(currentPlayer)) {
+    if (!legalMoves.isEmpty()) {
+      return;
+    }
+    if (!board.inCheck(currentPlayer)) {
       state = State.DRAW;
-    } else if (board.inCheckMate(Player.BLACK)) {
+    } else if (currentPlayer == Player.BLACK) {
       state = State.WHITE_WIN;
-    } else if (board.inCheckMate(Player.WHITE)) {
+    } else {
       state = State.BLACK_WIN;
     }
   }
@@ -1,20 +1,33 @@
 package chess;
 
 import chess.move.Move;
+import chess.move.PackedMove;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
- * Implements the history of a chess board.
- * TODO: Counting pawn moves
- * TODO: Three-time repetition rule
+ * Implements the history of a chess board. Along with each packed move it keeps the parts of the
+ * board state that the move destroys, so that the move can be undone, and the key of the position
+ * the move was made in, by which isRepetition finds repeated positions.
  */
 public class History {
 
-  private ArrayList<Move> moves;
+  private int[] moves;
+  private int size;
+  private int[] capturedPieces;
+  private int[] castlingRights;
+  private int[] enPassantSquares;
+  private int[] halfmoveClocks;
+  private long[] keys;
 
+  /** Constructor for an empty history. */
   public History() {
-    this.moves = new ArrayList<>();
+    this.moves = new int[16];
+    this.capturedPieces = new int[16];
+    this.castlingRights = new int[16];
+    this.enPassantSquares = new int[16];
+    this.halfmoveClocks = new int[16];
+    this.keys = new long[16];
   }
 
   /**
@@ -23,41 +36,140 @@ public class History {
    * @return That move.
    */
   public Move getLastMove() {
-    if (moves.isEmpty()) {
+    if (size == 0) {
       return null;
     }
-    return moves.get(moves.size() - 1);
+    return Move.createMove(moves[size - 1]);
   }
 
   /**
-   * Calculates whether the piece at the specified position has moved during the game.
+   * Returns the last executed move, packed.
    *
-   * @param position The position to investigate.
-   * @return True if the piece has moved, false if the piece hasn't moved or the position is empty.
+   * @return That move, PackedMove.NONE if there are no moves.
    */
-  public boolean hasMoved(Position position) {
-    for (Move move : moves) {
-      if (move.involves(position)) {
+  public int getLastPackedMove() {
+    if (size == 0) {
+      return PackedMove.NONE;
+    }
+    return moves[size - 1];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Adds a move together with the board state it is made in, so that the move can be undone later.
+   *
+   * @param move The executed move, packed.
+   * @param capturedPiece The piece code of the captured piece, Bitboards.EMPTY if none.
+   * @param board The board, before the move is executed on it.
+   */
+  public void addMove(int move, int capturedPiece, Board board) {
+    int ply = size;
+    if (ply == moves.length) {
+      moves = Arrays.copyOf(moves, 2 * ply);
+      capturedPieces = Arrays.copyOf(capturedPieces, 2 * ply);
+      castlingRights = Arrays.copyOf(castlingRights, 2 * ply);
+      enPassantSquares = Arrays.copyOf(enPassantSquares, 2 * ply);
+      halfmoveClocks = Arrays.copyOf(halfmoveClocks, 2 * ply);
+      keys = Arrays.copyOf(keys, 2 * ply);
+    }
+    capturedPieces[ply] = capturedPiece;
+    castlingRights[ply] = board.getCastlingRights();
+    enPassantSquares[ply] = board.getEnPassantSquare();
+    halfmoveClocks[ply] = board.getHalfmoveClock();
+    keys[ply] = board.getKey();
+    moves[ply] = move;
+    size++;
+  }
+
+  /**
+   * Returns what the last executed move captured on its destination.
+   *
+   * @return The piece code of the captured piece, Bitboards.EMPTY if none.
+   */
+  public int getLastCapturedPiece() {
+    if (size == 0) {
+      return Bitboards.EMPTY;
+    }
+    return capturedPieces[size - 1];
+  }
+
+  /**
+   * Returns the castling rights from before the last executed move.
+   *
+   * @return The castling rights, as in Board.getCastlingRights.
+   */
+  public int getLastCastlingRights() {
+    return castlingRights[size - 1];
+  }
+
+  /**
+   * Returns the en passant square from before the last executed move.
+   *
+   * @return The square, -1 if there was none.
+   */
+  public int getLastEnPassantSquare() {
+    return enPassantSquares[size - 1];
+  }
+
+  /**
+   * Returns the halfmove clock from before the last executed move.
+   *
+   * @return The halfmove clock, as in Board.getHalfmoveClock.
+   */
+  public int getLastHalfmoveClock() {
+    return halfmoveClocks[size - 1];
+  }
+
+  /**
+   * Finds whether the position after the last move occurred before, within a number of the last
+   * moves. Only positions since the last capture or pawn move can repeat, so with the halfmove
+   * clock as the bound the cost does not grow with the length of the game.
+   *
+   * @param key The Zobrist key of the position after the last move, as in Board.getKey.
+   * @param plies The number of last moves to look back over, such as the halfmove clock.
+   * @return Whether the position occurred before.
+   */
+  public boolean isRepetition(long key, int plies) {
+    int oldest = Math.max(size - plies, 0);
+    // Only positions with the same side to move can match, and each side needs two moves to go
+    // away and come back.
+    for (int ply = size - 4; ply >= oldest; ply -= 2) {
+      if (keys[ply] == key) {
         return true;
       }
     }
     return false;
   }
 
-  public void addMove(Move move) {
-    moves.add(move);
+  /**
+   * Removes the last executed move, when it is undone.
+   *
+   * @return That move, packed, PackedMove.NONE if there are no moves.
+   */
+  public int removeLastMove() {
+    if (size == 0) {
+      return PackedMove.NONE;
+    }
+    return moves[--size];
   }
 
   /**
-   * Constructs a shallow copy of this.
+   * Constructs a copy of this.
    *
    * @return The copy.
    */
   public History getCopy() {
     History copy = new History();
-    for (Move move : moves) {
-      copy.addMove(move);
-    }
+    copy.moves = moves.clone();
+    copy.size = size;
+    copy.capturedPieces = capturedPieces.clone();
+    copy.castlingRights = castlingRights.clone();
+    copy.enPassantSquares = enPassantSquares.clone();
+    copy.halfmoveClocks = halfmoveClocks.clone();
+    copy.keys = keys.clone();
     return copy;
   }
 
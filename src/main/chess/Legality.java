@@ -0,0 +1,167 @@
+package chess;
+
+import chess.piece.Piece;
+
+/**
+ * Implements the check and pin masks of one player in one position. They are computed once, after
+ * which the legality of each of the player's moves is decided with a few bit operations instead of
+ * trying the move and looking for checks.
+ */
+public class Legality {
+
+  private static final long ALL_SQUARES = ~0L;
+
+  private Bitboards bitboards;
+  private Game.Player player;
+  private int kingSquare;
+  private long checkers;
+  private long checkMask;
+  private long pinned;
+
+  /**
+   * Computes the masks of a player in the current position of a board. The masks are not updated
+   * when the board changes, but can be computed again.
+   *
+   * @param board The board.
+   * @param player The player whose moves are to be checked.
+   */
+  public Legality(Board board, Game.Player player) {
+    this.bitboards = board.getBitboards();
+    compute(player);
+  }
+
+  /**
+   * Computes the masks of a player in the current position of the board, replacing the old ones.
+   *
+   * @param player The player whose moves are to be checked.
+   */
+  public void compute(Game.Player player) {
+    this.player = player;
+    checkers = 0L;
+    pinned = 0L;
+    long king = bitboards.pieces(Piece.KING, player);
+    if (Long.bitCount(king) != 1) {
+      // Without a single king nothing can be in check, just like Board.inCheck.
+      kingSquare = -1;
+      checkMask = ALL_SQUARES;
+      return;
+    }
+    kingSquare = Long.numberOfTrailingZeros(king);
+    Game.Player otherPlayer = Game.otherPlayer(player);
+    long occupied = bitboards.occupied();
+
+    checkers = bitboards.attackersTo(kingSquare, otherPlayer, occupied);
+    if (checkers == 0) {
+      checkMask = ALL_SQUARES;
+    } else if (Long.bitCount(checkers) == 1) {
+      checkMask = checkers | Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+    } else {
+      checkMask = 0L;
+    }
+
+    long queens = bitboards.pieces(Piece.QUEEN, otherPlayer);
+    long snipers =
+        (Attacks.rook(kingSquare, 0L) & (bitboards.pieces(Piece.ROOK, otherPlayer) | queens))
+        | (Attacks.bishop(kingSquare, 0L) & (bitboards.pieces(Piece.BISHOP, otherPlayer) | queens));
+    while (snipers != 0) {
+      int sniper = Long.numberOfTrailingZeros(snipers);
+      snipers &= snipers - 1;
+      long blockers = Attacks.between(kingSquare, sniper) & occupied;
+      if (Long.bitCount(blockers) == 1 && (blockers & bitboards.occupancy(player)) != 0) {
+        pinned |= blockers;
+      }
+    }
+  }
+
+  public boolean inCheck() {
+    return checkers != 0;
+  }
+
+  /**
+   * Returns the king's square, -1 if the player does not have exactly one king.
+   *
+   * @return The square.
+   */
+  public int getKingSquare() {
+    return kingSquare;
+  }
+
+  /**
+   * Returns the squares a piece other than the king may move to with regard to checks: all
+   * squares when not in check, the checking piece and the squares between it and the king when in
+   * check, and none when in double check.
+   *
+   * @return The squares.
+   */
+  public long getCheckMask() {
+    return checkMask;
+  }
+
+  /**
+   * Returns the squares a piece may move to with regard to pins.
+   *
+   * @param square The square of the piece.
+   * @return The line through the king and the piece if it is pinned, otherwise all squares.
+   */
+  public long pinMask(int square) {
+    if ((pinned & Attacks.bit(square)) == 0) {
+      return ALL_SQUARES;
+    }
+    return Attacks.line(kingSquare, square);
+  }
+
+  /**
+   * Calculates whether the king can step to a square. The king itself is removed from the board
+   * first, so that it cannot hide behind itself on the line of a checking piece.
+   *
+   * @param to The square the king moves to.
+   * @return Whether the square is safe for the king.
+   */
+  public boolean kingCanMoveTo(int to) {
+    long occupied = bitboards.occupied() & ~Attacks.bit(kingSquare);
+    return bitboards.attackersTo(to, Game.otherPlayer(player), occupied) == 0;
+  }
+
+  /**
+   * Calculates whether an en passant capture is legal. Both pawns leave the rank at once, so the
+   * capture may uncover an attack on the king that no pin mask shows.
+   *
+   * @param from The square the capturing pawn moves from.
+   * @param to The square the capturing pawn moves to.
+   * @param captured The square of the captured pawn.
+   * @return Whether the capture leaves the own king safe.
+   */
+  public boolean allowsEnPassant(int from, int to, int captured) {
+    if (kingSquare < 0) {
+      return true;
+    }
+    long occupied =
+        (bitboards.occupied() & ~Attacks.bit(from) & ~Attacks.bit(captured)) | Attacks.bit(to);
+    long attackers = bitboards.attackersTo(kingSquare, Game.otherPlayer(player), occupied);
+    return (attackers & ~Attacks.bit(captured)) == 0;
+  }
+
+  /**
+   * Calculates whether the king may castle, given that the squares between king and rook are
+   * empty. The king must not be in check, nor pass or land on an attacked square.
+   *
+   * @param from The square of the king.
+   * @param to The square the king moves to.
+   * @return Whether castling is legal.
+   */
+  public boolean allowsCastling(int from, int to) {
+    if (inCheck()) {
+      return false;
+    }
+    Game.Player otherPlayer = Game.otherPlayer(player);
+    long path = Attacks.between(from, to) | Attacks.bit(to);
+    while (path != 0) {
+      int square = Long.numberOfTrailingZeros(path);
+      path &= path - 1;
+      if (bitboards.isAttacked(square, otherPlayer)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,267 @@
+package chess;
+
+import chess.move.MoveList;
+import chess.move.PackedMove;
+import chess.piece.Piece;
+
+/**
+ * Implements the generation of legal moves as packed moves, straight from the bitboards. The
+ * generator reuses its Legality and writes into a MoveList owned by the caller, so generating moves
+ * allocates nothing.
+ */
+public class MoveGenerator {
+
+  private static final int[] PROMOTION_TYPES = {
+    Piece.QUEEN, Piece.ROOK, Piece.BISHOP, Piece.KNIGHT
+  };
+
+  private Board board;
+  private Bitboards bitboards;
+  private Legality legality;
+
+  /**
+   * Constructor for a generator of the moves on a board.
+   *
+   * @param board The board, which the generator follows as moves are made on it.
+   */
+  public MoveGenerator(Board board) {
+    this.board = board;
+    this.bitboards = board.getBitboards();
+    this.legality = new Legality(board, board.getSideToMove());
+  }
+
+  /**
+   * Generates all legal moves of a player, replacing the contents of a list.
+   *
+   * @param player The player whose moves to generate.
+   * @param moves The list to fill.
+   */
+  public void generate(Game.Player player, MoveList moves) {
+    moves.clear();
+    legality.compute(player);
+    long own = bitboards.occupancy(player);
+    int kingSquare = legality.getKingSquare();
+    if (kingSquare >= 0) {
+      long targets = Attacks.king(kingSquare) & ~own;
+      while (targets != 0) {
+        int to = Long.numberOfTrailingZeros(targets);
+        targets &= targets - 1;
+        if (legality.kingCanMoveTo(to)) {
+          moves.add(PackedMove.encode(kingSquare, to));
+        }
+      }
+      addCastlings(player, kingSquare, moves);
+    } else {
+      // Without a single king nothing is in check, and kings move like any other piece.
+      addPieceMoves(Piece.KING, player, ~own, moves);
+    }
+
+    long targets = ~own & legality.getCheckMask();
+    if (targets == 0) {
+      // Only the king can get out of a double check.
+      return;
+    }
+    addPawnMoves(player, targets, moves);
+    addPieceMoves(Piece.KNIGHT, player, targets, moves);
+    addPieceMoves(Piece.BISHOP, player, targets, moves);
+    addPieceMoves(Piece.ROOK, player, targets, moves);
+    addPieceMoves(Piece.QUEEN, player, targets, moves);
+  }
+
+  /**
+   * Generates the legal captures and promotions of a player, or all its legal moves when it is in
+   * check, replacing the contents of a list. These are the moves a quiescence search tries, so the
+   * quiet moves it would skip are never generated.
+   *
+   * @param player The player whose moves to generate.
+   * @param moves The list to fill.
+   */
+  public void generateCaptures(Game.Player player, MoveList moves) {
+    legality.compute(player);
+    if (legality.inCheck()) {
+      generate(player, moves);
+      return;
+    }
+    moves.clear();
+    long enemy = bitboards.occupancy(Game.otherPlayer(player));
+    int kingSquare = legality.getKingSquare();
+    if (kingSquare >= 0) {
+      long targets = Attacks.king(kingSquare) & enemy;
+      while (targets != 0) {
+        int to = Long.numberOfTrailingZeros(targets);
+        targets &= targets - 1;
+        if (legality.kingCanMoveTo(to)) {
+          moves.add(PackedMove.encode(kingSquare, to));
+        }
+      }
+    } else {
+      addPieceMoves(Piece.KING, player, enemy, moves);
+    }
+    long promotionSquares = Attacks.rank((player == Game.Player.WHITE) ? Game.RANK_COUNT - 1 : 0);
+    addPawnMoves(player, enemy | promotionSquares, moves);
+    addPieceMoves(Piece.KNIGHT, player, enemy, moves);
+    addPieceMoves(Piece.BISHOP, player, enemy, moves);
+    addPieceMoves(Piece.ROOK, player, enemy, moves);
+    addPieceMoves(Piece.QUEEN, player, enemy, moves);
+  }
+
+  /**
+   * Finds whether a player has any legal move. Unlike generate, it stops at the first move found,
+   * trying the king first, and writes no moves anywhere.
+   *
+   * @param player The player whose moves to look for.
+   * @return Whether the player can move.
+   */
+  public boolean hasAnyLegalMove(Game.Player player) {
+    legality.compute(player);
+    long own = bitboards.occupancy(player);
+    int kingSquare = legality.getKingSquare();
+    if (kingSquare >= 0) {
+      long targets = Attacks.king(kingSquare) & ~own;
+      while (targets != 0) {
+        int to = Long.numberOfTrailingZeros(targets);
+        targets &= targets - 1;
+        if (legality.kingCanMoveTo(to)) {
+          return true;
+        }
+      }
+      // Castling is only legal when the king could also step onto the square it passes.
+    } else if (hasPieceMove(Piece.KING, player, ~own)) {
+      return true;
+    }
+
+    long targets = ~own & legality.getCheckMask();
+    if (targets == 0) {
+      return false;
+    }
+    return hasPieceMove(Piece.KNIGHT, player, targets)
+        || hasPieceMove(Piece.BISHOP, player, targets)
+        || hasPieceMove(Piece.ROOK, player, targets)
+        || hasPieceMove(Piece.QUEEN, player, targets)
+        || hasPawnMove(player, targets);
+  }
+
+  private boolean hasPieceMove(int type, Game.Player player, long targets) {
+    long occupied = bitboards.occupied();
+    long pieces = bitboards.pieces(type, player);
+    while (pieces != 0) {
+      int from = Long.numberOfTrailingZeros(pieces);
+      pieces &= pieces - 1;
+      if ((Attacks.forPiece(type, from, occupied) & targets & legality.pinMask(from)) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean hasPawnMove(Game.Player player, long targets) {
+    long pawns = bitboards.pieces(Piece.PAWN, player);
+    while (pawns != 0) {
+      int from = Long.numberOfTrailingZeros(pawns);
+      pawns &= pawns - 1;
+      if (pawnReach(player, from, targets) != 0 || allowsEnPassant(player, from)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void addPieceMoves(int type, Game.Player player, long targets, MoveList moves) {
+    long occupied = bitboards.occupied();
+    long pieces = bitboards.pieces(type, player);
+    while (pieces != 0) {
+      int from = Long.numberOfTrailingZeros(pieces);
+      pieces &= pieces - 1;
+      long reach = Attacks.forPiece(type, from, occupied) & targets & legality.pinMask(from);
+      while (reach != 0) {
+        int to = Long.numberOfTrailingZeros(reach);
+        reach &= reach - 1;
+        moves.add(PackedMove.encode(from, to));
+      }
+    }
+  }
+
+  private void addPawnMoves(Game.Player player, long targets, MoveList moves) {
+    long promotionSquares = Attacks.rank((player == Game.Player.WHITE) ? Game.RANK_COUNT - 1 : 0);
+    long pawns = bitboards.pieces(Piece.PAWN, player);
+    while (pawns != 0) {
+      int from = Long.numberOfTrailingZeros(pawns);
+      pawns &= pawns - 1;
+      long reach = pawnReach(player, from, targets);
+      while (reach != 0) {
+        int to = Long.numberOfTrailingZeros(reach);
+        reach &= reach - 1;
+        if ((promotionSquares & Attacks.bit(to)) == 0) {
+          moves.add(PackedMove.encode(from, to));
+          continue;
+        }
+        for (int type : PROMOTION_TYPES) {
+          moves.add(PackedMove.promotion(from, to, Bitboards.code(type, player)));
+        }
+      }
+      if (allowsEnPassant(player, from)) {
+        moves.add(PackedMove.encode(from, board.getEnPassantSquare(), PackedMove.EN_PASSANT));
+      }
+    }
+  }
+
+  /**
+   * Calculates the squares a pawn can legally move to, other than by en passant.
+   *
+   * @param player The player of the pawn.
+   * @param from The square of the pawn.
+   * @param targets The squares moves may end on, for the check and own pieces.
+   * @return The squares, as a bitboard.
+   */
+  private long pawnReach(Game.Player player, int from, long targets) {
+    boolean white = player == Game.Player.WHITE;
+    int forward = white ? Game.FILE_COUNT : -Game.FILE_COUNT;
+    long empty = ~bitboards.occupied();
+    long reach = Attacks.pawn(from, player) & bitboards.occupancy(Game.otherPlayer(player));
+    int single = from + forward;
+    if (single >= 0 && single < Attacks.SQUARE_COUNT && (empty & Attacks.bit(single)) != 0) {
+      reach |= Attacks.bit(single);
+      long doublePushTargets = Attacks.rank(white ? 3 : Game.RANK_COUNT - 4);
+      reach |= doublePushTargets & Attacks.bit(single + forward) & empty;
+    }
+    return reach & targets & legality.pinMask(from);
+  }
+
+  private boolean allowsEnPassant(Game.Player player, int from) {
+    int to = board.getEnPassantSquare();
+    // The en passant square belongs to the side to move, whose opponent just made a double push.
+    if (to < 0
+        || player != board.getSideToMove()
+        || (Attacks.pawn(from, player) & Attacks.bit(to)) == 0) {
+      return false;
+    }
+    int captured = PackedMove.enPassantCapture(PackedMove.encode(from, to, PackedMove.EN_PASSANT));
+    return bitboards.pieceAt(captured) == Bitboards.code(Piece.PAWN, Game.otherPlayer(player))
+        && legality.allowsEnPassant(from, to, captured);
+  }
+
+  private void addCastlings(Game.Player player, int kingSquare, MoveList moves) {
+    boolean white = player == Game.Player.WHITE;
+    int home = white ? 4 : Attacks.SQUARE_COUNT - 4;
+    if (kingSquare != home || legality.inCheck()) {
+      return;
+    }
+    int rights = board.getCastlingRights();
+    int kingside = white ? Board.WHITE_KINGSIDE : Board.BLACK_KINGSIDE;
+    int queenside = white ? Board.WHITE_QUEENSIDE : Board.BLACK_QUEENSIDE;
+    if ((rights & kingside) != 0) {
+      addCastling(player, home, home + 3, home + 2, moves);
+    }
+    if ((rights & queenside) != 0) {
+      addCastling(player, home, home - 4, home - 2, moves);
+    }
+  }
+
+  private void addCastling(Game.Player player, int from, int rookSquare, int to, MoveList moves) {
+    if (bitboards.pieceAt(rookSquare) == Bitboards.code(Piece.ROOK, player)
+        && (Attacks.between(from, rookSquare) & bitboards.occupied()) == 0
+        && legality.allowsCastling(from, to)) {
+      moves.add(PackedMove.encode(from, to, PackedMove.CASTLING));
+    }
+  }
+}
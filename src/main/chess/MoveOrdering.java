@@ -0,0 +1,117 @@
+package chess;
+
+import chess.move.MoveList;
+import chess.move.PackedMove;
+import chess.piece.Piece;
+
+import java.util.Arrays;
+
+/**
+ * Implements the scoring of moves for a look-ahead, so that the moves most likely to be best are
+ * tried first. The scores fall into stages: the hash move, then captures by most valuable victim
+ * and least valuable attacker (MVV-LVA), then promotions, then the killer moves of the ply, and
+ * last the quiet moves by their history score. Killer moves and history scores are learnt from
+ * the cutoffs of the look-ahead, so a MoveOrdering belongs to one look-ahead at a time.
+ */
+public class MoveOrdering {
+
+  public static final int MAX_PLY = 128;
+
+  private static final int HASH_MOVE = 1 << 30;
+  private static final int CAPTURE = 1 << 29;
+  private static final int PROMOTION = 1 << 28;
+  private static final int KILLER = 1 << 27;
+  // History scores are halved when one grows past this, so that they stay below the killers.
+  private static final int HISTORY_LIMIT = 1 << 26;
+
+  private int[][] killers = new int[MAX_PLY][2];
+  private int[] history = new int[12 * Attacks.SQUARE_COUNT];
+
+  /**
+   * Scores each move of a list, to be taken in order with MoveList.pickBest.
+   *
+   * @param board The board the moves are made on.
+   * @param moves The moves.
+   * @param ply The distance from the root of the look-ahead, for the killer moves.
+   * @param hashMove The packed move to try first, PackedMove.NONE if there is none.
+   */
+  public void score(Board board, MoveList moves, int ply, int hashMove) {
+    Bitboards bitboards = board.getBitboards();
+    int[] plyKillers = killers[Math.min(ply, MAX_PLY - 1)];
+    for (int i = 0; i < moves.size(); i++) {
+      int move = moves.get(i);
+      int movingPiece = bitboards.pieceAt(PackedMove.from(move));
+      int to = PackedMove.to(move);
+      int score;
+      if (move == hashMove) {
+        score = HASH_MOVE;
+      } else if (PackedMove.isCapture(bitboards, move)) {
+        int victim = (PackedMove.kind(move) == PackedMove.EN_PASSANT)
+            ? Piece.PAWN
+            : Bitboards.typeOf(bitboards.pieceAt(to));
+        score = CAPTURE + 8 * victim + (Piece.KING - Bitboards.typeOf(movingPiece));
+        if (PackedMove.kind(move) == PackedMove.PROMOTION) {
+          score += 8 * promotionValue(move);
+        }
+      } else if (PackedMove.kind(move) == PackedMove.PROMOTION) {
+        score = PROMOTION + promotionValue(move);
+      } else if (move == plyKillers[0]) {
+        score = KILLER + 1;
+      } else if (move == plyKillers[1]) {
+        score = KILLER;
+      } else {
+        score = history[movingPiece * Attacks.SQUARE_COUNT + to];
+      }
+      moves.setScore(i, score);
+    }
+  }
+
+  private static int promotionValue(int move) {
+    return Bitboards.typeOf(PackedMove.promotedPiece(move));
+  }
+
+  /**
+   * Calculates whether a move neither captures nor promotes, which are the moves that killer
+   * moves and history scores are kept for.
+   *
+   * @param bitboards The bitboards the move is made on.
+   * @param move The packed move.
+   * @return Whether the move is quiet.
+   */
+  public static boolean isQuiet(Bitboards bitboards, int move) {
+    return !PackedMove.isCapture(bitboards, move) && PackedMove.kind(move) != PackedMove.PROMOTION;
+  }
+
+  /**
+   * Records a quiet move that caused a cutoff, as a killer move of its ply and in the history.
+   * Deeper cutoffs count for more.
+   *
+   * @param board The board, in the position the move is made in.
+   * @param move The packed move.
+   * @param ply The distance from the root of the look-ahead.
+   * @param depth The remaining depth of the look-ahead.
+   */
+  public void addCutoff(Board board, int move, int ply, int depth) {
+    int[] plyKillers = killers[Math.min(ply, MAX_PLY - 1)];
+    if (plyKillers[0] != move) {
+      plyKillers[1] = plyKillers[0];
+      plyKillers[0] = move;
+    }
+    int movingPiece = board.getBitboards().pieceAt(PackedMove.from(move));
+    int index = movingPiece * Attacks.SQUARE_COUNT + PackedMove.to(move);
+    history[index] += depth * depth;
+    if (history[index] > HISTORY_LIMIT) {
+      for (int i = 0; i < history.length; i++) {
+        history[i] /= 2;
+      }
+    }
+  }
+
+  /** Forgets the killer moves and history scores. */
+  public void clear() {
+    for (int[] plyKillers : killers) {
+      Arrays.fill(plyKillers, PackedMove.NONE);
+    }
+    Arrays.fill(history, 0);
+  }
+}
@@ -0,0 +1,204 @@
+package chess;
+
+import chess.move.MoveList;
+import chess.move.PackedMove;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Implements perft on a fork/join pool. The subtrees of the first and second ply are counted by
+ * separate tasks, each on its own copy of the board. Optionally the tasks share a table of the
+ * counts of subtrees, so that a position reached by another move order is counted only once.
+ */
+public class ParallelPerft {
+
+  private ForkJoinPool pool;
+  private PerftTable table;
+  private long nodes;
+  private long nanos;
+
+  /**
+   * Constructor for a parallel perft without a table of counts.
+   *
+   * @param parallelism The number of threads of the pool.
+   */
+  public ParallelPerft(int parallelism) {
+    this(parallelism, null);
+  }
+
+  /**
+   * Constructor for a parallel perft.
+   *
+   * @param parallelism The number of threads of the pool.
+   * @param table The table of counts the tasks share, null if none.
+   */
+  public ParallelPerft(int parallelism, PerftTable table) {
+    this.pool = new ForkJoinPool(parallelism);
+    this.table = table;
+  }
+
+  /**
+   * Counts the move paths of a given length, starting with the side to move of the board. The
+   * board itself is not changed.
+   *
+   * @param board The board.
+   * @param depth The length of the paths, in plies.
+   * @return The number of paths.
+   */
+  public long perft(Board board, int depth) {
+    long count = 0;
+    for (long subtree : divide(board, depth).values()) {
+      count += subtree;
+    }
+    return (depth == 0) ? 1 : count;
+  }
+
+  /**
+   * Counts the move paths of a given length for each legal move of the side to move, as
+   * Perft.divide does.
+   *
+   * @param board The board.
+   * @param depth The length of the paths, in plies, including the first move.
+   * @return The number of paths following each move, in coordinate notation.
+   */
+  public Map<String, Long> divide(Board board, int depth) {
+    long start = System.nanoTime();
+    Map<String, Long> counts = new LinkedHashMap<>();
+    nodes = 0;
+    if (depth > 0) {
+      MoveList moves = new MoveList();
+      board.generateMoves(board.getSideToMove(), moves);
+      List<SubtreeTask> tasks = subtreeTasks(board, moves, depth - 1, true);
+      pool.invoke(new SumTask(tasks));
+      for (int i = 0; i < moves.size(); i++) {
+        long count = tasks.get(i).join();
+        counts.put(PackedMove.toCoordinateNotation(moves.get(i)), count);
+        nodes += count;
+      }
+    }
+    nanos = System.nanoTime() - start;
+    return counts;
+  }
+
+  /**
+   * Returns the number of paths counted by the last call to perft or divide.
+   *
+   * @return The number of paths.
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Returns the speed of the last call to perft or divide.
+   *
+   * @return The counted paths per second.
+   */
+  public long getNodesPerSecond() {
+    return (nanos == 0) ? 0 : (long) (nodes * 1e9 / nanos);
+  }
+
+  /** Stops the threads of the pool. */
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  private List<SubtreeTask> subtreeTasks(Board board, MoveList moves, int depth, boolean split) {
+    List<SubtreeTask> tasks = new ArrayList<>(moves.size());
+    for (int i = 0; i < moves.size(); i++) {
+      board.makeMove(moves.get(i));
+      tasks.add(new SubtreeTask(board.getCopy(), depth, split));
+      board.unmakeMove();
+    }
+    return tasks;
+  }
+
+  /** Runs the tasks of the first ply, which fork those of the second. */
+  private static class SumTask extends RecursiveTask<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<SubtreeTask> tasks;
+
+    SumTask(List<SubtreeTask> tasks) {
+      this.tasks = tasks;
+    }
+
+    @Override
+    protected Long compute() {
+      long count = 0;
+      for (SubtreeTask task : invokeAll(tasks)) {
+        count += task.join();
+      }
+      return count;
+    }
+  }
+
+  /** Counts the paths from a position on a board of its own. */
+  private class SubtreeTask extends RecursiveTask<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    private Board board;
+    private int depth;
+    private boolean split;
+
+    SubtreeTask(Board board, int depth, boolean split) {
+      this.board = board;
+      this.depth = depth;
+      this.split = split;
+    }
+
+    @Override
+    protected Long compute() {
+      if (split && depth > 1) {
+        MoveList moves = new MoveList();
+        board.generateMoves(board.getSideToMove(), moves);
+        long count = 0;
+        for (SubtreeTask task : invokeAll(subtreeTasks(board, moves, depth - 1, false))) {
+          count += task.join();
+        }
+        return count;
+      }
+      MoveList[] moveLists = new MoveList[depth + 1];
+      for (int i = 0; i <= depth; i++) {
+        moveLists[i] = new MoveList();
+      }
+      return count(moveLists, depth);
+    }
+
+    private long count(MoveList[] moveLists, int depth) {
+      if (depth == 0) {
+        return 1;
+      }
+      MoveList moves = moveLists[depth];
+      if (depth == 1) {
+        board.generateMoves(board.getSideToMove(), moves);
+        return moves.size();
+      }
+      long key = board.getKey();
+      if (table != null) {
+        long count = table.get(key, depth);
+        if (count >= 0) {
+          return count;
+        }
+      }
+      board.generateMoves(board.getSideToMove(), moves);
+      long count = 0;
+      for (int i = 0; i < moves.size(); i++) {
+        board.makeMove(moves.get(i));
+        count += count(moveLists, depth - 1);
+        board.unmakeMove();
+      }
+      if (table != null) {
+        table.put(key, depth, count);
+      }
+      return count;
+    }
+  }
+}
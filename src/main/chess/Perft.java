@@ -0,0 +1,112 @@
+package chess;
+
+import chess.move.MoveList;
+import chess.move.PackedMove;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Implements perft, which counts the move paths of a given length from a position. The counts are
+ * known for many positions, which makes perft the reference test of the move generator, and the
+ * time it takes makes it a benchmark of the same. Moves are generated into one MoveList per ply,
+ * so counting allocates nothing once the lists exist.
+ */
+public class Perft {
+
+  private MoveList[] moveLists = new MoveList[0];
+  private long nodes;
+  private long nanos;
+
+  /**
+   * Counts the move paths of a given length, starting with the side to move of the board. The
+   * board is restored before returning.
+   *
+   * @param board The board.
+   * @param depth The length of the paths, in plies.
+   * @return The number of paths.
+   */
+  public long perft(Board board, int depth) {
+    long start = System.nanoTime();
+    ensureMoveLists(depth);
+    long count = count(board, depth);
+    nanos = System.nanoTime() - start;
+    nodes = count;
+    return count;
+  }
+
+  /**
+   * Counts the move paths of a given length for each legal move of the side to move, the sum of
+   * which is the perft of the position. Comparing the counts with those of another move generator
+   * locates its faults.
+   *
+   * @param board The board.
+   * @param depth The length of the paths, in plies, including the first move.
+   * @return The number of paths following each move, in coordinate notation.
+   */
+  public Map<String, Long> divide(Board board, int depth) {
+    long start = System.nanoTime();
+    Map<String, Long> counts = new LinkedHashMap<>();
+    nodes = 0;
+    if (depth > 0) {
+      ensureMoveLists(depth);
+      MoveList moves = moveLists[depth];
+      board.generateMoves(board.getSideToMove(), moves);
+      for (int i = 0; i < moves.size(); i++) {
+        board.makeMove(moves.get(i));
+        long count = count(board, depth - 1);
+        board.unmakeMove();
+        counts.put(PackedMove.toCoordinateNotation(moves.get(i)), count);
+        nodes += count;
+      }
+    }
+    nanos = System.nanoTime() - start;
+    return counts;
+  }
+
+  private void ensureMoveLists(int depth) {
+    if (moveLists.length > depth) {
+      return;
+    }
+    moveLists = new MoveList[depth + 1];
+    for (int i = 0; i <= depth; i++) {
+      moveLists[i] = new MoveList();
+    }
+  }
+
+  private long count(Board board, int depth) {
+    if (depth == 0) {
+      return 1;
+    }
+    MoveList moves = moveLists[depth];
+    board.generateMoves(board.getSideToMove(), moves);
+    if (depth == 1) {
+      return moves.size();
+    }
+    long count = 0;
+    for (int i = 0; i < moves.size(); i++) {
+      board.makeMove(moves.get(i));
+      count += count(board, depth - 1);
+      board.unmakeMove();
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of paths counted by the last call to perft or divide.
+   *
+   * @return The number of paths.
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Returns the speed of the last call to perft or divide.
+   *
+   * @return The counted paths per second.
+   */
+  public long getNodesPerSecond() {
+    return (nanos == 0) ? 0 : (long) (nodes * 1e9 / nanos);
+  }
+}
@@ -0,0 +1,59 @@
+package chess;
+
+/**
+ * Implements a fixed-size table of perft counts, keyed by position and depth, that threads may
+ * share without locking. As in the transposition table of the search, each key is stored XORed
+ * with its count, so that a count whose key was written by another thread at the same time is
+ * taken for a miss rather than returned for the wrong position.
+ */
+public class PerftTable {
+
+  // Mixes the depth into the key, so that the counts of one position at two depths do not collide.
+  private static final long DEPTH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  private long[] keys;
+  private long[] counts;
+  private int mask;
+
+  /**
+   * Constructor for an empty table, with as many entries as fit in the given size, rounded down to
+   * a power of two.
+   *
+   * @param megabytes The size of the table.
+   */
+  public PerftTable(int megabytes) {
+    long entries = Math.max(1, (long) megabytes * 1024 * 1024 / (2 * Long.BYTES));
+    int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+    keys = new long[size];
+    counts = new long[size];
+    mask = size - 1;
+  }
+
+  /**
+   * Looks up the count of a position.
+   *
+   * @param key The Zobrist key of the position.
+   * @param depth The depth of the count.
+   * @return The count, -1 if it is not in the table.
+   */
+  public long get(long key, int depth) {
+    long mixedKey = key ^ (depth * DEPTH_MULTIPLIER);
+    int index = (int) (mixedKey >>> 32) & mask;
+    long count = counts[index];
+    return ((keys[index] ^ count) == mixedKey) ? count : -1;
+  }
+
+  /**
+   * Stores the count of a position, replacing whatever count was stored in its place.
+   *
+   * @param key The Zobrist key of the position.
+   * @param depth The depth of the count.
+   * @param count The count.
+   */
+  public void put(long key, int depth, long count) {
+    long mixedKey = key ^ (depth * DEPTH_MULTIPLIER);
+    int index = (int) (mixedKey >>> 32) & mask;
+    keys[index] = mixedKey ^ count;
+    counts[index] = count;
+  }
+}
@@ -0,0 +1,178 @@
+package chess;
+
+import chess.piece.Piece;
+
+/**
+ * Implements the material and piece-square values of the evaluation, one set for the middlegame
+ * and one for the endgame. The values are indexed by piece code and square, include the value of
+ * the piece itself, and are negative for Black, so that the totals of a position are simple sums
+ * that Bitboards keeps up to date as pieces are put and removed.
+ */
+public final class PieceSquareTables {
+
+  /** The phase of a position with all pieces on the board, which counts as a pure middlegame. */
+  public static final int MAX_PHASE = 24;
+
+  // How much each type of piece counts towards the phase; pawns and kings do not count.
+  private static final int[] PHASE_WEIGHTS = {0, 1, 1, 2, 4, 0};
+
+  private static final int[] MIDDLEGAME_VALUES = {100, 320, 330, 500, 900, 0};
+  private static final int[] ENDGAME_VALUES = {120, 300, 330, 520, 900, 0};
+
+  // The tables below are seen from White's side, with the eighth rank on top.
+  private static final int[] PAWN = {
+      0,   0,   0,   0,   0,   0,   0,   0,
+     50,  50,  50,  50,  50,  50,  50,  50,
+     10,  10,  20,  30,  30,  20,  10,  10,
+      5,   5,  10,  25,  25,  10,   5,   5,
+      0,   0,   0,  20,  20,   0,   0,   0,
+      5,  -5, -10,   0,   0, -10,  -5,   5,
+      5,  10,  10, -20, -20,  10,  10,   5,
+      0,   0,   0,   0,   0,   0,   0,   0
+  };
+
+  private static final int[] PAWN_ENDGAME = {
+      0,   0,   0,   0,   0,   0,   0,   0,
+     80,  80,  80,  80,  80,  80,  80,  80,
+     50,  50,  50,  50,  50,  50,  50,  50,
+     30,  30,  30,  30,  30,  30,  30,  30,
+     15,  15,  15,  15,  15,  15,  15,  15,
+      5,   5,   5,   5,   5,   5,   5,   5,
+      0,   0,   0,   0,   0,   0,   0,   0,
+      0,   0,   0,   0,   0,   0,   0,   0
+  };
+
+  private static final int[] KNIGHT = {
+    -50, -40, -30, -30, -30, -30, -40, -50,
+    -40, -20,   0,   0,   0,   0, -20, -40,
+    -30,   0,  10,  15,  15,  10,   0, -30,
+    -30,   5,  15,  20,  20,  15,   5, -30,
+    -30,   0,  15,  20,  20,  15,   0, -30,
+    -30,   5,  10,  15,  15,  10,   5, -30,
+    -40, -20,   0,   5,   5,   0, -20, -40,
+    -50, -40, -30, -30, -30, -30, -40, -50
+  };
+
+  private static final int[] BISHOP = {
+    -20, -10, -10, -10, -10, -10, -10, -20,
+    -10,   0,   0,   0,   0,   0,   0, -10,
+    -10,   0,   5,  10,  10,   5,   0, -10,
+    -10,   5,   5,  10,  10,   5,   5, -10,
+    -10,   0,  10,  10,  10,  10,   0, -10,
+    -10,  10,  10,  10,  10,  10,  10, -10,
+    -10,   5,   0,   0,   0,   0,   5, -10,
+    -20, -10, -10, -10, -10, -10, -10, -20
+  };
+
+  private static final int[] ROOK = {
+      0,   0,   0,   0,   0,   0,   0,   0,
+      5,  10,  10,  10,  10,  10,  10,   5,
+     -5,   0,   0,   0,   0,   0,   0,  -5,
+     -5,   0,   0,   0,   0,   0,   0,  -5,
+     -5,   0,   0,   0,   0,   0,   0,  -5,
+     -5,   0,   0,   0,   0,   0,   0,  -5,
+     -5,   0,   0,   0,   0,   0,   0,  -5,
+      0,   0,   0,   5,   5,   0,   0,   0
+  };
+
+  private static final int[] QUEEN = {
+    -20, -10, -10,  -5,  -5, -10, -10, -20,
+    -10,   0,   0,   0,   0,   0,   0, -10,
+    -10,   0,   5,   5,   5,   5,   0, -10,
+     -5,   0,   5,   5,   5,   5,   0,  -5,
+      0,   0,   5,   5,   5,   5,   0,  -5,
+    -10,   5,   5,   5,   5,   5,   0, -10,
+    -10,   0,   5,   0,   0,   0,   0, -10,
+    -20, -10, -10,  -5,  -5, -10, -10, -20
+  };
+
+  private static final int[] KING = {
+    -30, -40, -40, -50, -50, -40, -40, -30,
+    -30, -40, -40, -50, -50, -40, -40, -30,
+    -30, -40, -40, -50, -50, -40, -40, -30,
+    -30, -40, -40, -50, -50, -40, -40, -30,
+    -20, -30, -30, -40, -40, -30, -30, -20,
+    -10, -20, -20, -20, -20, -20, -20, -10,
+     20,  20,   0,   0,   0,   0,  20,  20,
+     20,  30,  10,   0,   0,  10,  30,  20
+  };
+
+  private static final int[] KING_ENDGAME = {
+    -50, -40, -30, -20, -20, -30, -40, -50,
+    -30, -20, -10,   0,   0, -10, -20, -30,
+    -30, -10,  20,  30,  30,  20, -10, -30,
+    -30, -10,  30,  40,  40,  30, -10, -30,
+    -30, -10,  30,  40,  40,  30, -10, -30,
+    -30, -10,  20,  30,  30,  20, -10, -30,
+    -30, -30,   0,   0,   0,   0, -30, -30,
+    -50, -30, -30, -30, -30, -30, -30, -50
+  };
+
+  private static final int[][] MIDDLEGAME_TABLES = {PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING};
+  private static final int[][] ENDGAME_TABLES =
+      {PAWN_ENDGAME, KNIGHT, BISHOP, ROOK, QUEEN, KING_ENDGAME};
+
+  private static final int[] MIDDLEGAME = new int[12 * Attacks.SQUARE_COUNT];
+  private static final int[] ENDGAME = new int[12 * Attacks.SQUARE_COUNT];
+
+  static {
+    for (int type = Piece.PAWN; type <= Piece.KING; type++) {
+      for (int square = 0; square < Attacks.SQUARE_COUNT; square++) {
+        // The tables list the eighth rank first, and Black sees the board mirrored.
+        int whiteIndex = square ^ 56;
+        int blackIndex = square;
+        int white = Bitboards.code(type, Game.Player.WHITE) * Attacks.SQUARE_COUNT + square;
+        int black = Bitboards.code(type, Game.Player.BLACK) * Attacks.SQUARE_COUNT + square;
+        MIDDLEGAME[white] = MIDDLEGAME_VALUES[type] + MIDDLEGAME_TABLES[type][whiteIndex];
+        MIDDLEGAME[black] = -MIDDLEGAME_VALUES[type] - MIDDLEGAME_TABLES[type][blackIndex];
+        ENDGAME[white] = ENDGAME_VALUES[type] + ENDGAME_TABLES[type][whiteIndex];
+        ENDGAME[black] = -ENDGAME_VALUES[type] - ENDGAME_TABLES[type][blackIndex];
+      }
+    }
+  }
+
+  private PieceSquareTables() {}
+
+  /**
+   * Returns the middlegame value of a piece on a square.
+   *
+   * @param code The piece code.
+   * @param square The square.
+   * @return The value, positive for White and negative for Black.
+   */
+  public static int middlegame(int code, int square) {
+    return MIDDLEGAME[code * Attacks.SQUARE_COUNT + square];
+  }
+
+  /**
+   * Returns the endgame value of a piece on a square.
+   *
+   * @param code The piece code.
+   * @param square The square.
+   * @return The value, positive for White and negative for Black.
+   */
+  public static int endgame(int code, int square) {
+    return ENDGAME[code * Attacks.SQUARE_COUNT + square];
+  }
+
+  /**
+   * Returns the middlegame value of a type of piece, without regard to its square, as used for
+   * exchanges.
+   *
+   * @param type The type of the piece, such as Piece.PAWN.
+   * @return The value, 0 for kings.
+   */
+  public static int middlegameValue(int type) {
+    return MIDDLEGAME_VALUES[type];
+  }
+
+  /**
+   * Returns how much a piece counts towards the phase of the game.
+   *
+   * @param code The piece code.
+   * @return The weight, 0 for pawns and kings.
+   */
+  public static int phaseWeight(int code) {
+    return PHASE_WEIGHTS[Bitboards.typeOf(code)];
+  }
+}
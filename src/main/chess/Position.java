@@ -8,6 +8,14 @@ import java.util.Objects;
 /** Implements a position on a chess board, disregarding its content. */
 public class Position {
 
+  private static final Position[] BY_INDEX = new Position[RANK_COUNT * FILE_COUNT];
+
+  static {
+    for (int i = 0; i < BY_INDEX.length; i++) {
+      BY_INDEX[i] = new Position(i / FILE_COUNT, i % FILE_COUNT);
+    }
+  }
+
   private int rank;
   private int file;
 
@@ -31,6 +39,16 @@ public class Position {
     }
   }
 
+  /**
+   * Returns the shared position object for a square index, as used by the bitboards.
+   *
+   * @param index The square index, rank * FILE_COUNT + file.
+   * @return The position.
+   */
+  public static Position fromIndex(int index) {
+    return BY_INDEX[index];
+  }
+
   public int getRank() {
     return rank;
   }
@@ -39,6 +57,16 @@ public class Position {
     return file;
   }
 
+  /**
+   * Converts the position into its square index, rank * FILE_COUNT + file. Only meaningful for
+   * positions inside the board.
+   *
+   * @return The index.
+   */
+  public int getIndex() {
+    return rank * FILE_COUNT + file;
+  }
+
   /**
    * Converts the position into its usual name.
    *
@@ -0,0 +1,69 @@
+package chess;
+
+import java.util.Random;
+
+/**
+ * Implements the random numbers of Zobrist hashing. The key of a position is the exclusive or of
+ * one number per piece on its square, and one number each for the side to move, the castling
+ * rights and the en passant file, so a move updates it with a handful of exclusive ors.
+ */
+public final class Zobrist {
+
+  private static final long SEED = 0x64617661684C4EL;
+
+  private static final long[][] PIECE_SQUARE = new long[12][Attacks.SQUARE_COUNT];
+  private static final long[] CASTLING = new long[16];
+  private static final long[] EN_PASSANT_FILE = new long[Game.FILE_COUNT];
+  private static final long BLACK_TO_MOVE;
+
+  static {
+    Random random = new Random(SEED);
+    for (long[] squares : PIECE_SQUARE) {
+      for (int square = 0; square < squares.length; square++) {
+        squares[square] = random.nextLong();
+      }
+    }
+    long[] castlingRights = new long[4];
+    for (int i = 0; i < castlingRights.length; i++) {
+      castlingRights[i] = random.nextLong();
+    }
+    for (int rights = 0; rights < CASTLING.length; rights++) {
+      for (int i = 0; i < castlingRights.length; i++) {
+        if ((rights & (1 << i)) != 0) {
+          CASTLING[rights] ^= castlingRights[i];
+        }
+      }
+    }
+    for (int file = 0; file < EN_PASSANT_FILE.length; file++) {
+      EN_PASSANT_FILE[file] = random.nextLong();
+    }
+    BLACK_TO_MOVE = random.nextLong();
+  }
+
+  private Zobrist() {}
+
+  public static long piece(int code, int square) {
+    return PIECE_SQUARE[code][square];
+  }
+
+  public static long castling(int castlingRights) {
+    return CASTLING[castlingRights];
+  }
+
+  /**
+   * Returns the number of an en passant target square.
+   *
+   * @param square The target square, or -1 when en passant is not possible.
+   * @return The number of the square's file, 0 when en passant is not possible.
+   */
+  public static long enPassant(int square) {
+    if (square < 0) {
+      return 0L;
+    }
+    return EN_PASSANT_FILE[square % Game.FILE_COUNT];
+  }
+
+  public static long sideToMove(Game.Player player) {
+    return (player == Game.Player.BLACK) ? BLACK_TO_MOVE : 0L;
+  }
+}
@@ -0,0 +1,185 @@
+package chess.book;
+
+import chess.Bitboards;
+import chess.Board;
+import chess.move.MoveList;
+import chess.move.PackedMove;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Implements lookups in an opening book of the Polyglot format. The book file is mapped into
+ * memory and searched in place, so that opening it reads nothing and a lookup touches only the
+ * pages of one binary search, without allocating.
+ *
+ * <p>The file is a sequence of entries of 16 bytes, big-endian and sorted by key as an unsigned
+ * number: the key of a position, see PolyglotKey, then a move in 2 bytes, its weight in 2 bytes
+ * and 4 bytes for learning, which are not used. A move holds the file and the rank of the square
+ * moved to in bits 0-2 and 3-5, those of the square moved from in bits 6-8 and 9-11, and the
+ * piece promoted to in bits 12-14, 1 for a knight up to 4 for a queen. Castling is written as the
+ * king moving onto its own rook.
+ */
+public class PolyglotBook implements Closeable {
+
+  static final int ENTRY_BYTES = 16;
+
+  private ByteBuffer entries;
+  private int entryCount;
+
+  private PolyglotBook(ByteBuffer entries) {
+    this.entries = entries;
+    this.entryCount = entries.capacity() / ENTRY_BYTES;
+  }
+
+  /**
+   * Opens a book file for lookups.
+   *
+   * @param path The path of the file.
+   * @return The book.
+   * @throws IOException If the file cannot be read, or is not a whole number of entries.
+   */
+  public static PolyglotBook open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size % ENTRY_BYTES != 0 || size > Integer.MAX_VALUE) {
+        throw new IOException("Not a Polyglot book: " + path);
+      }
+      // The mapping stays valid after the channel is closed.
+      return new PolyglotBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  public int getEntryCount() {
+    return entryCount;
+  }
+
+  /**
+   * Finds the first entry of a position.
+   *
+   * @param key The Polyglot key of the position.
+   * @return The index of the first entry whose key is not below the given one.
+   */
+  private int findFirst(long key) {
+    int low = 0;
+    int high = entryCount;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (Long.compareUnsigned(entries.getLong(middle * ENTRY_BYTES), key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Counts the entries of a position.
+   *
+   * @param key The Polyglot key of the position.
+   * @return The number of book moves of the position, whether legal or not.
+   */
+  public int count(long key) {
+    int count = 0;
+    for (int i = findFirst(key); i < entryCount && entries.getLong(i * ENTRY_BYTES) == key; i++) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Looks up the book moves of the position of a board. The legal moves of the side to move are
+   * generated into a list, and only those the book gives a weight above 0 are kept, each with its
+   * weight as its score, so that entries that do not match a legal move are ignored.
+   *
+   * @param board The board.
+   * @param moves The list to fill with the packed book moves, which is cleared first.
+   * @return The sum of the weights of the moves, 0 if the position is not in the book.
+   */
+  public int probe(Board board, MoveList moves) {
+    board.generateMoves(board.getSideToMove(), moves);
+    long key = PolyglotKey.of(board);
+    for (int i = findFirst(key); i < entryCount; i++) {
+      int offset = i * ENTRY_BYTES;
+      if (entries.getLong(offset) != key) {
+        break;
+      }
+      int bookMove = entries.getShort(offset + 8) & 0xFFFF;
+      int weight = entries.getShort(offset + 10) & 0xFFFF;
+      for (int j = 0; j < moves.size(); j++) {
+        if (encodeMove(moves.get(j)) == bookMove) {
+          moves.setScore(j, moves.getScore(j) + weight);
+          break;
+        }
+      }
+    }
+    int size = 0;
+    int totalWeight = 0;
+    for (int j = 0; j < moves.size(); j++) {
+      int weight = moves.getScore(j);
+      if (weight > 0) {
+        moves.set(size, moves.get(j));
+        moves.setScore(size++, weight);
+        totalWeight += weight;
+      }
+    }
+    moves.truncate(size);
+    return totalWeight;
+  }
+
+  /**
+   * Picks a book move of the position of a board at random, each with a chance in proportion to
+   * its weight.
+   *
+   * @param board The board.
+   * @param moves A list to look the book moves up in, as with probe.
+   * @param random The source of randomness.
+   * @return The packed move, PackedMove.NONE if the position is not in the book.
+   */
+  public int pick(Board board, MoveList moves, Random random) {
+    int totalWeight = probe(board, moves);
+    if (totalWeight == 0) {
+      return PackedMove.NONE;
+    }
+    int remaining = random.nextInt(totalWeight);
+    int i = 0;
+    while (remaining >= moves.getScore(i)) {
+      remaining -= moves.getScore(i++);
+    }
+    return moves.get(i);
+  }
+
+  /**
+   * Converts a packed move to a Polyglot move. The squares of both encodings are indexed as rank
+   * times 8 plus file, so only castling and promotions need converting.
+   *
+   * @param move The packed move.
+   * @return The Polyglot move.
+   */
+  static int encodeMove(int move) {
+    int from = PackedMove.from(move);
+    int to = PackedMove.to(move);
+    switch (PackedMove.kind(move)) {
+      case PackedMove.CASTLING:
+        return PackedMove.castlingRookFrom(move) | (from << 6);
+      case PackedMove.PROMOTION:
+        return to | (from << 6) | (Bitboards.typeOf(PackedMove.promotedPiece(move)) << 12);
+      default:
+        return to | (from << 6);
+    }
+  }
+
+  /** Releases the book, which must not be used afterwards. */
+  @Override
+  public void close() {
+    // The mapping itself goes away when the buffer is collected.
+    entries = ByteBuffer.allocate(0);
+    entryCount = 0;
+  }
+}
@@ -0,0 +1,173 @@
+package chess.book;
+
+import chess.Board;
+import chess.Game;
+import chess.io.GameRecord;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Implements the building of a Polyglot opening book, see PolyglotBook, from games. Each move
+ * played in the first plies of a game earns the player who made it 2 points for a win and 1 for a
+ * draw or an unknown result, as Polyglot's own book maker counts, and the weight of a book move is
+ * the sum of its points. The weights are gathered in an open addressing table keyed by position
+ * and move, and are scaled down position by position where they overflow the 16 bits of an entry.
+ */
+public class PolyglotBookBuilder {
+
+  private static final int MAX_WEIGHT = 0xFFFF;
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private int maxPly;
+  private long[] keys = new long[1 << 10];
+  // A Polyglot move is never 0, as no move goes from a1 to a1, so 0 marks an empty slot.
+  private int[] moves = new int[keys.length];
+  private int[] weights = new int[keys.length];
+  private int size;
+  private int games;
+
+  /**
+   * Constructor for a builder of a book without moves.
+   *
+   * @param maxPly The number of plies of each game to take moves from.
+   */
+  public PolyglotBookBuilder(int maxPly) {
+    this.maxPly = maxPly;
+  }
+
+  /**
+   * Adds the moves of the first plies of a game.
+   *
+   * @param game The game.
+   */
+  public void add(GameRecord game) {
+    games++;
+    int whitePoints = points(game.getResult(), Game.Player.WHITE);
+    int blackPoints = points(game.getResult(), Game.Player.BLACK);
+    Board board = game.createInitialBoard();
+    int plies = Math.min(maxPly, game.getMoveCount());
+    for (int ply = 0; ply < plies; ply++) {
+      int move = game.getMove(ply);
+      int points = (board.getSideToMove() == Game.Player.WHITE) ? whitePoints : blackPoints;
+      if (points > 0) {
+        addWeight(PolyglotKey.of(board), PolyglotBook.encodeMove(move), points);
+      }
+      board.makeMove(move);
+    }
+  }
+
+  private static int points(String result, Game.Player player) {
+    switch (result) {
+      case "1-0":
+        return (player == Game.Player.WHITE) ? 2 : 0;
+      case "0-1":
+        return (player == Game.Player.BLACK) ? 2 : 0;
+      default:
+        return 1;
+    }
+  }
+
+  private void addWeight(long key, int move, int weight) {
+    int slot = findSlot(key, move);
+    if (moves[slot] == 0) {
+      keys[slot] = key;
+      moves[slot] = move;
+      if (++size > keys.length / 2) {
+        grow();
+        slot = findSlot(key, move);
+      }
+    }
+    weights[slot] = (int) Math.min(Integer.MAX_VALUE, (long) weights[slot] + weight);
+  }
+
+  private int findSlot(long key, int move) {
+    int mask = keys.length - 1;
+    long hash = (key ^ move) * 0x9E3779B97F4A7C15L;
+    for (int slot = (int) (hash >>> 32) & mask; ; slot = (slot + 1) & mask) {
+      if (moves[slot] == 0 || (keys[slot] == key && moves[slot] == move)) {
+        return slot;
+      }
+    }
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    int[] oldMoves = moves;
+    int[] oldWeights = weights;
+    keys = new long[2 * oldKeys.length];
+    moves = new int[keys.length];
+    weights = new int[keys.length];
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldMoves[i] != 0) {
+        int slot = findSlot(oldKeys[i], oldMoves[i]);
+        keys[slot] = oldKeys[i];
+        moves[slot] = oldMoves[i];
+        weights[slot] = oldWeights[i];
+      }
+    }
+  }
+
+  public int getGames() {
+    return games;
+  }
+
+  public int getEntryCount() {
+    return size;
+  }
+
+  /**
+   * Writes the book, replacing any file of that name.
+   *
+   * @param path The path of the file.
+   * @throws IOException If the file cannot be written.
+   */
+  public void write(Path path) throws IOException {
+    Integer[] order = new Integer[size];
+    int count = 0;
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (moves[slot] != 0) {
+        order[count++] = slot;
+      }
+    }
+    Arrays.sort(order, (a, b) -> (keys[a] != keys[b])
+        ? Long.compareUnsigned(keys[a], keys[b])
+        : Integer.compare(weights[b], weights[a]));
+
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      for (int first = 0; first < size; ) {
+        // The heaviest move of a position comes first, so it tells whether to scale.
+        int maxWeight = weights[order[first]];
+        int last = first;
+        while (last < size && keys[order[last]] == keys[order[first]]) {
+          int slot = order[last++];
+          int weight = weights[slot];
+          if (maxWeight > MAX_WEIGHT) {
+            weight = (int) Math.max(1, (long) weight * MAX_WEIGHT / maxWeight);
+          }
+          if (buffer.remaining() < PolyglotBook.ENTRY_BYTES) {
+            writeBuffer(channel, buffer);
+          }
+          buffer.putLong(keys[slot]).putShort((short) moves[slot]).putShort((short) weight)
+              .putInt(0);
+        }
+        first = last;
+      }
+      writeBuffer(channel, buffer);
+    }
+  }
+
+  private static void writeBuffer(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
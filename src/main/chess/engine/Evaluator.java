@@ -0,0 +1,31 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.Board;
+import chess.Game;
+import chess.PieceSquareTables;
+
+/**
+ * Implements the static evaluation of a position, counted in centipawns. It blends a middlegame and
+ * an endgame score of material and piece placement by the phase of the game. The scores are kept
+ * up to date by Bitboards as pieces move, so evaluating a position costs a few operations.
+ */
+public final class Evaluator {
+
+  private Evaluator() {}
+
+  /**
+   * Evaluates a position from the point of view of the side to move.
+   *
+   * @param board The board.
+   * @return The score, positive if the side to move is better.
+   */
+  public static int evaluate(Board board) {
+    Bitboards bitboards = board.getBitboards();
+    int phase = Math.min(bitboards.getPhase(), PieceSquareTables.MAX_PHASE);
+    int score = (bitboards.getMiddlegameScore() * phase
+        + bitboards.getEndgameScore() * (PieceSquareTables.MAX_PHASE - phase))
+        / PieceSquareTables.MAX_PHASE;
+    return (board.getSideToMove() == Game.Player.WHITE) ? score : -score;
+  }
+}
@@ -0,0 +1,116 @@
+package chess.engine;
+
+import chess.Board;
+import chess.tablebase.Tablebases;
+
+/**
+ * Implements a parallel search by Lazy SMP: every thread runs its own iterative deepening search
+ * on its own copy of the board, and the threads share only the transposition table. What one
+ * thread stores cuts the searches of the others short. The calling thread runs the main search,
+ * whose result is returned, while the helper threads start a ply deeper every other thread, so that
+ * they fill the table ahead of it.
+ */
+public class ParallelSearch {
+
+  private int threadCount;
+  private TranspositionTable table;
+  private Tablebases tablebases;
+  private int maxDepth = Search.MAX_PLY - 1;
+  private long nodeLimit = Long.MAX_VALUE;
+  private long timeLimitMillis = Long.MAX_VALUE / 1000000;
+
+  /**
+   * Constructor for a parallel search.
+   *
+   * @param threadCount The number of threads, including the calling thread.
+   * @param table The transposition table the threads share.
+   */
+  public ParallelSearch(int threadCount, TranspositionTable table) {
+    this.threadCount = Math.max(1, threadCount);
+    this.table = table;
+  }
+
+  public int getThreadCount() {
+    return threadCount;
+  }
+
+  public TranspositionTable getTranspositionTable() {
+    return table;
+  }
+
+  public void setMaxDepth(int depth) {
+    maxDepth = depth;
+  }
+
+  public void setTablebases(Tablebases tablebases) {
+    this.tablebases = tablebases;
+  }
+
+  /**
+   * Limits the number of positions the main thread visits. The helper threads stop when the main
+   * thread does, so all threads together visit about threadCount times as many.
+   *
+   * @param nodes The limit.
+   */
+  public void setNodeLimit(long nodes) {
+    nodeLimit = nodes;
+  }
+
+  public void setTimeLimit(long millis) {
+    timeLimitMillis = millis;
+  }
+
+  /**
+   * Searches for the best move of the side to move.
+   *
+   * @param board The board, which the threads copy and which is itself searched by the calling
+   *     thread and restored before returning.
+   * @return The outcome of the main search, counting the nodes of all threads.
+   */
+  public SearchResult search(Board board) {
+    long start = System.nanoTime();
+    Search[] helpers = new Search[threadCount - 1];
+    Thread[] threads = new Thread[threadCount - 1];
+    for (int i = 0; i < helpers.length; i++) {
+      Search helper = new Search(table);
+      helper.setStartDepth(1 + (i + 1) % 2);
+      helper.setMaxDepth(maxDepth);
+      helper.setTablebases(tablebases);
+      Board copy = board.getCopy();
+      helpers[i] = helper;
+      threads[i] = new Thread(() -> helper.search(copy), "search-helper-" + (i + 1));
+      threads[i].start();
+    }
+
+    Search main = new Search(table);
+    main.setMaxDepth(maxDepth);
+    main.setTablebases(tablebases);
+    main.setNodeLimit(nodeLimit);
+    main.setTimeLimit(timeLimitMillis);
+    SearchResult result = main.search(board);
+
+    long nodes = result.getNodes();
+    for (int i = 0; i < helpers.length; i++) {
+      stopAndJoin(helpers[i], threads[i]);
+      nodes += helpers[i].getNodes();
+    }
+    return new SearchResult(result.getPackedPrincipalVariation(), result.getScore(),
+        result.getDepth(), nodes, System.nanoTime() - start);
+  }
+
+  /** Stops a helper, again and again in case it had not yet started when it was first stopped. */
+  private static void stopAndJoin(Search helper, Thread thread) {
+    boolean interrupted = false;
+    while (thread.isAlive()) {
+      helper.stop();
+      try {
+        thread.join(1);
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,393 @@
+package chess.engine;
+
+import chess.Board;
+import chess.MoveOrdering;
+import chess.move.MoveList;
+import chess.move.PackedMove;
+import chess.tablebase.Tablebase;
+import chess.tablebase.Tablebases;
+
+import java.util.Arrays;
+
+/**
+ * Implements a negamax alpha-beta search with iterative deepening. Each iteration searches one ply
+ * deeper than the last, starting with the best line found so far, until the depth, node or time
+ * limit is reached. The search runs on packed moves and restores the board before returning.
+ * Results are kept in a transposition table, which also survives from one search to the next.
+ * At the horizon a quiescence search plays out captures and promotions, skipping those that lose
+ * material by static exchange evaluation, so that leaves are only scored in quiet positions.
+ * Positions that tablebases cover are scored by them, with their exact distance to mate, instead
+ * of being searched.
+ */
+public class Search {
+
+  public static final int INFINITY = 1000000;
+  public static final int MATE = 100000;
+  public static final int MAX_PLY = 128;
+  public static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+  // How many nodes are searched between two looks at the clock.
+  private static final int NODES_PER_TIME_CHECK = 1024;
+
+  private int startDepth = 1;
+  private int maxDepth = MAX_PLY - 1;
+  private long nodeLimit = Long.MAX_VALUE;
+  private long timeLimitNanos = Long.MAX_VALUE;
+
+  private TranspositionTable table;
+  private Tablebases tablebases;
+  private MoveOrdering ordering = new MoveOrdering();
+  private StaticExchange staticExchange = new StaticExchange();
+  private Board board;
+  private MoveList[] moveLists;
+  private int[][] principalVariations;
+  private int[] principalVariationLengths;
+  private int[] previousVariation;
+  private long nodes;
+  private long startNanos;
+  private int rootDepth;
+  private boolean followingVariation;
+  private boolean stopped;
+  private volatile boolean stopRequested;
+
+  /** Constructor for a search limited only by the maximum depth, with a table of default size. */
+  public Search() {
+    this(new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+  }
+
+  /**
+   * Constructor for a search limited only by the maximum depth.
+   *
+   * @param table The transposition table to use.
+   */
+  public Search(TranspositionTable table) {
+    this.table = table;
+    moveLists = new MoveList[MAX_PLY];
+    for (int ply = 0; ply < MAX_PLY; ply++) {
+      moveLists[ply] = new MoveList();
+    }
+    principalVariations = new int[MAX_PLY][MAX_PLY];
+    principalVariationLengths = new int[MAX_PLY];
+  }
+
+  /**
+   * Sets the depth of the first iteration, which is 1 unless set otherwise. The helper threads of
+   * a parallel search start deeper than the main thread, so that they search ahead of it.
+   *
+   * @param depth The depth.
+   */
+  void setStartDepth(int depth) {
+    startDepth = Math.max(1, Math.min(depth, MAX_PLY - 1));
+  }
+
+  public void setMaxDepth(int depth) {
+    maxDepth = Math.max(1, Math.min(depth, MAX_PLY - 1));
+  }
+
+  public void setNodeLimit(long nodes) {
+    nodeLimit = nodes;
+  }
+
+  public void setTimeLimit(long millis) {
+    timeLimitNanos = millis * 1000000;
+  }
+
+  public TranspositionTable getTranspositionTable() {
+    return table;
+  }
+
+  /**
+   * Sets the tablebases that score the positions they cover, below the root.
+   *
+   * @param tablebases The tablebases, null for none.
+   */
+  public void setTablebases(Tablebases tablebases) {
+    this.tablebases = tablebases;
+  }
+
+  /**
+   * Returns the number of positions visited by the current or last search.
+   *
+   * @return The number of nodes.
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Asks a running search to stop, from another thread. Unlike the limits this also stops the first
+   * iteration, in which case the search returns null.
+   */
+  public void stop() {
+    stopRequested = true;
+  }
+
+  /**
+   * Searches for the best move of the side to move. The first iteration always completes, so a
+   * move is found however tight the limits are.
+   *
+   * @param board The board, which is restored before returning.
+   * @return The outcome of the deepest completed iteration, null if stop was called before the
+   *     first iteration completed.
+   */
+  public SearchResult search(Board board) {
+    this.board = board;
+    nodes = 0;
+    stopped = false;
+    stopRequested = false;
+    startNanos = System.nanoTime();
+    ordering.clear();
+    previousVariation = new int[0];
+    SearchResult result = null;
+    for (rootDepth = startDepth; rootDepth <= maxDepth; rootDepth++) {
+      followingVariation = true;
+      int score = negamax(rootDepth, 0, -INFINITY, INFINITY);
+      if (stopped) {
+        break;
+      }
+      previousVariation = Arrays.copyOf(principalVariations[0], principalVariationLengths[0]);
+      result = new SearchResult(
+          previousVariation, score, rootDepth, nodes, System.nanoTime() - startNanos);
+      if (result.isMate() || previousVariation.length == 0) {
+        break;
+      }
+    }
+    return result;
+  }
+
+  private int negamax(int depth, int ply, int alpha, int beta) {
+    if (depth == 0) {
+      return quiesce(ply, alpha, beta);
+    }
+    principalVariationLengths[ply] = ply;
+    nodes++;
+    if (isOverLimit()) {
+      return 0;
+    }
+    if (ply > 0 && board.getHistory().isRepetition(board.getKey(), board.getHalfmoveClock())) {
+      return 0;
+    }
+    if (ply == MAX_PLY - 1) {
+      return Evaluator.evaluate(board);
+    }
+    if (ply > 0 && tablebases != null) {
+      int score = probeTablebases(ply);
+      if (score != Tablebases.UNKNOWN) {
+        return score;
+      }
+    }
+    long key = board.getKey();
+    long entry = table.probe(key);
+    int hashMove = PackedMove.NONE;
+    if (entry != 0) {
+      hashMove = TranspositionTable.move(entry);
+      // The root always searches, so that it has a principal variation to report.
+      if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+        int score = fromTableScore(TranspositionTable.score(entry), ply);
+        int bound = TranspositionTable.bound(entry);
+        if (bound == TranspositionTable.EXACT
+            || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+            || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+          if (bound == TranspositionTable.EXACT) {
+            followTableVariation(ply, depth);
+          }
+          return score;
+        }
+      }
+    }
+    MoveList moves = moveLists[ply];
+    boolean onVariation = followingVariation && ply < previousVariation.length;
+    board.generateOrderedMoves(board.getSideToMove(), moves, ordering, ply,
+        onVariation ? previousVariation[ply] : hashMove);
+    if (moves.isEmpty()) {
+      return board.inCheck(board.getSideToMove()) ? -MATE + ply : 0;
+    }
+
+    int originalAlpha = alpha;
+    int best = -INFINITY;
+    int bestMove = PackedMove.NONE;
+    for (int i = 0; i < moves.size(); i++) {
+      int move = moves.pickBest(i);
+      followingVariation = onVariation && i == 0 && move == previousVariation[ply];
+      board.makeMove(move);
+      int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+      board.unmakeMove();
+      if (stopped) {
+        return 0;
+      }
+      if (score > best) {
+        best = score;
+        bestMove = move;
+        if (score > alpha) {
+          alpha = score;
+          updatePrincipalVariation(ply, move);
+          if (alpha >= beta) {
+            if (MoveOrdering.isQuiet(board.getBitboards(), move)) {
+              ordering.addCutoff(board, move, ply, depth);
+            }
+            break;
+          }
+        }
+      }
+    }
+    int bound = TranspositionTable.EXACT;
+    if (best <= originalAlpha) {
+      bound = TranspositionTable.UPPER_BOUND;
+    } else if (best >= beta) {
+      bound = TranspositionTable.LOWER_BOUND;
+    }
+    table.store(key, depth, bound, toTableScore(best, ply), bestMove);
+    return best;
+  }
+
+  /**
+   * Searches only captures and promotions, until the position is quiet. The side to move may
+   * stand pat on the static evaluation instead of capturing, unless it is in check, in which case
+   * all its moves are searched. Captures that lose material by static exchange are skipped.
+   */
+  private int quiesce(int ply, int alpha, int beta) {
+    principalVariationLengths[ply] = ply;
+    nodes++;
+    if (isOverLimit()) {
+      return 0;
+    }
+    if (ply == MAX_PLY - 1) {
+      return Evaluator.evaluate(board);
+    }
+    MoveList moves = moveLists[ply];
+    board.generateCaptures(board.getSideToMove(), moves);
+    boolean inCheck = board.inCheck(board.getSideToMove());
+    if (moves.isEmpty() && (inCheck || !board.hasMoves(board.getSideToMove()))) {
+      return inCheck ? -MATE + ply : 0;
+    }
+    int best = -INFINITY;
+    if (!inCheck) {
+      best = Evaluator.evaluate(board);
+      if (best >= beta) {
+        return best;
+      }
+      alpha = Math.max(alpha, best);
+    }
+    ordering.score(board, moves, ply, PackedMove.NONE);
+    for (int i = 0; i < moves.size(); i++) {
+      int move = moves.pickBest(i);
+      if (!inCheck && staticExchange.evaluate(board.getBitboards(), move) < 0) {
+        continue;
+      }
+      board.makeMove(move);
+      int score = -quiesce(ply + 1, -beta, -alpha);
+      board.unmakeMove();
+      if (stopped) {
+        return 0;
+      }
+      if (score > best) {
+        best = score;
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Scores the position by the tablebases.
+   *
+   * @return The score, Tablebases.UNKNOWN if no tablebase covers the position or the mate is too
+   *     far from the root for a mate score.
+   */
+  private int probeTablebases(int ply) {
+    int value = tablebases.probe(board);
+    int outcome = Tablebases.outcomeOf(value);
+    if (outcome == Tablebases.UNKNOWN || outcome == Tablebase.DRAW) {
+      return outcome;
+    }
+    int matePly = ply + Tablebases.distanceOf(value);
+    if (matePly >= MAX_PLY) {
+      return Tablebases.UNKNOWN;
+    }
+    return (outcome == Tablebase.WIN) ? MATE - matePly : -MATE + matePly;
+  }
+
+  /**
+   * Converts a mate score from the distance to mate from the root to the distance from this
+   * position, which is what the position is worth wherever it is reached.
+   */
+  private static int toTableScore(int score, int ply) {
+    if (score >= MATE - MAX_PLY) {
+      return score + ply;
+    } else if (score <= -MATE + MAX_PLY) {
+      return score - ply;
+    }
+    return score;
+  }
+
+  private static int fromTableScore(int score, int ply) {
+    if (score >= MATE - MAX_PLY) {
+      return score - ply;
+    } else if (score <= -MATE + MAX_PLY) {
+      return score + ply;
+    }
+    return score;
+  }
+
+  /**
+   * Rebuilds the principal variation of a position whose score was taken from an exact table
+   * entry, from the moves stored for it and for the positions after them, as deep as the entry
+   * was searched. Moves that are not legal, from entries of other positions with the same index,
+   * end the variation.
+   */
+  private void followTableVariation(int ply, int depth) {
+    int[] variation = principalVariations[ply];
+    int length = ply;
+    while (length < ply + depth && length < MAX_PLY - 1) {
+      long entry = table.probe(board.getKey());
+      int move = (entry == 0) ? PackedMove.NONE : TranspositionTable.move(entry);
+      if (move == PackedMove.NONE) {
+        break;
+      }
+      // The lists of the plies below this node are free until it searches.
+      MoveList legal = moveLists[length];
+      board.generateMoves(board.getSideToMove(), legal);
+      if (!legal.contains(move)) {
+        break;
+      }
+      variation[length++] = move;
+      board.makeMove(move);
+    }
+    for (int i = ply; i < length; i++) {
+      board.unmakeMove();
+    }
+    principalVariationLengths[ply] = length;
+  }
+
+  private void updatePrincipalVariation(int ply, int move) {
+    int[] variation = principalVariations[ply];
+    variation[ply] = move;
+    int length = principalVariationLengths[ply + 1];
+    System.arraycopy(principalVariations[ply + 1], ply + 1, variation, ply + 1, length - ply - 1);
+    principalVariationLengths[ply] = length;
+  }
+
+  /**
+   * Calculates whether the search is asked to stop or the node or time limit is reached, in which
+   * case the search stops. The limits never stop the first iteration, and the clock is only read
+   * every so many nodes.
+   */
+  private boolean isOverLimit() {
+    if (stopRequested) {
+      stopped = true;
+    } else if (rootDepth == startDepth) {
+      return false;
+    } else if (nodes >= nodeLimit) {
+      stopped = true;
+    } else if (nodes % NODES_PER_TIME_CHECK == 0
+        && System.nanoTime() - startNanos >= timeLimitNanos) {
+      stopped = true;
+    }
+    return stopped;
+  }
+}
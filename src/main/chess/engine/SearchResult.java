@@ -0,0 +1,121 @@
+package chess.engine;
+
+import chess.move.Move;
+import chess.move.PackedMove;
+
+import java.util.ArrayList;
+
+/** Implements the outcome of a search: the best move, its score and the line expected to follow. */
+public class SearchResult {
+
+  private int[] principalVariation;
+  private int score;
+  private int depth;
+  private long nodes;
+  private long nanos;
+
+  /**
+   * Constructor for the outcome of a search.
+   *
+   * @param principalVariation The packed moves of the expected line, starting with the best move.
+   * @param score The score of the position, from the point of view of the side to move.
+   * @param depth The depth of the last completed iteration.
+   * @param nodes The number of positions visited.
+   * @param nanos The time the search took.
+   */
+  public SearchResult(int[] principalVariation, int score, int depth, long nodes, long nanos) {
+    this.principalVariation = principalVariation;
+    this.score = score;
+    this.depth = depth;
+    this.nodes = nodes;
+    this.nanos = nanos;
+  }
+
+  /**
+   * Returns the best move found.
+   *
+   * @return The move, null if the side to move has no legal moves.
+   */
+  public Move getBestMove() {
+    int move = getPackedBestMove();
+    return (move == PackedMove.NONE) ? null : Move.createMove(move);
+  }
+
+  /**
+   * Returns the best move found, packed.
+   *
+   * @return The packed move, PackedMove.NONE if the side to move has no legal moves.
+   */
+  public int getPackedBestMove() {
+    return (principalVariation.length == 0) ? PackedMove.NONE : principalVariation[0];
+  }
+
+  /**
+   * Returns the line of moves expected to follow, starting with the best move.
+   *
+   * @return The moves.
+   */
+  public ArrayList<Move> getPrincipalVariation() {
+    ArrayList<Move> moves = new ArrayList<>(principalVariation.length);
+    for (int move : principalVariation) {
+      moves.add(Move.createMove(move));
+    }
+    return moves;
+  }
+
+  /**
+   * Returns the line of moves expected to follow, packed. The array must not be changed.
+   *
+   * @return The packed moves.
+   */
+  public int[] getPackedPrincipalVariation() {
+    return principalVariation;
+  }
+
+  /**
+   * Returns the line of moves expected to follow in coordinate notation, such as "e2e4 e7e5".
+   *
+   * @return The moves, separated by spaces.
+   */
+  public String viewPrincipalVariation() {
+    StringBuilder line = new StringBuilder();
+    for (int move : principalVariation) {
+      if (line.length() > 0) {
+        line.append(' ');
+      }
+      line.append(PackedMove.toCoordinateNotation(move));
+    }
+    return line.toString();
+  }
+
+  /**
+   * Returns the score of the position, in centipawns from the point of view of the side to move.
+   * Mates score close to Search.MATE, less the number of plies to the mate.
+   *
+   * @return The score.
+   */
+  public int getScore() {
+    return score;
+  }
+
+  public boolean isMate() {
+    return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Returns the speed of the search.
+   *
+   * @return The visited positions per second.
+   */
+  public long getNodesPerSecond() {
+    return (nanos == 0) ? 0 : (long) (nodes * 1e9 / nanos);
+  }
+}
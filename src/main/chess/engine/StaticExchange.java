@@ -0,0 +1,83 @@
+package chess.engine;
+
+import chess.Attacks;
+import chess.Bitboards;
+import chess.Game;
+import chess.PieceSquareTables;
+import chess.move.PackedMove;
+import chess.piece.Piece;
+
+/**
+ * Implements static exchange evaluation (SEE): the material a capture wins or loses once both
+ * players have recaptured on its square as long as it pays, each with their least valuable piece.
+ * It is computed from the attackers of the square alone, without making any move, and pieces that
+ * attack through others join in as those leave. An instance reuses its buffer, so it belongs to one
+ * thread.
+ */
+public class StaticExchange {
+
+  // Kings are worth more than everything else together, so that they only capture last.
+  private static final int KING_VALUE = 20000;
+  private static final int MAX_EXCHANGES = 32;
+
+  private int[] gains = new int[MAX_EXCHANGES];
+
+  private static int value(int type) {
+    return (type == Piece.KING) ? KING_VALUE : PieceSquareTables.middlegameValue(type);
+  }
+
+  /**
+   * Evaluates the exchange a move starts on its destination.
+   *
+   * @param bitboards The bitboards the move is made on.
+   * @param move The packed move.
+   * @return The material won, negative if the move loses material.
+   */
+  public int evaluate(Bitboards bitboards, int move) {
+    int from = PackedMove.from(move);
+    int to = PackedMove.to(move);
+    int movingPiece = bitboards.pieceAt(from);
+    long occupied = bitboards.occupied() & ~Attacks.bit(from);
+
+    int victimValue = 0;
+    if (PackedMove.kind(move) == PackedMove.EN_PASSANT) {
+      victimValue = value(Piece.PAWN);
+      occupied &= ~Attacks.bit(PackedMove.enPassantCapture(move));
+    } else if (PackedMove.isCapture(bitboards, move)) {
+      victimValue = value(Bitboards.typeOf(bitboards.pieceAt(to)));
+    }
+    int attackerValue = value(Bitboards.typeOf(movingPiece));
+    if (PackedMove.kind(move) == PackedMove.PROMOTION) {
+      int promoted = value(Bitboards.typeOf(PackedMove.promotedPiece(move)));
+      victimValue += promoted - value(Piece.PAWN);
+      attackerValue = promoted;
+    }
+
+    gains[0] = victimValue;
+    Game.Player side = Game.otherPlayer(Bitboards.playerOf(movingPiece));
+    int exchanges = 0;
+    while (exchanges < MAX_EXCHANGES - 1) {
+      long attackers = bitboards.attackersTo(to, side, occupied) & occupied;
+      if (attackers == 0) {
+        break;
+      }
+      int type = Piece.PAWN;
+      long candidates = attackers & bitboards.pieces(type, side);
+      while (candidates == 0) {
+        type++;
+        candidates = attackers & bitboards.pieces(type, side);
+      }
+      exchanges++;
+      // What the side has gained if it captures and the exchange stops there.
+      gains[exchanges] = attackerValue - gains[exchanges - 1];
+      occupied &= ~Long.lowestOneBit(candidates);
+      attackerValue = value(type);
+      side = Game.otherPlayer(side);
+    }
+    while (exchanges > 0) {
+      gains[exchanges - 1] = -Math.max(-gains[exchanges - 1], gains[exchanges]);
+      exchanges--;
+    }
+    return gains[0];
+  }
+}
@@ -0,0 +1,166 @@
+package chess.engine;
+
+import chess.move.PackedMove;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implements a fixed-size table of search results keyed by the Zobrist key of the position, so
+ * that a position reached by another move order is not searched again. The table is preallocated
+ * as two long arrays, one of keys and one of packed entries, and creates no objects.
+ *
+ * <p>Each key maps to a bucket of two slots. The first keeps the deepest result, which is the most
+ * expensive to recompute, and the second takes every result that the first does not, so that
+ * recent results are kept too.
+ *
+ * <p>An entry packs the best move in bits 0-17, the score in bits 18-49, the depth in bits 50-57
+ * and the bound in bits 58-59. A stored entry is never 0, as its bound is not.
+ *
+ * <p>The table may be shared by threads without locking. The key array holds each key XORed with
+ * its entry, so an entry whose key and entry were written by different threads at once does not
+ * match the key it is probed with, and is taken for a miss.
+ */
+public class TranspositionTable {
+
+  public static final int EXACT = 1;
+  public static final int LOWER_BOUND = 2;
+  public static final int UPPER_BOUND = 3;
+
+  private static final int BYTES_PER_SLOT = 2 * Long.BYTES;
+  private static final int SLOTS_PER_BUCKET = 2;
+
+  private long[] keys;
+  private long[] entries;
+  private int bucketMask;
+  private LongAdder probes = new LongAdder();
+  private LongAdder hits = new LongAdder();
+  private LongAdder stores = new LongAdder();
+
+  /**
+   * Constructor for an empty table, with as many buckets as fit in the given size, rounded down to
+   * a power of two.
+   *
+   * @param megabytes The size of the table.
+   */
+  public TranspositionTable(int megabytes) {
+    long slots = Math.max(SLOTS_PER_BUCKET, (long) megabytes * 1024 * 1024 / BYTES_PER_SLOT);
+    int buckets = Integer.highestOneBit((int) Math.min(slots / SLOTS_PER_BUCKET, 1 << 29));
+    keys = new long[buckets * SLOTS_PER_BUCKET];
+    entries = new long[buckets * SLOTS_PER_BUCKET];
+    bucketMask = buckets - 1;
+  }
+
+  /**
+   * Looks up the entry of a position.
+   *
+   * @param key The Zobrist key of the position.
+   * @return The packed entry, 0 if the position is not in the table.
+   */
+  public long probe(long key) {
+    probes.increment();
+    int slot = firstSlot(key);
+    for (int i = slot; i < slot + SLOTS_PER_BUCKET; i++) {
+      long entry = entries[i];
+      if (entry != 0 && (keys[i] ^ entry) == key) {
+        hits.increment();
+        return entry;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Stores the result of a search of a position. A result without a best move keeps the best move
+   * already stored for the position, if any.
+   *
+   * @param key The Zobrist key of the position.
+   * @param depth The depth searched.
+   * @param bound Whether the score is exact, a lower bound or an upper bound.
+   * @param score The score, from the point of view of the side to move.
+   * @param move The best move, packed, PackedMove.NONE if there is none.
+   */
+  public void store(long key, int depth, int bound, int score, int move) {
+    stores.increment();
+    int slot = firstSlot(key);
+    long entry = entries[slot];
+    if ((keys[slot] ^ entry) != key && depth < depth(entry)) {
+      // The deeper result stays, and this one goes to the always replaced slot.
+      slot++;
+      entry = entries[slot];
+    }
+    if (move == PackedMove.NONE && (keys[slot] ^ entry) == key) {
+      move = move(entry);
+    }
+    entry = pack(depth, bound, score, move);
+    keys[slot] = key ^ entry;
+    entries[slot] = entry;
+  }
+
+  private int firstSlot(long key) {
+    return ((int) (key >>> 32) & bucketMask) * SLOTS_PER_BUCKET;
+  }
+
+  private static long pack(int depth, int bound, int score, int move) {
+    return move
+        | ((score & 0xFFFFFFFFL) << 18)
+        | ((long) depth << 50)
+        | ((long) bound << 58);
+  }
+
+  public static int move(long entry) {
+    return (int) (entry & 0x3FFFF);
+  }
+
+  public static int score(long entry) {
+    return (int) (entry >>> 18);
+  }
+
+  public static int depth(long entry) {
+    return (int) (entry >>> 50) & 0xFF;
+  }
+
+  public static int bound(long entry) {
+    return (int) (entry >>> 58) & 0x3;
+  }
+
+  /** Empties the table and resets its counters. It must not be used by a search meanwhile. */
+  public void clear() {
+    Arrays.fill(keys, 0L);
+    Arrays.fill(entries, 0L);
+    probes.reset();
+    hits.reset();
+    stores.reset();
+  }
+
+  /**
+   * Returns the number of entries the table holds at most.
+   *
+   * @return The number of slots.
+   */
+  public int getCapacity() {
+    return entries.length;
+  }
+
+  public long getProbes() {
+    return probes.sum();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getStores() {
+    return stores.sum();
+  }
+
+  /**
+   * Returns the share of probes that found their position.
+   *
+   * @return The hit rate, between 0 and 1.
+   */
+  public double getHitRate() {
+    long probeCount = probes.sum();
+    return (probeCount == 0) ? 0 : (double) hits.sum() / probeCount;
+  }
+}
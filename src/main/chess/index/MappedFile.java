@@ -0,0 +1,68 @@
+package chess.index;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Implements a file mapped into memory in chunks, as one mapping cannot exceed 2 GB. Reads and
+ * writes of longs and ints are addressed by their offset in the file and must not straddle two
+ * chunks, which holds for values aligned to their size, as the chunks are.
+ */
+final class MappedFile implements Closeable {
+
+  private static final int CHUNK_SHIFT = 30;
+  private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+  private FileChannel channel;
+  private MappedByteBuffer[] chunks;
+
+  /**
+   * Maps a whole file.
+   *
+   * @param channel The channel of the file, which is closed with the mapping.
+   * @param mode Whether to map the file for reading only or also for writing.
+   * @param size The size of the file, to which it is grown when mapped for writing.
+   * @throws IOException If the file cannot be mapped.
+   */
+  MappedFile(FileChannel channel, FileChannel.MapMode mode, long size) throws IOException {
+    this.channel = channel;
+    int chunkCount = (int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT);
+    chunks = new MappedByteBuffer[chunkCount];
+    for (int i = 0; i < chunkCount; i++) {
+      long start = (long) i << CHUNK_SHIFT;
+      chunks[i] = channel.map(mode, start, Math.min(size - start, 1L << CHUNK_SHIFT));
+    }
+  }
+
+  long getLong(long offset) {
+    return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & CHUNK_MASK));
+  }
+
+  void putLong(long offset, long value) {
+    chunks[(int) (offset >>> CHUNK_SHIFT)].putLong((int) (offset & CHUNK_MASK), value);
+  }
+
+  int getInt(long offset) {
+    return chunks[(int) (offset >>> CHUNK_SHIFT)].getInt((int) (offset & CHUNK_MASK));
+  }
+
+  void putInt(long offset, int value) {
+    chunks[(int) (offset >>> CHUNK_SHIFT)].putInt((int) (offset & CHUNK_MASK), value);
+  }
+
+  /** Writes the changes to the file. */
+  void force() {
+    for (MappedByteBuffer chunk : chunks) {
+      chunk.force();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    // The mappings themselves go away when the buffers are collected.
+    chunks = new MappedByteBuffer[0];
+    channel.close();
+  }
+}
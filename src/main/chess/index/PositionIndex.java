@@ -0,0 +1,158 @@
+package chess.index;
+
+import chess.Board;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Implements lookups in a position index, which tells which games of a corpus reached a position.
+ * The index file is mapped into memory and read in place, so that nothing but the answer is
+ * brought onto the heap, and a lookup touches only the pages of one probe sequence and of its
+ * references, however large the index is.
+ *
+ * <p>The file starts with a header of 32 bytes: the bytes "DCPI", a version int, the number of
+ * slots and the number of references. Then follows an open addressing table of slots, a power of
+ * two of them, each of 16 bytes: the Zobrist key of a position, the index of its first reference
+ * and its number of references, which is 0 for an empty slot. A key is looked for from the slot
+ * given by its low bits on, until it is found or an empty slot is met. Last come the references,
+ * 8 bytes each, grouped by position: the number of a game and the ply at which it reached the
+ * position, both as ints.
+ *
+ * <p>A reference is returned packed in a long, the game number in the high 32 bits and the ply in
+ * the low 32 bits.
+ */
+public class PositionIndex implements Closeable {
+
+  static final int MAGIC = 0x44435049;
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 32;
+  static final int SLOT_BYTES = 16;
+  static final int REFERENCE_BYTES = 8;
+
+  private static final long[] NO_REFERENCES = new long[0];
+
+  private MappedFile file;
+  private long slotMask;
+  private long referenceCount;
+  private long referencesOffset;
+
+  private PositionIndex(MappedFile file, long slotCount, long referenceCount) {
+    this.file = file;
+    this.slotMask = slotCount - 1;
+    this.referenceCount = referenceCount;
+    this.referencesOffset = HEADER_BYTES + slotCount * SLOT_BYTES;
+  }
+
+  /**
+   * Opens an index file for lookups.
+   *
+   * @param path The path of the file, as written by PositionIndexBuilder.
+   * @return The index.
+   * @throws IOException If the file cannot be read or is not a position index.
+   */
+  public static PositionIndex open(Path path) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    long size = channel.size();
+    MappedFile file = new MappedFile(channel, FileChannel.MapMode.READ_ONLY, size);
+    long slotCount = (size >= HEADER_BYTES) ? file.getLong(8) : 0;
+    long referenceCount = (size >= HEADER_BYTES) ? file.getLong(16) : 0;
+    if (size < HEADER_BYTES
+        || file.getInt(0) != MAGIC
+        || file.getInt(4) != VERSION
+        || Long.bitCount(slotCount) != 1
+        || size != HEADER_BYTES + slotCount * SLOT_BYTES + referenceCount * REFERENCE_BYTES) {
+      file.close();
+      throw new IOException("Not a position index: " + path);
+    }
+    return new PositionIndex(file, slotCount, referenceCount);
+  }
+
+  static long slotOf(long key, long slotMask) {
+    // Zobrist keys are random, so their low bits are as good an index as any hash of them.
+    return key & slotMask;
+  }
+
+  /**
+   * Finds the slot of a position.
+   *
+   * @return The offset of the slot in the file, -1 if the position is not in the index.
+   */
+  private long findSlot(long key) {
+    for (long slot = slotOf(key, slotMask); ; slot = (slot + 1) & slotMask) {
+      long offset = HEADER_BYTES + slot * SLOT_BYTES;
+      if (file.getInt(offset + 12) == 0) {
+        return -1;
+      }
+      if (file.getLong(offset) == key) {
+        return offset;
+      }
+    }
+  }
+
+  /**
+   * Counts the times games of the corpus reached a position.
+   *
+   * @param key The Zobrist key of the position, as in Board.getKey.
+   * @return The number of references to the position.
+   */
+  public int count(long key) {
+    long offset = findSlot(key);
+    return (offset < 0) ? 0 : file.getInt(offset + 12);
+  }
+
+  /**
+   * Looks up the games of the corpus that reached a position.
+   *
+   * @param key The Zobrist key of the position, as in Board.getKey.
+   * @return The references, in the order the games were added, each packed as described above.
+   */
+  public long[] lookup(long key) {
+    long offset = findSlot(key);
+    if (offset < 0) {
+      return NO_REFERENCES;
+    }
+    long first = file.getInt(offset + 8) & 0xFFFFFFFFL;
+    long[] references = new long[file.getInt(offset + 12)];
+    for (int i = 0; i < references.length; i++) {
+      long reference = referencesOffset + (first + i) * REFERENCE_BYTES;
+      references[i] =
+          ((long) file.getInt(reference) << 32) | (file.getInt(reference + 4) & 0xFFFFFFFFL);
+    }
+    return references;
+  }
+
+  /**
+   * Looks up the games of the corpus that reached the position of a board.
+   *
+   * @param board The board.
+   * @return The references, as for lookup(long).
+   */
+  public long[] lookup(Board board) {
+    return lookup(board.getKey());
+  }
+
+  public static int gameOf(long reference) {
+    return (int) (reference >>> 32);
+  }
+
+  public static int plyOf(long reference) {
+    return (int) reference;
+  }
+
+  public long getSlotCount() {
+    return slotMask + 1;
+  }
+
+  public long getReferenceCount() {
+    return referenceCount;
+  }
+
+  @Override
+  public void close() throws IOException {
+    file.close();
+  }
+}
@@ -0,0 +1,195 @@
+package chess.index;
+
+import chess.Board;
+import chess.io.GameRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Implements the building of a position index, see PositionIndex. Each game added is replayed,
+ * and the key of every position it reaches is appended with the game number and ply to a file of
+ * entries next to the index, so that the heap holds no more than one buffer of them. build then
+ * lays out the index in a mapped file, in three passes: one over the entries that counts the
+ * references of each position, one over the slots that places the references of each position
+ * after those of the positions before it, and one over the entries that writes the references.
+ */
+public class PositionIndexBuilder implements Closeable {
+
+  private static final int ENTRY_BYTES = 16;
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private interface EntryConsumer {
+    void accept(long key, int game, int ply);
+  }
+
+  private Path indexPath;
+  private Path entriesPath;
+  private FileChannel entries;
+  private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private int games;
+  private long positions;
+
+  /**
+   * Constructor for a builder of an index without games.
+   *
+   * @param indexPath Where to write the index. The entries are kept beside it until it is built.
+   * @throws IOException If the file of entries cannot be created.
+   */
+  public PositionIndexBuilder(Path indexPath) throws IOException {
+    this.indexPath = indexPath;
+    this.entriesPath = Paths.get(indexPath + ".entries");
+    this.entries = FileChannel.open(entriesPath, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+  }
+
+  /**
+   * Adds the positions of a game, from its initial position to the one after its last move.
+   *
+   * @param game The game.
+   * @return The number the game has in the index, starting at 1.
+   * @throws IOException If the file of entries cannot be written to.
+   */
+  public int add(GameRecord game) throws IOException {
+    int number = ++games;
+    Board board = game.createInitialBoard();
+    addEntry(board.getKey(), number, 0);
+    for (int ply = 1; ply <= game.getMoveCount(); ply++) {
+      board.makeMove(game.getMove(ply - 1));
+      addEntry(board.getKey(), number, ply);
+    }
+    return number;
+  }
+
+  private void addEntry(long key, int game, int ply) throws IOException {
+    if (buffer.remaining() < ENTRY_BYTES) {
+      writeBuffer();
+    }
+    buffer.putLong(key).putInt(game).putInt(ply);
+    positions++;
+  }
+
+  private void writeBuffer() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      entries.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  public int getGames() {
+    return games;
+  }
+
+  public long getPositions() {
+    return positions;
+  }
+
+  /**
+   * Writes the index of the games added, and deletes the file of entries.
+   *
+   * @throws IOException If a file cannot be read or written.
+   */
+  public void build() throws IOException {
+    if (positions > 0xFFFFFFFFL) {
+      throw new IOException("Too many positions for one index: " + positions);
+    }
+    writeBuffer();
+    long slotCount = 2;
+    while (slotCount < 2 * positions) {
+      slotCount *= 2;
+    }
+    long slotMask = slotCount - 1;
+    long size = PositionIndex.HEADER_BYTES
+        + slotCount * PositionIndex.SLOT_BYTES
+        + positions * PositionIndex.REFERENCE_BYTES;
+    Files.deleteIfExists(indexPath);
+    FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try (MappedFile index = new MappedFile(channel, FileChannel.MapMode.READ_WRITE, size)) {
+      forEachEntry((key, game, ply) -> {
+        long slot = findSlot(index, key, slotMask);
+        index.putLong(slot, key);
+        index.putInt(slot + 12, index.getInt(slot + 12) + 1);
+      });
+
+      // Each slot's first reference serves as the cursor of the next pass.
+      long next = 0;
+      for (long slot = 0; slot < slotCount; slot++) {
+        long offset = PositionIndex.HEADER_BYTES + slot * PositionIndex.SLOT_BYTES;
+        int count = index.getInt(offset + 12);
+        if (count != 0) {
+          index.putInt(offset + 8, (int) next);
+          next += count & 0xFFFFFFFFL;
+        }
+      }
+
+      long referencesOffset = PositionIndex.HEADER_BYTES + slotCount * PositionIndex.SLOT_BYTES;
+      forEachEntry((key, game, ply) -> {
+        long slot = findSlot(index, key, slotMask);
+        int cursor = index.getInt(slot + 8);
+        long reference = referencesOffset
+            + (cursor & 0xFFFFFFFFL) * PositionIndex.REFERENCE_BYTES;
+        index.putInt(reference, game);
+        index.putInt(reference + 4, ply);
+        index.putInt(slot + 8, cursor + 1);
+      });
+
+      for (long slot = 0; slot < slotCount; slot++) {
+        long offset = PositionIndex.HEADER_BYTES + slot * PositionIndex.SLOT_BYTES;
+        int count = index.getInt(offset + 12);
+        if (count != 0) {
+          index.putInt(offset + 8, index.getInt(offset + 8) - count);
+        }
+      }
+
+      index.putInt(0, PositionIndex.MAGIC);
+      index.putInt(4, PositionIndex.VERSION);
+      index.putLong(8, slotCount);
+      index.putLong(16, positions);
+      index.force();
+    }
+    close();
+  }
+
+  /**
+   * Finds the slot of a key, or the empty slot where it belongs.
+   *
+   * @return The offset of the slot in the file.
+   */
+  private static long findSlot(MappedFile index, long key, long slotMask) {
+    for (long slot = PositionIndex.slotOf(key, slotMask); ; slot = (slot + 1) & slotMask) {
+      long offset = PositionIndex.HEADER_BYTES + slot * PositionIndex.SLOT_BYTES;
+      if (index.getInt(offset + 12) == 0 || index.getLong(offset) == key) {
+        return offset;
+      }
+    }
+  }
+
+  private void forEachEntry(EntryConsumer consumer) throws IOException {
+    long position = 0;
+    buffer.clear();
+    while (entries.read(buffer, position) > 0 || buffer.position() > 0) {
+      position += buffer.position();
+      buffer.flip();
+      while (buffer.remaining() >= ENTRY_BYTES) {
+        consumer.accept(buffer.getLong(), buffer.getInt(), buffer.getInt());
+      }
+      position -= buffer.remaining();
+      buffer.clear();
+    }
+  }
+
+  /** Deletes the file of entries, without building the index if it has not been built. */
+  @Override
+  public void close() throws IOException {
+    entries.close();
+    Files.deleteIfExists(entriesPath);
+  }
+}
@@ -0,0 +1,86 @@
+package chess.io;
+
+import chess.Board;
+import chess.Fen;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Implements a finished game as stored in the binary game record format: its tags, its result and
+ * its moves, packed as in PackedMove. The initial position is given by the FEN tag if there is
+ * one, and is the standard one otherwise. The moves are legal, which replay relies on. Records
+ * read from a file of packed moves are only checked to be well formed, so such files are trusted
+ * to hold legal games.
+ */
+public class GameRecord {
+
+  private Map<String, String> tags;
+  private String result;
+  private int[] moves;
+
+  /**
+   * Constructor for a game record.
+   *
+   * @param tags The tags, such as "White" and "Event", which are copied.
+   * @param result One of "1-0", "0-1", "1/2-1/2" and "*".
+   * @param moves The packed moves, which must be legal from the initial position.
+   */
+  public GameRecord(Map<String, String> tags, String result, int[] moves) {
+    this.tags = new LinkedHashMap<>(tags);
+    this.result = result;
+    this.moves = moves;
+  }
+
+  public Map<String, String> getTags() {
+    return Collections.unmodifiableMap(tags);
+  }
+
+  public String getTag(String name) {
+    return tags.get(name);
+  }
+
+  public String getResult() {
+    return result;
+  }
+
+  public int getMoveCount() {
+    return moves.length;
+  }
+
+  /**
+   * Returns a move of the game.
+   *
+   * @param index The index of the move, 0 for the first move.
+   * @return The packed move.
+   */
+  public int getMove(int index) {
+    return moves[index];
+  }
+
+  /**
+   * Builds the board of the initial position.
+   *
+   * @return The board.
+   * @throws IllegalArgumentException If the FEN tag is not valid.
+   */
+  public Board createInitialBoard() {
+    String fen = tags.get("FEN");
+    return Board.fromFen((fen == null) ? Fen.STARTING_POSITION : fen);
+  }
+
+  /**
+   * Plays the moves from the initial position. No moves are generated, as the moves are known to
+   * be legal.
+   *
+   * @return The board after the last move.
+   */
+  public Board replay() {
+    Board board = createInitialBoard();
+    for (int move : moves) {
+      board.makeMove(move);
+    }
+    return board;
+  }
+}
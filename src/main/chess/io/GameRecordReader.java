@@ -0,0 +1,224 @@
+package chess.io;
+
+import chess.Attacks;
+import chess.Bitboards;
+import chess.Board;
+import chess.move.MoveList;
+import chess.move.PackedMove;
+import chess.piece.Piece;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Implements a reader of the binary game record format described in GameRecordWriter. The file is
+ * read through a channel into one buffer, which holds at least a whole frame at a time, and a
+ * frame is only decoded once it is complete.
+ *
+ * <p>Moves stored by index are legal by construction. Packed moves are only checked to be well
+ * formed, as checking their legality would take generating the moves that the packed encoding
+ * avoids, so a file of packed moves is trusted to hold legal games.
+ */
+public class GameRecordReader implements Closeable {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private ReadableByteChannel channel;
+  private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private boolean endOfInput;
+  private boolean started;
+  private MoveList legalMoves = new MoveList();
+
+  /**
+   * Constructor for a reader of a channel, which is closed with the reader.
+   *
+   * @param channel The channel to read from, at the start of a file.
+   */
+  public GameRecordReader(ReadableByteChannel channel) {
+    this.channel = channel;
+    buffer.flip();
+  }
+
+  /**
+   * Opens a game record file for reading.
+   *
+   * @param path The path of the file.
+   * @return The reader.
+   * @throws IOException If the file cannot be opened.
+   */
+  public static GameRecordReader open(Path path) throws IOException {
+    return new GameRecordReader(FileChannel.open(path, StandardOpenOption.READ));
+  }
+
+  /**
+   * Reads the next game.
+   *
+   * @return The game, null if there are no more games.
+   * @throws IOException If the channel cannot be read, or the data is not a valid game record,
+   *     including a packed move that no move generator would produce.
+   */
+  public GameRecord next() throws IOException {
+    if (!started) {
+      started = true;
+      fill(GameRecordWriter.MAGIC.length);
+      for (byte expected : GameRecordWriter.MAGIC) {
+        if (!buffer.hasRemaining() || buffer.get() != expected) {
+          throw corrupt("not a game record file of a known version");
+        }
+      }
+    }
+    fill(Varint.MAX_BYTES);
+    if (!buffer.hasRemaining()) {
+      return null;
+    }
+    int length = Varint.read(buffer);
+    if (length < 0) {
+      throw corrupt("bad frame length");
+    }
+    fill(length);
+    if (buffer.remaining() < length) {
+      throw corrupt("truncated frame");
+    }
+    int limit = buffer.limit();
+    int end = buffer.position() + length;
+    buffer.limit(end);
+    try {
+      GameRecord game = decode();
+      if (buffer.hasRemaining()) {
+        throw corrupt("frame longer than its game");
+      }
+      return game;
+    } catch (RuntimeException e) {
+      throw corrupt("bad frame (" + e + ")");
+    } finally {
+      buffer.limit(limit);
+      buffer.position(end);
+    }
+  }
+
+  private GameRecord decode() throws IOException {
+    int encoding = buffer.get();
+    if (encoding < 0 || encoding >= GameRecordWriter.Encoding.values().length) {
+      throw corrupt("unknown move encoding " + encoding);
+    }
+    int tagCount = readCount();
+    Map<String, String> tags = new LinkedHashMap<>();
+    for (int i = 0; i < tagCount; i++) {
+      tags.put(readString(), readString());
+    }
+    int result = buffer.get();
+    if (result < 0 || result >= GameRecordWriter.RESULTS.length) {
+      throw corrupt("unknown result " + result);
+    }
+    int[] moves = new int[readCount()];
+    if (encoding == GameRecordWriter.Encoding.MOVE_INDEX.ordinal()) {
+      readMoveIndices(tags, moves);
+    } else {
+      for (int i = 0; i < moves.length; i++) {
+        moves[i] = (buffer.get() & 0xFF) | (buffer.get() & 0xFF) << 8 | (buffer.get() & 0xFF) << 16;
+        if (!isWellFormed(moves[i])) {
+          throw corrupt("bad packed move " + moves[i]);
+        }
+      }
+    }
+    return new GameRecord(tags, GameRecordWriter.RESULTS[result], moves);
+  }
+
+  private void readMoveIndices(Map<String, String> tags, int[] moves) throws IOException {
+    GameRecord initial = new GameRecord(tags, "*", new int[0]);
+    Board board = initial.createInitialBoard();
+    for (int i = 0; i < moves.length; i++) {
+      board.generateMoves(board.getSideToMove(), legalMoves);
+      legalMoves.sort();
+      int index = buffer.get() & 0xFF;
+      if (index >= legalMoves.size()) {
+        throw corrupt("move index " + index + " out of range");
+      }
+      moves[i] = legalMoves.get(index);
+      board.makeMove(moves[i]);
+    }
+  }
+
+  /**
+   * Checks that the fields of a packed move are in range and agree with its kind: the squares
+   * differ, castling moves a king two files from its home square, en passant ends on the third or
+   * sixth rank and only a promotion to a knight, bishop, rook or queen names a piece.
+   */
+  private static boolean isWellFormed(int move) {
+    int from = PackedMove.from(move);
+    int to = PackedMove.to(move);
+    if (from == to || (move >>> 18) != 0) {
+      return false;
+    }
+    int promotedPiece = PackedMove.promotedPiece(move);
+    switch (PackedMove.kind(move)) {
+      case PackedMove.CASTLING:
+        return promotedPiece == 0
+            && (from == 4 || from == Attacks.SQUARE_COUNT - 4)
+            && Math.abs(to - from) == 2;
+      case PackedMove.EN_PASSANT:
+        return promotedPiece == 0 && (to / 8 == 2 || to / 8 == 5);
+      case PackedMove.PROMOTION:
+        int type = Bitboards.typeOf(promotedPiece);
+        return type >= Piece.KNIGHT && type <= Piece.QUEEN && (to / 8 == 0 || to / 8 == 7);
+      default:
+        return promotedPiece == 0;
+    }
+  }
+
+  private int readCount() throws IOException {
+    int count = Varint.read(buffer);
+    if (count < 0 || count > buffer.remaining()) {
+      throw corrupt("bad count");
+    }
+    return count;
+  }
+
+  private String readString() throws IOException {
+    int length = readCount();
+    String text = new String(
+        buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+    buffer.position(buffer.position() + length);
+    return text;
+  }
+
+  /**
+   * Reads from the channel until the buffer holds the given number of bytes, or the channel ends.
+   */
+  private void fill(int count) throws IOException {
+    if (buffer.remaining() >= count || endOfInput) {
+      return;
+    }
+    if (buffer.capacity() < count) {
+      ByteBuffer larger = ByteBuffer.allocate(Math.max(count, 2 * buffer.capacity()));
+      larger.put(buffer);
+      buffer = larger;
+    } else {
+      buffer.compact();
+    }
+    while (buffer.position() < count) {
+      if (channel.read(buffer) < 0) {
+        endOfInput = true;
+        break;
+      }
+    }
+    buffer.flip();
+  }
+
+  private static IOException corrupt(String reason) {
+    return new IOException("Corrupt game record: " + reason);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
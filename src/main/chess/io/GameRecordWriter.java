@@ -0,0 +1,190 @@
+package chess.io;
+
+import chess.Board;
+import chess.move.MoveList;
+import chess.move.PackedMove;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Implements a writer of the binary game record format. A file starts with the bytes "DCGR" and a
+ * version byte, followed by one frame per game: the length of the frame as a varint, then the
+ * move encoding (one byte), the number of tags and each tag name and value as UTF-8 prefixed by
+ * its length, the result (one byte), the number of moves and the moves. Counts and lengths are
+ * varints, see Varint.
+ *
+ * <p>With the move index encoding each move is one byte, its index among the legal moves sorted by
+ * packed value, which takes generating the legal moves to write and read. With the packed encoding
+ * each move is its packed value in three bytes, which is read without generating any move.
+ *
+ * <p>Frames are gathered in a buffer and written to the channel in large blocks.
+ */
+public class GameRecordWriter implements Closeable {
+
+  /** How moves are stored. */
+  public enum Encoding {
+    MOVE_INDEX,
+    PACKED
+  }
+
+  static final byte[] MAGIC = {'D', 'C', 'G', 'R', 1};
+  static final String[] RESULTS = {"*", "1-0", "0-1", "1/2-1/2"};
+
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int PACKED_MOVE_BYTES = 3;
+
+  private WritableByteChannel channel;
+  private Encoding encoding;
+  private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private ByteBuffer frame = ByteBuffer.allocate(1024);
+  private MoveList legalMoves = new MoveList();
+  private long games;
+  private long bytes;
+
+  /**
+   * Constructor for a writer to a channel, which is closed with the writer.
+   *
+   * @param channel The channel to write to, at the start of a file.
+   * @param encoding How to store the moves.
+   */
+  public GameRecordWriter(WritableByteChannel channel, Encoding encoding) {
+    this.channel = channel;
+    this.encoding = encoding;
+    buffer.put(MAGIC);
+    bytes = MAGIC.length;
+  }
+
+  /**
+   * Creates a game record file, replacing any file of that name.
+   *
+   * @param path The path of the file.
+   * @param encoding How to store the moves.
+   * @return The writer.
+   * @throws IOException If the file cannot be created.
+   */
+  public static GameRecordWriter create(Path path, Encoding encoding) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    return new GameRecordWriter(channel, encoding);
+  }
+
+  /**
+   * Appends a game.
+   *
+   * @param game The game, whose moves must be legal.
+   * @throws IOException If the channel cannot be written to.
+   * @throws IllegalArgumentException If a move is not legal, with the move index encoding.
+   */
+  public void write(GameRecord game) throws IOException {
+    Map<String, String> tags = game.getTags();
+    byte[][] tagBytes = new byte[2 * tags.size()][];
+    int frameSize = 3 + 2 * Varint.MAX_BYTES + PACKED_MOVE_BYTES * game.getMoveCount();
+    int i = 0;
+    for (Map.Entry<String, String> tag : tags.entrySet()) {
+      tagBytes[i++] = tag.getKey().getBytes(StandardCharsets.UTF_8);
+      tagBytes[i++] = tag.getValue().getBytes(StandardCharsets.UTF_8);
+      frameSize += 2 * Varint.MAX_BYTES + tagBytes[i - 2].length + tagBytes[i - 1].length;
+    }
+    if (frame.capacity() < frameSize) {
+      frame = ByteBuffer.allocate(Math.max(frameSize, 2 * frame.capacity()));
+    }
+    frame.clear();
+    frame.put((byte) encoding.ordinal());
+    Varint.write(frame, tags.size());
+    for (byte[] text : tagBytes) {
+      Varint.write(frame, text.length);
+      frame.put(text);
+    }
+    frame.put((byte) resultCode(game.getResult()));
+    Varint.write(frame, game.getMoveCount());
+    if (encoding == Encoding.MOVE_INDEX) {
+      putMoveIndices(game);
+    } else {
+      for (int move = 0; move < game.getMoveCount(); move++) {
+        int packed = game.getMove(move);
+        frame.put((byte) packed).put((byte) (packed >>> 8)).put((byte) (packed >>> 16));
+      }
+    }
+    frame.flip();
+
+    if (buffer.remaining() < Varint.MAX_BYTES + frame.remaining()) {
+      flush();
+      if (buffer.capacity() < Varint.MAX_BYTES + frame.remaining()) {
+        buffer = ByteBuffer.allocate(Varint.MAX_BYTES + frame.remaining());
+      }
+    }
+    int start = buffer.position();
+    Varint.write(buffer, frame.remaining());
+    buffer.put(frame);
+    bytes += buffer.position() - start;
+    games++;
+  }
+
+  private void putMoveIndices(GameRecord game) {
+    Board board = game.createInitialBoard();
+    for (int i = 0; i < game.getMoveCount(); i++) {
+      int move = game.getMove(i);
+      board.generateMoves(board.getSideToMove(), legalMoves);
+      legalMoves.sort();
+      int index = legalMoves.indexOf(move);
+      if (index < 0) {
+        throw new IllegalArgumentException("Illegal move "
+            + PackedMove.toCoordinateNotation(move) + " at index " + i + " of a game record");
+      }
+      frame.put((byte) index);
+      board.makeMove(move);
+    }
+  }
+
+  private static int resultCode(String result) {
+    for (int code = 0; code < RESULTS.length; code++) {
+      if (RESULTS[code].equals(result)) {
+        return code;
+      }
+    }
+    return 0;
+  }
+
+  public long getGames() {
+    return games;
+  }
+
+  /**
+   * Returns the size of what has been written, including what is still buffered.
+   *
+   * @return The number of bytes.
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  /**
+   * Writes the buffered frames to the channel.
+   *
+   * @throws IOException If the channel cannot be written to.
+   */
+  public void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package chess.io;
+
+/** Signals a move of a game read from a file that cannot be played, with where it appears. */
+public class IllegalMoveException extends Exception {
+
+  private static final long serialVersionUID = 1L;
+
+  private final long gameNumber;
+  private final int line;
+  private final int moveIndex;
+
+  /**
+   * Constructor for the exception.
+   *
+   * @param game The game the move belongs to.
+   * @param moveIndex The index of the move in the game, -1 if the initial position is at fault.
+   * @param message What is wrong with the move.
+   */
+  public IllegalMoveException(PgnGame game, int moveIndex, String message) {
+    super(message + " in game " + game.getNumber() + " on line "
+        + ((moveIndex < 0) ? game.getLine() : game.getMoveLine(moveIndex)));
+    this.gameNumber = game.getNumber();
+    this.line = (moveIndex < 0) ? game.getLine() : game.getMoveLine(moveIndex);
+    this.moveIndex = moveIndex;
+  }
+
+  public long getGameNumber() {
+    return gameNumber;
+  }
+
+  /**
+   * Returns the line of the file the move appears on.
+   *
+   * @return The line, starting at 1, or the first line of the game if the initial position is at
+   *     fault.
+   */
+  public int getLine() {
+    return line;
+  }
+
+  public int getMoveIndex() {
+    return moveIndex;
+  }
+}
@@ -0,0 +1,166 @@
+package chess.io;
+
+import chess.Board;
+import chess.Fen;
+import chess.move.MoveList;
+import chess.move.PackedMove;
+import chess.move.SanParser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Implements a game read from PGN: its tags, the moves of its main line in algebraic notation and
+ * its result. The moves are kept back to back in one character buffer, with the line of the file
+ * each appears on, so that a game costs a handful of objects however long it is.
+ */
+public class PgnGame {
+
+  private long number;
+  private int line;
+  private Map<String, String> tags = new LinkedHashMap<>();
+  private StringBuilder moveText = new StringBuilder();
+  private int[] moveEnds = new int[128];
+  private int[] moveLines = new int[128];
+  private int moveCount;
+  private String result = "*";
+
+  /**
+   * Constructor for a game without tags or moves.
+   *
+   * @param number The number of the game in its file, starting at 1.
+   * @param line The line of the file the game starts on.
+   */
+  public PgnGame(long number, int line) {
+    this.number = number;
+    this.line = line;
+  }
+
+  public long getNumber() {
+    return number;
+  }
+
+  public int getLine() {
+    return line;
+  }
+
+  public Map<String, String> getTags() {
+    return Collections.unmodifiableMap(tags);
+  }
+
+  /**
+   * Returns the value of a tag, such as "White" or "Event".
+   *
+   * @param name The name of the tag.
+   * @return The value, null if the game does not have the tag.
+   */
+  public String getTag(String name) {
+    return tags.get(name);
+  }
+
+  void addTag(String name, String value) {
+    tags.put(name, value);
+  }
+
+  /**
+   * Returns the result of the game as given after its moves.
+   *
+   * @return One of "1-0", "0-1", "1/2-1/2" and "*".
+   */
+  public String getResult() {
+    return result;
+  }
+
+  void setResult(String result) {
+    this.result = result;
+  }
+
+  public int getMoveCount() {
+    return moveCount;
+  }
+
+  /**
+   * Returns a move of the main line.
+   *
+   * @param index The index of the move, 0 for White's first move.
+   * @return The move in algebraic notation, as written in the file.
+   */
+  public String getMove(int index) {
+    return moveText.substring(moveStart(index), moveEnds[index]);
+  }
+
+  /**
+   * Returns the line of the file a move of the main line appears on.
+   *
+   * @param index The index of the move.
+   * @return The line, starting at 1.
+   */
+  public int getMoveLine(int index) {
+    return moveLines[index];
+  }
+
+  private int moveStart(int index) {
+    return (index == 0) ? 0 : moveEnds[index - 1];
+  }
+
+  void addMove(CharSequence move, int moveLine) {
+    if (moveCount == moveEnds.length) {
+      moveEnds = Arrays.copyOf(moveEnds, 2 * moveCount);
+      moveLines = Arrays.copyOf(moveLines, 2 * moveCount);
+    }
+    moveText.append(move);
+    moveEnds[moveCount] = moveText.length();
+    moveLines[moveCount] = moveLine;
+    moveCount++;
+  }
+
+  /**
+   * Plays the moves of the main line from the initial position of the game, which is the one of
+   * its FEN tag if it has one, and the standard one otherwise.
+   *
+   * @return The board after the last move.
+   * @throws IllegalMoveException If a move is not legal or its notation cannot be read, or if the
+   *     FEN tag is not valid.
+   */
+  public Board replay() throws IllegalMoveException {
+    return replay(null);
+  }
+
+  /**
+   * Converts the game into a game record, checking that its moves are legal.
+   *
+   * @return The game record.
+   * @throws IllegalMoveException If a move is not legal or its notation cannot be read, or if the
+   *     FEN tag is not valid.
+   */
+  public GameRecord toRecord() throws IllegalMoveException {
+    int[] moves = new int[moveCount];
+    replay(moves);
+    return new GameRecord(tags, result, moves);
+  }
+
+  private Board replay(int[] packedMoves) throws IllegalMoveException {
+    String fen = tags.get("FEN");
+    Board board;
+    try {
+      board = Board.fromFen((fen == null) ? Fen.STARTING_POSITION : fen);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalMoveException(this, -1, e.getMessage());
+    }
+    MoveList legalMoves = new MoveList();
+    for (int i = 0; i < moveCount; i++) {
+      board.generateMoves(board.getSideToMove(), legalMoves);
+      int move = SanParser.parse(moveText, moveStart(i), moveEnds[i], legalMoves, board);
+      if (move == PackedMove.NONE) {
+        throw new IllegalMoveException(this, i, "Illegal move " + getMove(i));
+      }
+      board.makeMove(move);
+      if (packedMoves != null) {
+        packedMoves[i] = move;
+      }
+    }
+    return board;
+  }
+}
@@ -0,0 +1,185 @@
+package chess.io;
+
+import chess.Board;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implements the replay of every game of a PGN file. The calling thread reads the games, and with
+ * more than one thread it hands them through a bounded queue to worker threads that replay them,
+ * so that parsing and replaying overlap and memory stays bounded by the queue.
+ */
+public class PgnImport {
+
+  /** Receives the replayed games. Its methods may be called from several threads at once. */
+  public interface Handler {
+
+    /**
+     * Receives a game whose moves are all legal.
+     *
+     * @param game The game.
+     * @param board The board after the last move of the game.
+     */
+    void onGame(PgnGame game, Board board);
+
+    /**
+     * Receives a game with a move that cannot be played. The moves after it are not replayed.
+     *
+     * @param game The game.
+     * @param exception The move that cannot be played, and where it appears.
+     */
+    void onIllegalMove(PgnGame game, IllegalMoveException exception);
+  }
+
+  // How many games each worker may have waiting in the queue.
+  private static final int GAMES_QUEUED_PER_THREAD = 64;
+  // Marks the end of the games in the queue, once for each worker.
+  private static final PgnGame NO_MORE_GAMES = new PgnGame(0, 0);
+
+  private int threadCount;
+  private LongAdder games = new LongAdder();
+  private LongAdder moves = new LongAdder();
+  private LongAdder illegalGames = new LongAdder();
+  private long nanos;
+
+  /**
+   * Constructor for an import.
+   *
+   * @param threadCount The number of threads that replay games, 1 to replay them in the calling
+   *     thread as they are read.
+   */
+  public PgnImport(int threadCount) {
+    this.threadCount = Math.max(1, threadCount);
+  }
+
+  /**
+   * Reads and replays all games of a reader, which is not closed.
+   *
+   * @param reader The reader.
+   * @param handler What receives the replayed games.
+   * @throws IOException If the games cannot be read.
+   */
+  public void run(PgnReader reader, Handler handler) throws IOException {
+    long start = System.nanoTime();
+    games.reset();
+    moves.reset();
+    illegalGames.reset();
+    try {
+      if (threadCount == 1) {
+        for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+          replay(game, handler);
+        }
+      } else {
+        runInParallel(reader, handler);
+      }
+    } finally {
+      nanos = System.nanoTime() - start;
+    }
+  }
+
+  private void runInParallel(PgnReader reader, Handler handler) throws IOException {
+    BlockingQueue<PgnGame> queue =
+        new ArrayBlockingQueue<>(threadCount * GAMES_QUEUED_PER_THREAD);
+    List<Thread> workers = new ArrayList<>();
+    for (int i = 0; i < threadCount; i++) {
+      Thread worker = new Thread(() -> {
+        try {
+          for (PgnGame game = queue.take(); game != NO_MORE_GAMES; game = queue.take()) {
+            replay(game, handler);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }, "pgn-import-" + i);
+      worker.start();
+      workers.add(worker);
+    }
+    try {
+      for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+        queue.put(game);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      for (int i = 0; i < workers.size(); i++) {
+        putUninterruptibly(queue, NO_MORE_GAMES);
+      }
+      for (Thread worker : workers) {
+        joinUninterruptibly(worker);
+      }
+    }
+  }
+
+  private static void putUninterruptibly(BlockingQueue<PgnGame> queue, PgnGame game) {
+    boolean interrupted = Thread.interrupted();
+    while (true) {
+      try {
+        queue.put(game);
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void joinUninterruptibly(Thread thread) {
+    boolean interrupted = Thread.interrupted();
+    while (true) {
+      try {
+        thread.join();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void replay(PgnGame game, Handler handler) {
+    games.increment();
+    try {
+      Board board = game.replay();
+      moves.add(game.getMoveCount());
+      handler.onGame(game, board);
+    } catch (IllegalMoveException e) {
+      illegalGames.increment();
+      handler.onIllegalMove(game, e);
+    }
+  }
+
+  public long getGames() {
+    return games.sum();
+  }
+
+  /**
+   * Returns the number of moves replayed, counting only games whose moves are all legal.
+   *
+   * @return The number of moves.
+   */
+  public long getMoves() {
+    return moves.sum();
+  }
+
+  public long getIllegalGames() {
+    return illegalGames.sum();
+  }
+
+  /**
+   * Returns the speed of the last run, reading included.
+   *
+   * @return The games read and replayed per second.
+   */
+  public long getGamesPerSecond() {
+    return (nanos == 0) ? 0 : (long) (games.sum() * 1e9 / nanos);
+  }
+}
@@ -0,0 +1,308 @@
+package chess.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Implements a streaming reader of PGN files. The file is read through a channel into one fixed
+ * buffer and parsed byte by byte, one game at a time, so that memory stays bounded by the longest
+ * game however large the file is.
+ *
+ * <p>Tags are read with their escapes and decoded as UTF-8. Of the movetext only the main line is
+ * kept: comments, variations, numeric annotation glyphs and move numbers are skipped, as are lines
+ * starting with the escape character '%'. A game ends with its result, or where the tags of the
+ * next game begin if the result is missing: after movetext, or after the blank line that ends the
+ * tags of a game without movetext.
+ */
+public class PgnReader implements Closeable {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int END_OF_INPUT = -1;
+
+  private ReadableByteChannel channel;
+  private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private boolean endOfInput;
+  private int line = 1;
+  private boolean atLineStart = true;
+  // Whether the last call of skipSeparators skipped a line with nothing but white space.
+  private boolean skippedBlankLine;
+  private long gameCount;
+  private StringBuilder token = new StringBuilder();
+  private byte[] tagBytes = new byte[64];
+
+  /**
+   * Constructor for a reader of a channel, which is closed with the reader.
+   *
+   * @param channel The channel to read from.
+   */
+  public PgnReader(ReadableByteChannel channel) {
+    this.channel = channel;
+    buffer.flip();
+  }
+
+  /**
+   * Opens a PGN file for reading.
+   *
+   * @param path The path of the file.
+   * @return The reader.
+   * @throws IOException If the file cannot be opened.
+   */
+  public static PgnReader open(Path path) throws IOException {
+    return new PgnReader(FileChannel.open(path, StandardOpenOption.READ));
+  }
+
+  /**
+   * Returns the current line of the file, which after next is the line the game ended on.
+   *
+   * @return The line, starting at 1.
+   */
+  public int getLine() {
+    return line;
+  }
+
+  /**
+   * Reads the next game.
+   *
+   * @return The game, null if there are no more games.
+   * @throws IOException If the channel cannot be read.
+   */
+  public PgnGame next() throws IOException {
+    int next = skipSeparators();
+    if (next == END_OF_INPUT) {
+      return null;
+    }
+    PgnGame game = new PgnGame(++gameCount, line);
+    boolean tagsEnded = false;
+    while (next != END_OF_INPUT) {
+      if (next == '[') {
+        if (game.getMoveCount() > 0 || tagsEnded) {
+          // The tags of the next game, after a game without result.
+          return game;
+        }
+        read();
+        readTag(game);
+      } else {
+        int tokenLine = line;
+        readToken();
+        if (isResult(token)) {
+          game.setResult(token.toString());
+          return game;
+        }
+        int start = moveNumberLength(token);
+        if (start < token.length()) {
+          game.addMove(token.subSequence(start, token.length()), tokenLine);
+        }
+      }
+      next = skipSeparators();
+      tagsEnded |= skippedBlankLine;
+    }
+    return game;
+  }
+
+  /**
+   * Skips white space, comments, variations, numeric annotation glyphs and escaped lines.
+   *
+   * @return The first byte of the next tag or token, which is not consumed, or END_OF_INPUT.
+   */
+  private int skipSeparators() throws IOException {
+    skippedBlankLine = false;
+    boolean blank = atLineStart;
+    while (true) {
+      if (atLineStart && peek() == '%') {
+        skipLine();
+        blank = true;
+        continue;
+      }
+      int next = peek();
+      if (next == '\n') {
+        skippedBlankLine |= blank;
+        blank = true;
+      } else if (next != ' ' && next != '\t' && next != '\r') {
+        blank = false;
+      }
+      switch (next) {
+        case ' ':
+        case '\t':
+        case '\r':
+        case '\n':
+        case '.':
+        case ')':
+          read();
+          break;
+        case '{':
+          skipComment();
+          break;
+        case ';':
+          skipLine();
+          break;
+        case '(':
+          skipVariation();
+          break;
+        case '$':
+          read();
+          while (Character.isDigit(peek())) {
+            read();
+          }
+          break;
+        default:
+          return next;
+      }
+    }
+  }
+
+  private void skipComment() throws IOException {
+    int next = read();
+    while (next != '}' && next != END_OF_INPUT) {
+      next = read();
+    }
+  }
+
+  private void skipLine() throws IOException {
+    int next = read();
+    while (next != '\n' && next != END_OF_INPUT) {
+      next = read();
+    }
+  }
+
+  private void skipVariation() throws IOException {
+    int depth = 0;
+    do {
+      int next = read();
+      if (next == '(') {
+        depth++;
+      } else if (next == ')') {
+        depth--;
+      } else if (next == '{') {
+        skipComment();
+      } else if (next == ';') {
+        skipLine();
+      } else if (next == END_OF_INPUT) {
+        return;
+      }
+    } while (depth > 0);
+  }
+
+  private void readTag(PgnGame game) throws IOException {
+    token.setLength(0);
+    int next = peek();
+    while (next == ' ' || next == '\t') {
+      read();
+      next = peek();
+    }
+    while (next != ' ' && next != '"' && next != ']' && next != '\n' && next != END_OF_INPUT) {
+      token.append((char) read());
+      next = peek();
+    }
+    while (next != '"' && next != ']' && next != '\n' && next != END_OF_INPUT) {
+      read();
+      next = peek();
+    }
+    int length = 0;
+    if (next == '"') {
+      read();
+      next = read();
+      while (next != '"' && next != '\n' && next != END_OF_INPUT) {
+        if (next == '\\') {
+          next = read();
+        }
+        if (length == tagBytes.length) {
+          tagBytes = Arrays.copyOf(tagBytes, 2 * length);
+        }
+        tagBytes[length++] = (byte) next;
+        next = read();
+      }
+    }
+    while (next != ']' && next != '\n' && next != END_OF_INPUT) {
+      next = read();
+    }
+    game.addTag(token.toString(), new String(tagBytes, 0, length, StandardCharsets.UTF_8));
+  }
+
+  private void readToken() throws IOException {
+    token.setLength(0);
+    int next = peek();
+    while (next > ' ' && "{}()[];$".indexOf(next) < 0) {
+      token.append((char) read());
+      next = peek();
+    }
+    if (token.length() == 0) {
+      // A stray character that cannot start a token.
+      token.append((char) read());
+    }
+  }
+
+  private static boolean isResult(CharSequence token) {
+    String text = token.toString();
+    return text.equals("1-0") || text.equals("0-1") || text.equals("1/2-1/2") || text.equals("*");
+  }
+
+  /**
+   * Measures the move number a token starts with, such as "12." or "12...", which may be written
+   * against the move that follows it.
+   */
+  private static int moveNumberLength(CharSequence token) {
+    int digits = 0;
+    while (digits < token.length() && Character.isDigit(token.charAt(digits))) {
+      digits++;
+    }
+    if (digits == token.length()) {
+      return digits;
+    }
+    if (token.charAt(digits) != '.') {
+      return 0;
+    }
+    int end = digits;
+    while (end < token.length() && token.charAt(end) == '.') {
+      end++;
+    }
+    return end;
+  }
+
+  private int peek() throws IOException {
+    if (!buffer.hasRemaining() && !fill()) {
+      return END_OF_INPUT;
+    }
+    return buffer.get(buffer.position()) & 0xFF;
+  }
+
+  private int read() throws IOException {
+    if (!buffer.hasRemaining() && !fill()) {
+      return END_OF_INPUT;
+    }
+    int next = buffer.get() & 0xFF;
+    atLineStart = next == '\n';
+    if (atLineStart) {
+      line++;
+    }
+    return next;
+  }
+
+  private boolean fill() throws IOException {
+    if (endOfInput) {
+      return false;
+    }
+    buffer.clear();
+    int count = 0;
+    while (count == 0) {
+      count = channel.read(buffer);
+    }
+    buffer.flip();
+    if (count < 0) {
+      endOfInput = true;
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,51 @@
+package chess.io;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Implements variable-length integers: seven bits per byte, least significant group first, with
+ * the high bit set on every byte but the last. Values below 128 take one byte.
+ */
+final class Varint {
+
+  static final int MAX_BYTES = 5;
+
+  private Varint() {}
+
+  /**
+   * Writes a non-negative int.
+   *
+   * @param buffer The buffer to write to.
+   * @param value The value.
+   */
+  static void write(ByteBuffer buffer, int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  /**
+   * Reads a non-negative int.
+   *
+   * @param buffer The buffer to read from.
+   * @return The value, -1 if the buffer ends within it or it does not fit in an int.
+   */
+  static int read(ByteBuffer buffer) {
+    int value = 0;
+    try {
+      for (int shift = 0; shift < 7 * MAX_BYTES; shift += 7) {
+        int next = buffer.get();
+        value |= (next & 0x7F) << shift;
+        if ((next & 0x80) == 0) {
+          return (value < 0) ? -1 : value;
+        }
+      }
+    } catch (BufferUnderflowException e) {
+      return -1;
+    }
+    return -1;
+  }
+}
@@ -2,9 +2,6 @@ package chess.move;
 
 import chess.Board;
 import chess.Position;
-import chess.piece.Piece;
-
-import java.util.ArrayList;
 
 public class Castling extends Move {
 
@@ -34,7 +31,7 @@ public class Castling extends Move {
   }
 
   @Override
-  public String getNotation(ArrayList<Move> legalMoves, Board board) {
+  String getNotationBody(String disambiguation, Board board) {
     if (queenside) {
       return "0-0-0";
     } else {
@@ -51,11 +48,8 @@ public class Castling extends Move {
   }
 
   @Override
-  public void applyTo(Board board) {
-    super.applyTo(board);
-    Piece rook = board.atPosition(rookPosBefore).getCopy();
-    rook.setPosition(rookPosAfter);
-    board.placePiece(rook);
-    board.removePiece(rookPosBefore);
+  public int encode() {
+    return PackedMove.encode(
+        getPosBefore().getIndex(), getPosAfter().getIndex(), PackedMove.CASTLING);
   }
 }
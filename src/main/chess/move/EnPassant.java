@@ -3,8 +3,6 @@ package chess.move;
 import chess.Board;
 import chess.Position;
 
-import java.util.ArrayList;
-
 public class EnPassant extends Move {
 
   private Position capturedPawnPosition;
@@ -15,8 +13,8 @@ public class EnPassant extends Move {
   }
 
   @Override
-  public String getNotation(ArrayList<Move> legalMoves, Board board) {
-    String notation = super.getNotation(legalMoves, board);
+  String getNotationBody(String disambiguation, Board board) {
+    String notation = super.getNotationBody(disambiguation, board);
     notation += "e.p.";
     return notation;
   }
@@ -35,9 +33,8 @@ public class EnPassant extends Move {
   }
 
   @Override
-  public void applyTo(Board board) {
-    super.applyTo(board);
-    board.removePiece(this.capturedPawnPosition);
+  public int encode() {
+    return PackedMove.encode(
+        getPosBefore().getIndex(), getPosAfter().getIndex(), PackedMove.EN_PASSANT);
   }
-
-}
\ No newline at end of file
+}
@@ -1,13 +1,16 @@
 package chess.move;
 
+import chess.Bitboards;
 import chess.Board;
-import chess.Game;
 import chess.Position;
 import chess.piece.Piece;
 
 import java.util.ArrayList;
 
-/** Implements a single move in a chess game. */
+/**
+ * Implements a single move in a chess game. Moves are made on the board in their packed form, see
+ * PackedMove, of which a Move is a view.
+ */
 public class Move {
 
   private Position posBefore;
@@ -20,19 +23,14 @@ public class Move {
 
   /**
    * Matches a move given in algebraic notation to one of the current player's legal moves and
-   * returns it.
+   * returns it. Check and mate suffixes are optional.
    *
    * @param moveNotation The algebraic notation of a move.
    * @param legalMoves The current player's legal moves.
    * @return The move given by moveNotation if a match was found, otherwise null.
    */
   public static Move createMove(String moveNotation, ArrayList<Move> legalMoves, Board board) {
-    for (Move move : legalMoves) {
-      if (move.getNotation(legalMoves, board).equals(moveNotation)) {
-        return move;
-      }
-    }
-    return null;
+    return SanParser.parse(moveNotation, legalMoves, board);
   }
 
   /**
@@ -83,62 +81,51 @@ public class Move {
 
   /**
    * Gets the algebraic notation of this move, given the board it is applied to, and that it is a
-   * legal move on that board. TODO: Maybe split into more methods; this is very long.
+   * legal move on that board. To get the notation of all legal moves, SanWriter.write is faster.
    *
    * @param legalMoves A list of the other legal moves for the same player on that board.
    * @param board The board.
    * @return The move in algebraic notation.
    */
   public String getNotation(ArrayList<Move> legalMoves, Board board) {
+    return SanWriter.notation(this, legalMoves, board);
+  }
+
+  /**
+   * Gets the algebraic notation of this move without check or mate suffix.
+   *
+   * @param disambiguation What identifies the moving piece among others of the same kind that can
+   *     move to the same position, usually empty.
+   * @param board The board the move is applied to.
+   * @return The move in algebraic notation, without suffix.
+   */
+  String getNotationBody(String disambiguation, Board board) {
     String notation = "";
-    char movingPiece = board.atPosition(this.getPosBefore()).toAsciiSymbol();
-    movingPiece = Character.toUpperCase(movingPiece);
-
-    if (movingPiece != 'P') {
-      notation += movingPiece;
-      boolean sameRank = false;
-      boolean sameFile = false;
-      for (Move move : legalMoves) {
-        boolean samePiece = move.getPosBefore().isEqual(this.getPosBefore());
-        boolean sameDestination = move.getPosAfter().isEqual(this.getPosAfter());
-        if (samePiece && sameDestination) {
-          continue;
-        }
-        boolean samePieceType =
-            (board.atPosition(move.getPosBefore()).toAsciiSymbol() == movingPiece);
-        if (samePieceType && sameDestination) {
-          if (move.getPosBefore().getRank() == this.getPosBefore().getRank()) {
-            sameRank = true;
-          }
-          if (move.getPosBefore().getFile() == this.getPosBefore().getFile()) {
-            sameFile = true;
-          }
-        }
-      }
-      if (sameRank && sameFile) {
-        notation += this.getPosBefore().getNotation();
-      } else if (sameFile) {
-        notation += this.getPosBefore().getNotation().charAt(1);
-      } else if (sameRank) {
-        notation += this.getPosBefore().getNotation().charAt(0);
-      }
+    int movingPiece = board.getBitboards().pieceAt(this.getPosBefore().getIndex());
+    boolean isPawn = Bitboards.typeOf(movingPiece) == Piece.PAWN;
+    if (!isPawn) {
+      notation += Character.toUpperCase(Bitboards.toAsciiSymbol(movingPiece)) + disambiguation;
     }
-
     if (this.isCapture(board)) {
-      if (movingPiece == 'P') {
+      if (isPawn) {
         notation += this.getPosBefore().getNotation().charAt(0);
       }
       notation += 'x';
     }
     notation += this.getPosAfter().getNotation();
+    return notation;
+  }
 
-    Game.Player currentPlayer = board.atPosition(this.getPosBefore()).getPlayer();
-    Board boardCopy = board.getCopy();
-    this.applyTo(boardCopy);
-    if (boardCopy.inCheckMate(Game.otherPlayer(currentPlayer))) {
-      notation += '#';
-    } else if (boardCopy.inCheck(Game.otherPlayer(currentPlayer))) {
-      notation += '+';
+  /**
+   * Gets the coordinate notation of this move, such as "e2e4" or "e7e8q", which does not depend on
+   * the board it is applied to.
+   *
+   * @return The move in coordinate notation.
+   */
+  public String getCoordinateNotation() {
+    String notation = this.getPosBefore().getNotation() + this.getPosAfter().getNotation();
+    if (this.isPromotion()) {
+      notation += Character.toLowerCase(this.promoteToWhat());
     }
     return notation;
   }
@@ -168,15 +155,58 @@ public class Move {
   }
 
   /**
-   * Abstract method to execute the move on a Board object, changing it.
+   * Encodes the move in an int, as described in PackedMove.
+   *
+   * @return The packed move.
+   */
+  public int encode() {
+    return PackedMove.encode(posBefore.getIndex(), posAfter.getIndex());
+  }
+
+  /**
+   * Creates the object view of a packed move, which is a Castling, EnPassant or Promotion when
+   * the packed move is of that kind.
+   *
+   * @param move The packed move.
+   * @return The move.
+   */
+  public static Move createMove(int move) {
+    Position from = Position.fromIndex(PackedMove.from(move));
+    Position to = Position.fromIndex(PackedMove.to(move));
+    switch (PackedMove.kind(move)) {
+      case PackedMove.CASTLING:
+        return new Castling(
+            from,
+            to,
+            Position.fromIndex(PackedMove.castlingRookFrom(move)),
+            Position.fromIndex(PackedMove.castlingRookTo(move)),
+            to.getFile() < from.getFile());
+      case PackedMove.EN_PASSANT:
+        return new EnPassant(from, to, Position.fromIndex(PackedMove.enPassantCapture(move)));
+      case PackedMove.PROMOTION:
+        return new Promotion(from, to, Bitboards.toAsciiSymbol(PackedMove.promotedPiece(move)));
+      default:
+        return new Move(from, to);
+    }
+  }
+
+  /**
+   * Executes the move on a Board object, changing it. The board state the move destroys is recorded
+   * in the board's history, so that the move can be taken back with undoFrom.
    *
    * @param board The board to execute the move on.
    */
   public void applyTo(Board board) {
-    board.addToHistory(this);
-    Piece movingPiece = board.atPosition(this.getPosBefore()).getCopy();
-    movingPiece.setPosition(this.getPosAfter());
-    board.placePiece(movingPiece);
-    board.removePiece(this.getPosBefore());
+    board.makeMove(this.encode());
+  }
+
+  /**
+   * Takes back the move, which must be the last move applied to the board, restoring the board to
+   * how it was before applyTo.
+   *
+   * @param board The board to take the move back on.
+   */
+  public void undoFrom(Board board) {
+    board.unmakeMove();
   }
 }
@@ -0,0 +1,132 @@
+package chess.move;
+
+import java.util.Arrays;
+
+/**
+ * Implements a reusable list of packed moves backed by an int array, so that moves can be
+ * generated over and over again without allocating. Each move has an int score beside it, by which
+ * pickBest orders the moves as they are taken, one selection step at a time.
+ */
+public class MoveList {
+
+  // No legal chess position has more moves than this.
+  private static final int DEFAULT_CAPACITY = 256;
+
+  private int[] moves;
+  private int[] scores;
+  private int size;
+
+  public MoveList() {
+    moves = new int[DEFAULT_CAPACITY];
+    scores = new int[DEFAULT_CAPACITY];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int get(int index) {
+    return moves[index];
+  }
+
+  public void set(int index, int move) {
+    moves[index] = move;
+  }
+
+  /**
+   * Appends a packed move, growing the list if needed.
+   *
+   * @param move The packed move.
+   */
+  public void add(int move) {
+    if (size == moves.length) {
+      moves = Arrays.copyOf(moves, 2 * moves.length);
+      scores = Arrays.copyOf(scores, 2 * scores.length);
+    }
+    scores[size] = 0;
+    moves[size++] = move;
+  }
+
+  public int getScore(int index) {
+    return scores[index];
+  }
+
+  public void setScore(int index, int score) {
+    scores[index] = score;
+  }
+
+  /**
+   * Moves the highest scored of the moves from an index on to that index. Taking the moves with
+   * increasing indices this way visits them best first, and sorts only as far as they are taken,
+   * which pays off when a cutoff comes early.
+   *
+   * @param index The index.
+   * @return The move now at the index.
+   */
+  public int pickBest(int index) {
+    int best = index;
+    for (int i = index + 1; i < size; i++) {
+      if (scores[i] > scores[best]) {
+        best = i;
+      }
+    }
+    int move = moves[best];
+    int score = scores[best];
+    moves[best] = moves[index];
+    scores[best] = scores[index];
+    moves[index] = move;
+    scores[index] = score;
+    return move;
+  }
+
+  /**
+   * Sorts the moves by their packed value, which orders them the same way whatever order they
+   * were generated in. The scores are cleared.
+   */
+  public void sort() {
+    Arrays.sort(moves, 0, size);
+    Arrays.fill(scores, 0, size, 0);
+  }
+
+  /**
+   * Finds a packed move in the list.
+   *
+   * @param move The packed move.
+   * @return The index of the move, -1 if it is not in the list.
+   */
+  public int indexOf(int move) {
+    for (int i = 0; i < size; i++) {
+      if (moves[i] == move) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Calculates whether the list contains a packed move.
+   *
+   * @param move The packed move.
+   * @return Whether the move is in the list.
+   */
+  public boolean contains(int move) {
+    return indexOf(move) >= 0;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Drops the moves from an index on, keeping those before it with their scores.
+   *
+   * @param size The number of moves to keep, at most the size of the list.
+   */
+  public void truncate(int size) {
+    this.size = size;
+  }
+}
@@ -0,0 +1,113 @@
+package chess.move;
+
+import chess.Bitboards;
+import chess.Position;
+
+/**
+ * Implements the packed encoding of a move in an int: the square moved from in bits 0-5, the
+ * square moved to in bits 6-11, the kind of move in bits 12-13 and, for promotions, the piece code
+ * promoted to in bits 14-17. Squares are indexed as in the bitboards.
+ */
+public final class PackedMove {
+
+  public static final int NONE = 0;
+
+  public static final int NORMAL = 0;
+  public static final int CASTLING = 1;
+  public static final int EN_PASSANT = 2;
+  public static final int PROMOTION = 3;
+
+  private PackedMove() {}
+
+  public static int encode(int from, int to) {
+    return from | (to << 6);
+  }
+
+  public static int encode(int from, int to, int kind) {
+    return from | (to << 6) | (kind << 12);
+  }
+
+  /**
+   * Encodes a promotion.
+   *
+   * @param from The square the pawn moves from.
+   * @param to The square the pawn moves to.
+   * @param promotedPiece The piece code of the piece the pawn becomes.
+   * @return The packed move.
+   */
+  public static int promotion(int from, int to, int promotedPiece) {
+    return from | (to << 6) | (PROMOTION << 12) | (promotedPiece << 14);
+  }
+
+  public static int from(int move) {
+    return move & 0x3F;
+  }
+
+  public static int to(int move) {
+    return (move >>> 6) & 0x3F;
+  }
+
+  public static int kind(int move) {
+    return (move >>> 12) & 0x3;
+  }
+
+  public static int promotedPiece(int move) {
+    return (move >>> 14) & 0xF;
+  }
+
+  /**
+   * Calculates whether a move captures, including en passant.
+   *
+   * @param bitboards The bitboards the move is made on.
+   * @param move The packed move.
+   * @return Whether the move captures.
+   */
+  public static boolean isCapture(Bitboards bitboards, int move) {
+    return kind(move) == EN_PASSANT || bitboards.pieceAt(to(move)) != Bitboards.EMPTY;
+  }
+
+  /**
+   * Returns the square the rook moves from when castling.
+   *
+   * @param move The packed castling move, of the king.
+   * @return The square of the rook before castling.
+   */
+  public static int castlingRookFrom(int move) {
+    return (to(move) > from(move)) ? to(move) + 1 : to(move) - 2;
+  }
+
+  /**
+   * Returns the square the rook moves to when castling, the one the king passes.
+   *
+   * @param move The packed castling move, of the king.
+   * @return The square of the rook after castling.
+   */
+  public static int castlingRookTo(int move) {
+    return (from(move) + to(move)) / 2;
+  }
+
+  /**
+   * Returns the square of the pawn captured en passant, beside the square moved from.
+   *
+   * @param move The packed en passant move.
+   * @return The square of the captured pawn.
+   */
+  public static int enPassantCapture(int move) {
+    return (from(move) & ~7) | (to(move) & 7);
+  }
+
+  /**
+   * Gets the coordinate notation of a packed move, such as "e2e4" or "e7e8q".
+   *
+   * @param move The packed move.
+   * @return The move in coordinate notation.
+   */
+  public static String toCoordinateNotation(int move) {
+    String notation =
+        Position.fromIndex(from(move)).getNotation() + Position.fromIndex(to(move)).getNotation();
+    if (kind(move) == PROMOTION) {
+      notation += Character.toLowerCase(Bitboards.toAsciiSymbol(promotedPiece(move)));
+    }
+    return notation;
+  }
+}
@@ -1,10 +1,8 @@
 package chess.move;
 
+import chess.Bitboards;
 import chess.Board;
 import chess.Position;
-import chess.piece.Piece;
-
-import java.util.ArrayList;
 
 public class Promotion extends Move {
 
@@ -16,8 +14,8 @@ public class Promotion extends Move {
   }
 
   @Override
-  public String getNotation(ArrayList<Move> legalMoves, Board board) {
-    String notation = super.getNotation(legalMoves, board);
+  String getNotationBody(String disambiguation, Board board) {
+    String notation = super.getNotationBody(disambiguation, board);
     notation += Character.toUpperCase(promoteTo);
     return notation;
   }
@@ -33,10 +31,8 @@ public class Promotion extends Move {
   }
 
   @Override
-  public void applyTo(Board board) {
-    board.addToHistory(this);
-    board.placePiece(Piece.createPiece(this.getPosAfter(), promoteTo));
-    board.removePiece(this.getPosBefore());
+  public int encode() {
+    return PackedMove.promotion(
+        getPosBefore().getIndex(), getPosAfter().getIndex(), Bitboards.codeOf(promoteTo));
   }
-
 }
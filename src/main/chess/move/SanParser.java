@@ -0,0 +1,208 @@
+package chess.move;
+
+import chess.Bitboards;
+import chess.Board;
+import chess.piece.Piece;
+
+import java.util.ArrayList;
+
+/**
+ * Implements a parser of standard algebraic notation. The notation is decoded into piece, origin
+ * hints, capture, destination and promotion in a single pass, and the legal move matching them is
+ * looked up, without computing the notation of any legal move.
+ *
+ * <p>The decoded notation is packed in an int: the destination in bits 0-5, the piece type in bits
+ * 6-8, the origin file plus one in bits 9-12 and the origin rank plus one in bits 13-16 (0 when
+ * not given), the capture flag in bit 17, the promotion piece type plus one in bits 18-20 and the
+ * castling side in bits 21-22. It is -1 if the notation cannot describe a move.
+ */
+public final class SanParser {
+
+  private static final String PIECE_LETTERS = "PNBRQK";
+  private static final String ANNOTATION_SUFFIXES = "+#!?";
+  private static final String EN_PASSANT_SUFFIX = "e.p.";
+
+  private static final int INVALID = -1;
+  private static final int CAPTURE = 1 << 17;
+  private static final int KINGSIDE = 1 << 21;
+  private static final int QUEENSIDE = 2 << 21;
+
+  private SanParser() {}
+
+  /**
+   * Finds the legal move described by a move in algebraic notation. Check and mate suffixes are
+   * optional, castling may be written with letters or digits, and a promotion may be written with
+   * or without an equals sign.
+   *
+   * @param notation The move in algebraic notation.
+   * @param legalMoves The current player's legal moves.
+   * @param board The board the moves are made on.
+   * @return The move if exactly one legal move matches, otherwise null.
+   */
+  public static Move parse(String notation, ArrayList<Move> legalMoves, Board board) {
+    int pattern = decode(notation, 0, notation.length());
+    if (pattern == INVALID) {
+      return null;
+    }
+    Move found = null;
+    for (Move legalMove : legalMoves) {
+      if (!matches(pattern, legalMove.encode(), board.getBitboards())) {
+        continue;
+      }
+      if (found != null) {
+        return null;
+      }
+      found = legalMove;
+    }
+    return found;
+  }
+
+  /**
+   * Finds the legal move described by a move in algebraic notation, as packed moves and without
+   * allocating, for replaying many games. The notation is accepted as by the other parse.
+   *
+   * @param notation The characters holding the move.
+   * @param start The index of the first character of the move.
+   * @param end The index after the last character of the move.
+   * @param legalMoves The current player's legal moves, packed.
+   * @param board The board the moves are made on.
+   * @return The packed move if exactly one legal move matches, otherwise PackedMove.NONE.
+   */
+  public static int parse(
+      CharSequence notation, int start, int end, MoveList legalMoves, Board board) {
+    int pattern = decode(notation, start, end);
+    if (pattern == INVALID) {
+      return PackedMove.NONE;
+    }
+    int found = PackedMove.NONE;
+    for (int i = 0; i < legalMoves.size(); i++) {
+      int move = legalMoves.get(i);
+      if (!matches(pattern, move, board.getBitboards())) {
+        continue;
+      }
+      if (found != PackedMove.NONE) {
+        return PackedMove.NONE;
+      }
+      found = move;
+    }
+    return found;
+  }
+
+  private static int decode(CharSequence move, int start, int end) {
+    while (end > start && ANNOTATION_SUFFIXES.indexOf(move.charAt(end - 1)) >= 0) {
+      end--;
+    }
+    while (start < end && move.charAt(start) == ' ') {
+      start++;
+    }
+    while (end > start && move.charAt(end - 1) == ' ') {
+      end--;
+    }
+    if (regionEquals(move, end - EN_PASSANT_SUFFIX.length(), end, EN_PASSANT_SUFFIX)) {
+      end -= EN_PASSANT_SUFFIX.length();
+      while (end > start && move.charAt(end - 1) == ' ') {
+        end--;
+      }
+    }
+
+    if (regionEquals(move, start, end, "O-O") || regionEquals(move, start, end, "0-0")) {
+      return KINGSIDE;
+    }
+    if (regionEquals(move, start, end, "O-O-O") || regionEquals(move, start, end, "0-0-0")) {
+      return QUEENSIDE;
+    }
+
+    int promoteTo = -1;
+    if (end > start && "NBRQ".indexOf(move.charAt(end - 1)) >= 0) {
+      promoteTo = PIECE_LETTERS.indexOf(move.charAt(--end));
+      if (end > start && move.charAt(end - 1) == '=') {
+        end--;
+      }
+    }
+    if (end - start < 2 || !isFile(move.charAt(end - 2)) || !isRank(move.charAt(end - 1))) {
+      return INVALID;
+    }
+    int target = (move.charAt(end - 1) - '1') * 8 + (move.charAt(end - 2) - 'a');
+    end -= 2;
+
+    int pieceType = Piece.PAWN;
+    if (end > start && PIECE_LETTERS.indexOf(move.charAt(start)) > 0) {
+      pieceType = PIECE_LETTERS.indexOf(move.charAt(start));
+      start++;
+    }
+    boolean capture = false;
+    if (end > start && move.charAt(end - 1) == 'x') {
+      capture = true;
+      end--;
+    }
+    int fromFile = -1;
+    int fromRank = -1;
+    for (int i = start; i < end; i++) {
+      char hint = move.charAt(i);
+      if (isFile(hint) && fromFile < 0 && fromRank < 0) {
+        fromFile = hint - 'a';
+      } else if (isRank(hint) && fromRank < 0) {
+        fromRank = hint - '1';
+      } else {
+        return INVALID;
+      }
+    }
+    if (pieceType == Piece.PAWN && fromFile < 0) {
+      // A pawn moves straight ahead unless it captures, in which case its file must be given.
+      if (capture) {
+        return INVALID;
+      }
+      fromFile = target % 8;
+    }
+    if (promoteTo >= 0 && pieceType != Piece.PAWN) {
+      return INVALID;
+    }
+    return target
+        | (pieceType << 6)
+        | ((fromFile + 1) << 9)
+        | ((fromRank + 1) << 13)
+        | (capture ? CAPTURE : 0)
+        | ((promoteTo + 1) << 18);
+  }
+
+  private static boolean matches(int pattern, int move, Bitboards bitboards) {
+    int from = PackedMove.from(move);
+    int to = PackedMove.to(move);
+    int castling = pattern & (KINGSIDE | QUEENSIDE);
+    if (castling != 0 || PackedMove.kind(move) == PackedMove.CASTLING) {
+      return PackedMove.kind(move) == PackedMove.CASTLING
+          && castling == ((to < from) ? QUEENSIDE : KINGSIDE);
+    }
+    int fromFile = ((pattern >>> 9) & 0xF) - 1;
+    int fromRank = ((pattern >>> 13) & 0xF) - 1;
+    int promoteTo = ((pattern >>> 18) & 0x7) - 1;
+    boolean isPromotion = PackedMove.kind(move) == PackedMove.PROMOTION;
+    return to == (pattern & 0x3F)
+        && Bitboards.typeOf(bitboards.pieceAt(from)) == ((pattern >>> 6) & 0x7)
+        && (fromFile < 0 || from % 8 == fromFile)
+        && (fromRank < 0 || from / 8 == fromRank)
+        && isPromotion == (promoteTo >= 0)
+        && (!isPromotion || Bitboards.typeOf(PackedMove.promotedPiece(move)) == promoteTo)
+        && PackedMove.isCapture(bitboards, move) == ((pattern & CAPTURE) != 0);
+  }
+
+  private static boolean regionEquals(CharSequence move, int start, int end, String expected) {
+    if (start < 0 || end - start != expected.length()) {
+      return false;
+    }
+    for (int i = 0; i < expected.length(); i++) {
+      if (move.charAt(start + i) != expected.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isFile(char file) {
+    return 'a' <= file && file <= 'h';
+  }
+
+  private static boolean isRank(char rank) {
+    return '1' <= rank && rank <= '8';
+  }
+}
@@ -0,0 +1,112 @@
+package chess.move;
+
+import chess.Attacks;
+import chess.Bitboards;
+import chess.Board;
+import chess.Game;
+import chess.piece.Piece;
+
+import java.util.ArrayList;
+
+/**
+ * Implements writing moves in standard algebraic notation. Writing all legal moves of a position
+ * at once lets them share the search for pieces that need disambiguation.
+ */
+public final class SanWriter {
+
+  private SanWriter() {}
+
+  /**
+   * Gets the algebraic notation of a single legal move.
+   *
+   * @param move The move.
+   * @param legalMoves All legal moves of the same player on the board.
+   * @param board The board the move is applied to.
+   * @return The move in algebraic notation.
+   */
+  public static String notation(Move move, ArrayList<Move> legalMoves, Board board) {
+    return move.getNotationBody(disambiguation(move, legalMoves, board), board)
+        + suffix(move, board);
+  }
+
+  /**
+   * Gets the algebraic notation of every legal move of a player.
+   *
+   * @param legalMoves All legal moves of the same player on the board.
+   * @param board The board the moves are applied to.
+   * @return The notations, in the same order as the moves.
+   */
+  public static ArrayList<String> write(ArrayList<Move> legalMoves, Board board) {
+    Bitboards bitboards = board.getBitboards();
+    // Counts the moves of each kind of piece to each square; only counts above one need work.
+    int[] rivals = new int[12 * Attacks.SQUARE_COUNT];
+    for (Move move : legalMoves) {
+      rivals[rivalGroup(move, bitboards)]++;
+    }
+    ArrayList<String> notations = new ArrayList<>(legalMoves.size());
+    for (Move move : legalMoves) {
+      String disambiguation = (rivals[rivalGroup(move, bitboards)] > 1)
+          ? disambiguation(move, legalMoves, board)
+          : "";
+      notations.add(move.getNotationBody(disambiguation, board) + suffix(move, board));
+    }
+    return notations;
+  }
+
+  private static int rivalGroup(Move move, Bitboards bitboards) {
+    int movingPiece = bitboards.pieceAt(move.getPosBefore().getIndex());
+    return movingPiece * Attacks.SQUARE_COUNT + move.getPosAfter().getIndex();
+  }
+
+  /**
+   * Calculates what identifies the moving piece among the other pieces of the same kind that can
+   * move to the same position: its file if that is enough, else its rank, else both.
+   */
+  private static String disambiguation(Move move, ArrayList<Move> legalMoves, Board board) {
+    Bitboards bitboards = board.getBitboards();
+    int from = move.getPosBefore().getIndex();
+    int movingPiece = bitboards.pieceAt(from);
+    if (Bitboards.typeOf(movingPiece) == Piece.PAWN) {
+      return "";
+    }
+    boolean ambiguous = false;
+    boolean sameFile = false;
+    boolean sameRank = false;
+    for (Move other : legalMoves) {
+      int otherFrom = other.getPosBefore().getIndex();
+      if (otherFrom == from
+          || !other.getPosAfter().isEqual(move.getPosAfter())
+          || bitboards.pieceAt(otherFrom) != movingPiece) {
+        continue;
+      }
+      ambiguous = true;
+      sameFile |= other.getPosBefore().getFile() == move.getPosBefore().getFile();
+      sameRank |= other.getPosBefore().getRank() == move.getPosBefore().getRank();
+    }
+    String origin = move.getPosBefore().getNotation();
+    if (!ambiguous) {
+      return "";
+    } else if (!sameFile) {
+      return origin.substring(0, 1);
+    } else if (!sameRank) {
+      return origin.substring(1);
+    }
+    return origin;
+  }
+
+  /**
+   * Calculates the check or mate suffix of a move. Only a move that gives check needs the
+   * opponent's moves of the position after it, and only until the first one is found.
+   */
+  private static String suffix(Move move, Board board) {
+    int movingPiece = board.getBitboards().pieceAt(move.getPosBefore().getIndex());
+    Game.Player opponent = Game.otherPlayer(Bitboards.playerOf(movingPiece));
+    move.applyTo(board);
+    String suffix = "";
+    if (board.inCheck(opponent)) {
+      suffix = board.hasMoves(opponent) ? "+" : "#";
+    }
+    move.undoFrom(board);
+    return suffix;
+  }
+}
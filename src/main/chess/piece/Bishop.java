@@ -1,22 +1,16 @@
 package chess.piece;
 
+import chess.Attacks;
+import chess.Bitboards;
 import chess.Board;
 import chess.Game;
 import chess.Position;
-import chess.Step;
 
 import java.util.ArrayList;
 
 /** Implements a specific chess piece, the bishop. */
 public class Bishop extends Piece {
 
-  private static final Step[] BISHOP_MOVES = {
-    new Step(-1, 1),
-    new Step(1, 1),
-    new Step(1, -1),
-    new Step(-1, -1)
-  };
-
   public Bishop(Position position, Game.Player player) {
     super(position, player);
   }
@@ -25,23 +19,16 @@ public class Bishop extends Piece {
     return (this.getPlayer() == Game.Player.WHITE) ? 'B' : 'b';
   }
 
+  public int getType() {
+    return Piece.BISHOP;
+  }
+
   public ArrayList<Position> getReach(Board board) {
-    ArrayList<Position> reach = new ArrayList<>();
-    for (Step step : BISHOP_MOVES) {
-      Position posAfter = this.getPosition();
-      while (step.applyOn(posAfter).insideBoard()) {
-        posAfter = step.applyOn(posAfter);
-        if (board.isEmpty(posAfter)) {
-          reach.add(posAfter);
-          continue;
-        } else if (board.isOpposite(this.getPlayer(), posAfter)) {
-          reach.add(posAfter);
-          break;
-        }
-        break;
-      }
-    }
-    return reach;
+    Bitboards bitboards = board.getBitboards();
+    int square = this.getPosition().getIndex();
+    long reach =
+        Attacks.bishop(square, bitboards.occupied()) & ~bitboards.occupancy(this.getPlayer());
+    return toPositions(reach);
   }
 
   public Piece getCopy() {
@@ -4,12 +4,21 @@ import chess.Board;
 import chess.Game;
 import chess.Position;
 import chess.move.Move;
+import chess.move.MoveList;
+import chess.move.PackedMove;
 
 import java.util.ArrayList;
 
 /** Implements a general chess piece. */
 public abstract class Piece {
 
+  public static final int PAWN = 0;
+  public static final int KNIGHT = 1;
+  public static final int BISHOP = 2;
+  public static final int ROOK = 3;
+  public static final int QUEEN = 4;
+  public static final int KING = 5;
+
   private Position position;
   private Game.Player player;
 
@@ -71,6 +80,13 @@ public abstract class Piece {
    */
   public abstract char toAsciiSymbol();
 
+  /**
+   * Abstract method to identify the type of the piece, regardless of ownership.
+   *
+   * @return One of the type constants, such as Piece.PAWN.
+   */
+  public abstract int getType();
+
   /**
    * Abstract method to calculate all positions a piece can reach, except through castling or en
    * passant. Whether the own king is placed in check is also disregarded.
@@ -83,20 +99,35 @@ public abstract class Piece {
   public abstract Piece getCopy();
 
   /**
-   * Calculates all possible moves for a piece.
+   * Converts a set of squares, as used by the bitboards, to positions.
+   *
+   * @param squares The squares as a 64-bit set.
+   * @return The positions, in increasing square order.
+   */
+  protected static ArrayList<Position> toPositions(long squares) {
+    ArrayList<Position> positions = new ArrayList<>(Long.bitCount(squares));
+    while (squares != 0) {
+      positions.add(Position.fromIndex(Long.numberOfTrailingZeros(squares)));
+      squares &= squares - 1;
+    }
+    return positions;
+  }
+
+  /**
+   * Calculates all possible moves for a piece, including castling, en passant and promotions. The
+   * moves are those the board generates for the piece's owner that start on the piece's square.
    *
    * @param board The board the piece is standing on.
    * @return A list of all possible moves for the piece.
    */
   public ArrayList<Move> getMoves(Board board) {
-    ArrayList<Position> reach = this.getReach(board);
+    MoveList packedMoves = new MoveList();
+    board.generateMoves(this.getPlayer(), packedMoves);
     ArrayList<Move> moves = new ArrayList<>();
-    for (Position posAfter : reach) {
-      Move move = new Move(this.getPosition(), posAfter);
-      Board boardCopy = board.getCopy();
-      move.applyTo(boardCopy);
-      if (!boardCopy.inCheck(this.getPlayer())) {
-        moves.add(move);
+    int from = this.getPosition().getIndex();
+    for (int i = 0; i < packedMoves.size(); i++) {
+      if (PackedMove.from(packedMoves.get(i)) == from) {
+        moves.add(Move.createMove(packedMoves.get(i)));
       }
     }
     return moves;
@@ -1,22 +1,16 @@
 package chess.piece;
 
+import chess.Attacks;
+import chess.Bitboards;
 import chess.Board;
 import chess.Game;
 import chess.Position;
-import chess.Step;
 
 import java.util.ArrayList;
 
 /** Implements a specific chess piece, the rook. */
 public class Rook extends Piece {
 
-  private static final Step[] ROOK_MOVES = {
-    new Step(-1, 0),
-    new Step(0, 1),
-    new Step(1, 0),
-    new Step(0, -1),
-  };
-
   public Rook(Position position, Game.Player player) {
     super(position, player);
   }
@@ -25,23 +19,16 @@ public class Rook extends Piece {
     return (this.getPlayer() == Game.Player.WHITE) ? 'R' : 'r';
   }
 
+  public int getType() {
+    return Piece.ROOK;
+  }
+
   public ArrayList<Position> getReach(Board board) {
-    ArrayList<Position> reach = new ArrayList<>();
-    for (Step step : ROOK_MOVES) {
-      Position posAfter = this.getPosition();
-      while (step.applyOn(posAfter).insideBoard()) {
-        posAfter = step.applyOn(posAfter);
-        if (board.isEmpty(posAfter)) {
-          reach.add(posAfter);
-          continue;
-        } else if (board.isOpposite(this.getPlayer(), posAfter)) {
-          reach.add(posAfter);
-          break;
-        }
-        break;
-      }
-    }
-    return reach;
+    Bitboards bitboards = board.getBitboards();
+    int square = this.getPosition().getIndex();
+    long reach =
+        Attacks.rook(square, bitboards.occupied()) & ~bitboards.occupancy(this.getPlayer());
+    return toPositions(reach);
   }
 
   public Piece getCopy() {
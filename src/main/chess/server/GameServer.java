@@ -0,0 +1,252 @@
+package chess.server;
+
+import chess.Game;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implements a TCP server hosting many games at once. Each connection is served by a thread of
+ * its own, a virtual thread where the JVM has them, and any connection may play any game by its
+ * id. A game is only ever used under its own lock, so two connections playing the same game take
+ * turns, while different games are played in parallel.
+ *
+ * <p>The protocol is one request per line, answered by one line starting with "ok" or "error":
+ *
+ * <ul>
+ *   <li>"new" starts a game from the standard position, or "new fen" from a FEN position. The
+ *       answer is "ok id".
+ *   <li>"move id notation" makes a move in algebraic notation. The answer is "ok state", the
+ *       state of the game after the move, such as PLAY or WHITE_WIN.
+ *   <li>"moves id" lists the legal moves: "ok" followed by their notations.
+ *   <li>"state id" answers "ok state fen".
+ *   <li>"end id" removes a game.
+ *   <li>"stats" answers "ok" followed by the metrics of the server, as viewMetrics.
+ *   <li>"quit" closes the connection.
+ * </ul>
+ */
+public class GameServer implements Closeable {
+
+  private ServerSocket serverSocket;
+  private ExecutorService executor;
+  private boolean virtualThreads;
+  private Thread acceptor;
+  private Map<Long, Session> games = new ConcurrentHashMap<>();
+  private Set<Socket> connections = ConcurrentHashMap.newKeySet();
+  private AtomicLong nextId = new AtomicLong(1);
+  private AtomicInteger openConnections = new AtomicInteger();
+  private LongAdder requests = new LongAdder();
+  private LongAdder moves = new LongAdder();
+  private LongAdder moveNanos = new LongAdder();
+  private LongAccumulator maxMoveNanos = new LongAccumulator(Math::max, 0);
+
+  /** A game with the lock under which it is used. */
+  private static class Session {
+    // A lock rather than synchronized, which would pin a virtual thread to its carrier thread.
+    final ReentrantLock lock = new ReentrantLock();
+    final Game game = new Game();
+  }
+
+  /**
+   * Starts a server listening on the loopback address.
+   *
+   * @param port The port, 0 for any free port.
+   * @return The server.
+   * @throws IOException If the port cannot be bound.
+   */
+  public static GameServer start(int port) throws IOException {
+    GameServer server = new GameServer();
+    server.serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+    server.executor = VirtualThreads.newThreadPerTaskExecutor();
+    server.virtualThreads = VirtualThreads.createdVirtualThreads();
+    server.acceptor = new Thread(server::acceptConnections, "GameServer-" + server.getPort());
+    server.acceptor.start();
+    return server;
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /** Stops accepting connections, closes the open ones and waits for the acceptor to stop. */
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    for (Socket socket : connections) {
+      socket.close();
+    }
+    executor.shutdown();
+    try {
+      acceptor.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void acceptConnections() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        socket.setTcpNoDelay(true);
+        connections.add(socket);
+        executor.execute(() -> serve(socket));
+      } catch (IOException e) {
+        // The server socket was closed, or the connection was lost before it was served.
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    openConnections.incrementAndGet();
+    try (BufferedReader in = new BufferedReader(
+        new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+      for (String line = in.readLine(); line != null; line = in.readLine()) {
+        if (line.trim().equals("quit")) {
+          break;
+        }
+        out.write(respond(line.trim()));
+        out.write('\n');
+        out.flush();
+      }
+    } catch (IOException e) {
+      // The client went away, or the server is closing.
+    } finally {
+      connections.remove(socket);
+      openConnections.decrementAndGet();
+      try {
+        socket.close();
+      } catch (IOException e) {
+        // Nothing is left to send on it.
+      }
+    }
+  }
+
+  /**
+   * Answers one request of the protocol.
+   *
+   * @param request The request, without the line break.
+   * @return The answer, without the line break.
+   */
+  String respond(String request) {
+    requests.increment();
+    String[] words = request.split(" ", 3);
+    String command = words[0];
+    if (command.equals("new")) {
+      return newGame((words.length == 1) ? null : request.substring(command.length() + 1));
+    }
+    if (command.equals("stats")) {
+      return "ok " + viewMetrics();
+    }
+    if (words.length < 2) {
+      return "error unknown request";
+    }
+    long id;
+    try {
+      id = Long.parseLong(words[1]);
+    } catch (NumberFormatException e) {
+      return "error invalid game id";
+    }
+    Session session = games.get(id);
+    if (session == null) {
+      return "error no game " + id;
+    }
+    session.lock.lock();
+    try {
+      Game game = session.game;
+      switch (command) {
+        case "move":
+          return (words.length == 3) ? move(game, words[2]) : "error no move given";
+        case "moves":
+          StringBuilder answer = new StringBuilder("ok");
+          for (String notation : game.getLegalMoveNotations()) {
+            answer.append(' ').append(notation);
+          }
+          return answer.toString();
+        case "state":
+          return "ok " + game.getState() + " " + game.toFen();
+        case "end":
+          games.remove(id);
+          return "ok";
+        default:
+          return "error unknown request";
+      }
+    } finally {
+      session.lock.unlock();
+    }
+  }
+
+  private String newGame(String fen) {
+    Session session = new Session();
+    if (fen == null) {
+      session.game.setupStandardBoard();
+      session.game.startGame();
+    } else if (!session.game.startFromFen(fen)) {
+      return "error invalid FEN";
+    }
+    long id = nextId.getAndIncrement();
+    games.put(id, session);
+    return "ok " + id;
+  }
+
+  private String move(Game game, String notation) {
+    long start = System.nanoTime();
+    boolean legal = game.tryMakeMove(notation);
+    long nanos = System.nanoTime() - start;
+    if (!legal) {
+      return "error illegal move " + notation;
+    }
+    moves.increment();
+    moveNanos.add(nanos);
+    maxMoveNanos.accumulate(nanos);
+    return "ok " + game.getState();
+  }
+
+  public int getOpenConnections() {
+    return openConnections.get();
+  }
+
+  public int getOpenGames() {
+    return games.size();
+  }
+
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  public long getMoves() {
+    return moves.sum();
+  }
+
+  /**
+   * Describes the load of the server: open connections and games, the requests and moves so far
+   * and the mean and longest time a move took the rules engine.
+   *
+   * @return The metrics, as "name=value" separated by spaces.
+   */
+  public String viewMetrics() {
+    long moveCount = moves.sum();
+    long meanNanos = (moveCount == 0) ? 0 : moveNanos.sum() / moveCount;
+    return "connections=" + openConnections.get() + " games=" + games.size()
+        + " requests=" + requests.sum() + " moves=" + moveCount
+        + " meanMoveMicros=" + meanNanos / 1000 + " maxMoveMicros=" + maxMoveNanos.get() / 1000
+        + " virtualThreads=" + virtualThreads;
+  }
+}
@@ -0,0 +1,212 @@
+package chess.server;
+
+import chess.Game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implements a load generator for GameServer. Each client opens a connection of its own and plays
+ * games of random legal moves on it, one after the other, so that as many games are in play as
+ * there are clients. The time from sending each move to reading its answer is kept in a
+ * histogram, from which the latency at any quantile can be read.
+ */
+public class LoadGenerator {
+
+  /** The number of plies after which a game is ended, if it has not ended before. */
+  static final int MAX_PLIES = 200;
+
+  // Latencies in microseconds are kept in buckets of 16 per power of two, so within 1/16.
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS;
+
+  private String host;
+  private int port;
+  private LongAdder games = new LongAdder();
+  private LongAdder moves = new LongAdder();
+  private LongAdder errors = new LongAdder();
+  private long[] histogram = new long[BUCKETS];
+  private long nanos;
+
+  /**
+   * Constructor for a load generator.
+   *
+   * @param host The host of the server.
+   * @param port The port of the server.
+   */
+  public LoadGenerator(String host, int port) {
+    this.host = host;
+    this.port = port;
+  }
+
+  /**
+   * Plays games on the server for a given time, then waits for the games in play to end.
+   *
+   * @param clients The number of clients, and so of games in play at once.
+   * @param millis The time to start new games for, in milliseconds.
+   * @throws InterruptedException If interrupted while waiting for the clients.
+   */
+  public void run(int clients, long millis) throws InterruptedException {
+    long start = System.nanoTime();
+    long deadline = start + millis * 1000000;
+    ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor();
+    List<Future<long[]>> results = new ArrayList<>();
+    for (int i = 0; i < clients; i++) {
+      Random random = new Random(i);
+      results.add(executor.submit(() -> playGames(deadline, random)));
+    }
+    executor.shutdown();
+    executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    nanos = System.nanoTime() - start;
+    for (Future<long[]> result : results) {
+      try {
+        long[] clientHistogram = result.get();
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+          histogram[bucket] += clientHistogram[bucket];
+        }
+      } catch (ExecutionException e) {
+        errors.increment();
+      }
+    }
+  }
+
+  /**
+   * Plays games on one connection until the deadline.
+   *
+   * @return The histogram of the latencies of the moves.
+   */
+  private long[] playGames(long deadline, Random random) {
+    long[] clientHistogram = new long[BUCKETS];
+    try (Socket socket = new Socket(host, port);
+        BufferedReader in = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+      socket.setTcpNoDelay(true);
+      while (System.nanoTime() < deadline) {
+        String id = request(in, out, "new");
+        if (id == null) {
+          return clientHistogram;
+        }
+        for (int ply = 0; ply < MAX_PLIES; ply++) {
+          String legal = request(in, out, "moves " + id);
+          if (legal == null || legal.isEmpty()) {
+            break;
+          }
+          String[] notations = legal.split(" ");
+          String move = notations[random.nextInt(notations.length)];
+          long start = System.nanoTime();
+          String state = request(in, out, "move " + id + " " + move);
+          if (state == null) {
+            break;
+          }
+          clientHistogram[bucketOf((System.nanoTime() - start) / 1000)]++;
+          moves.increment();
+          if (!state.equals(Game.State.PLAY.name())) {
+            break;
+          }
+        }
+        request(in, out, "end " + id);
+        games.increment();
+      }
+    } catch (IOException e) {
+      errors.increment();
+    }
+    return clientHistogram;
+  }
+
+  /**
+   * Sends a request and reads its answer.
+   *
+   * @return The answer after "ok" and a space, null if the answer is an error.
+   */
+  private String request(BufferedReader in, Writer out, String request) throws IOException {
+    out.write(request);
+    out.write('\n');
+    out.flush();
+    String answer = in.readLine();
+    if (answer == null) {
+      throw new IOException("Connection closed by the server");
+    }
+    if (!answer.startsWith("ok")) {
+      errors.increment();
+      return null;
+    }
+    return (answer.length() > 2) ? answer.substring(3) : "";
+  }
+
+  private static int bucketOf(long micros) {
+    if (micros < (1 << SUB_BUCKET_BITS)) {
+      return (int) micros;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(micros);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) (micros >>> shift) & ((1 << SUB_BUCKET_BITS) - 1);
+    return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+  }
+
+  /** Calculates the largest latency in microseconds of a bucket. */
+  private static long upperBoundOf(int bucket) {
+    if (bucket < (1 << SUB_BUCKET_BITS)) {
+      return bucket;
+    }
+    int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+    long subBucket = (bucket & ((1 << SUB_BUCKET_BITS) - 1)) | (1 << SUB_BUCKET_BITS);
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+  public long getGames() {
+    return games.sum();
+  }
+
+  public long getMoves() {
+    return moves.sum();
+  }
+
+  /**
+   * Counts the failed requests and connections.
+   *
+   * @return The number of errors, 0 if every move was made.
+   */
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  public long getMovesPerSecond() {
+    return (nanos == 0) ? 0 : moves.sum() * 1000000000 / nanos;
+  }
+
+  /**
+   * Finds the latency of moves at a quantile, to within 1/16.
+   *
+   * @param quantile The quantile, such as 0.99.
+   * @return The latency in microseconds within which that share of the moves were answered.
+   */
+  public long getLatencyMicros(double quantile) {
+    long total = 0;
+    for (long count : histogram) {
+      total += count;
+    }
+    long rank = (long) Math.ceil(quantile * total);
+    long seen = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      seen += histogram[bucket];
+      if (seen >= Math.max(rank, 1)) {
+        return upperBoundOf(bucket);
+      }
+    }
+    return 0;
+  }
+}
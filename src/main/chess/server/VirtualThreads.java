@@ -0,0 +1,47 @@
+package chess.server;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates executors that run each task on a thread of its own. Where the JVM has virtual threads
+ * they are used, so that thousands of connections blocked on reads cost little memory; elsewhere
+ * platform threads are. The virtual thread API is looked up by reflection, as the code keeps to
+ * Java 8.
+ */
+final class VirtualThreads {
+
+  private static volatile boolean created;
+
+  private VirtualThreads() {}
+
+  /**
+   * Creates an executor that starts a new thread for each task.
+   *
+   * @return The executor, of virtual threads if the JVM has them.
+   */
+  static ExecutorService newThreadPerTaskExecutor() {
+    try {
+      ExecutorService executor = (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      created = true;
+      return executor;
+    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+      // The method is missing before Java 19, and throws on Java 19 and 20 without preview
+      // features. An idle platform thread is kept for a minute, then stopped.
+      created = false;
+      return Executors.newCachedThreadPool();
+    }
+  }
+
+  /**
+   * Finds whether the executor newThreadPerTaskExecutor created last runs virtual threads, rather
+   * than whether the JVM merely declares them.
+   *
+   * @return Whether it does, false if no executor was created yet.
+   */
+  static boolean createdVirtualThreads() {
+    return created;
+  }
+}
@@ -0,0 +1,209 @@
+package chess.tablebase;
+
+import chess.Bitboards;
+import chess.Game;
+import chess.piece.Piece;
+
+/**
+ * Implements a set of pieces a tablebase covers, such as "KQK" for king and queen against king.
+ * The pieces of White come first, then those of Black, each side starting with its king and going
+ * on from the strongest piece to the weakest. A tablebase covers the side with the stronger pieces
+ * as White, and a position with the colours the other way round is looked up mirrored.
+ *
+ * <p>A position is indexed by the squares of the pieces, in the order of the name, and the side to
+ * move: ((square0 * 64 + square1) * 64 + ...) * 2 + the ordinal of the side to move. Pieces of the
+ * same kind may come in either order, so each such position has more than one index.
+ */
+final class Material {
+
+  static final int MAX_PIECES = 4;
+
+  private static final String SYMBOLS = "KQRBNP";
+  private static final int[] VALUES = {0, 9, 5, 3, 3, 1};
+  private static final int[] TYPES = {
+      Piece.KING, Piece.QUEEN, Piece.ROOK, Piece.BISHOP, Piece.KNIGHT, Piece.PAWN};
+
+  private String name;
+  private int[] codes;
+  private long signature;
+
+  private Material(String name, int[] codes) {
+    this.name = name;
+    this.codes = codes;
+    for (int code : codes) {
+      signature += 1L << (4 * code);
+    }
+  }
+
+  /**
+   * Parses a set of pieces, and turns it so that the stronger side is White.
+   *
+   * @param name The pieces, such as "KBNK", each side starting with its king.
+   * @return The set of pieces.
+   * @throws IllegalArgumentException If the name is not a set of pieces a tablebase can cover.
+   */
+  static Material parse(String name) {
+    int blackKing = name.indexOf('K', 1);
+    if (!name.startsWith("K") || blackKing < 0 || name.indexOf('K', blackKing + 1) >= 0
+        || name.length() > MAX_PIECES) {
+      throw new IllegalArgumentException("Invalid material " + name);
+    }
+    String white = sortSide(name.substring(0, blackKing), name);
+    String black = sortSide(name.substring(blackKing), name);
+    if (compareSides(white, black) < 0) {
+      String stronger = black;
+      black = white;
+      white = stronger;
+    }
+    int[] codes = new int[name.length()];
+    for (int i = 0; i < codes.length; i++) {
+      boolean isWhite = i < white.length();
+      char symbol = isWhite ? white.charAt(i) : black.charAt(i - white.length());
+      codes[i] = Bitboards.code(
+          TYPES[SYMBOLS.indexOf(symbol)], isWhite ? Game.Player.WHITE : Game.Player.BLACK);
+    }
+    return new Material(white + black, codes);
+  }
+
+  private static String sortSide(String side, String name) {
+    char[] symbols = side.toCharArray();
+    for (char symbol : symbols) {
+      if (SYMBOLS.indexOf(symbol) < 0) {
+        throw new IllegalArgumentException("Invalid material " + name);
+      }
+    }
+    // Sorting by the order of SYMBOLS, which puts the king first.
+    StringBuilder sorted = new StringBuilder();
+    for (int i = 0; i < SYMBOLS.length(); i++) {
+      for (char symbol : symbols) {
+        if (symbol == SYMBOLS.charAt(i)) {
+          sorted.append(symbol);
+        }
+      }
+    }
+    return sorted.toString();
+  }
+
+  private static int compareSides(String first, String second) {
+    int difference = value(first) - value(second);
+    if (difference != 0) {
+      return difference;
+    }
+    for (int i = 0; i < Math.min(first.length(), second.length()); i++) {
+      difference = SYMBOLS.indexOf(second.charAt(i)) - SYMBOLS.indexOf(first.charAt(i));
+      if (difference != 0) {
+        return difference;
+      }
+    }
+    return first.length() - second.length();
+  }
+
+  private static int value(String side) {
+    int value = 0;
+    for (int i = 0; i < side.length(); i++) {
+      value += VALUES[SYMBOLS.indexOf(side.charAt(i))];
+    }
+    return value;
+  }
+
+  /**
+   * Names a set of pieces given by their piece codes.
+   *
+   * @param codes The piece codes, in any order, with one king of each side.
+   * @return The name, which parse accepts.
+   */
+  static String nameOf(int[] codes) {
+    StringBuilder white = new StringBuilder("K");
+    StringBuilder black = new StringBuilder("K");
+    for (int code : codes) {
+      if (Bitboards.typeOf(code) != Piece.KING) {
+        StringBuilder side = (Bitboards.playerOf(code) == Game.Player.WHITE) ? white : black;
+        side.append(SYMBOLS.charAt(indexOfType(Bitboards.typeOf(code))));
+      }
+    }
+    return white.append(black).toString();
+  }
+
+  private static int indexOfType(int type) {
+    for (int i = 0; ; i++) {
+      if (TYPES[i] == type) {
+        return i;
+      }
+    }
+  }
+
+  /**
+   * Calculates the signature of the pieces on a board: the number of pieces of each piece code, 4
+   * bits each. Two positions have the same signature if and only if they have the same pieces.
+   *
+   * @param pieces The squares of the pieces of each piece code.
+   * @return The signature.
+   */
+  static long signatureOf(long[] pieces) {
+    long signature = 0;
+    for (int code = 0; code < pieces.length; code++) {
+      signature += (long) Long.bitCount(pieces[code]) << (4 * code);
+    }
+    return signature;
+  }
+
+  /**
+   * Calculates the signature of a set of pieces with the colours swapped.
+   *
+   * @param signature The signature.
+   * @return The signature of the same pieces for the other sides.
+   */
+  static long mirror(long signature) {
+    // Piece codes differ from those of the other colour in their lowest bit.
+    return ((signature & 0x0F0F0F0F0F0FL) << 4) | ((signature >>> 4) & 0x0F0F0F0F0F0FL);
+  }
+
+  String getName() {
+    return name;
+  }
+
+  long getSignature() {
+    return signature;
+  }
+
+  int getPieceCount() {
+    return codes.length;
+  }
+
+  int getCode(int slot) {
+    return codes[slot];
+  }
+
+  long getPositionCount() {
+    return 2L << (6 * codes.length);
+  }
+
+  /**
+   * Calculates the index of a position with these pieces.
+   *
+   * @param pieces The squares of the pieces of each piece code.
+   * @param sideToMove The side to move.
+   * @param mirrored Whether the position has the colours swapped, and the board upside down,
+   *     compared to the tablebase.
+   * @return The index.
+   */
+  long indexOf(long[] pieces, Game.Player sideToMove, boolean mirrored) {
+    long index = 0;
+    long remaining = 0;
+    for (int slot = 0; slot < codes.length; slot++) {
+      if (slot == 0 || codes[slot] != codes[slot - 1]) {
+        remaining = pieces[mirrored ? codes[slot] ^ 1 : codes[slot]];
+      }
+      int square = Long.numberOfTrailingZeros(remaining);
+      remaining &= remaining - 1;
+      index = index * 64 + (mirrored ? square ^ 56 : square);
+    }
+    boolean white = (sideToMove == Game.Player.WHITE) != mirrored;
+    return index * 2 + (white ? Game.Player.WHITE : Game.Player.BLACK).ordinal();
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
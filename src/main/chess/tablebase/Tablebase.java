@@ -0,0 +1,215 @@
+package chess.tablebase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Implements the tablebase of one set of pieces, see Material: for every position, whether the
+ * side to move wins, draws or loses with best play, and for wins and losses the number of plies
+ * until mate. Positions are without castling rights and en passant captures, and the fifty-move
+ * rule is not taken into account.
+ *
+ * <p>A tablebase file starts with a header of 16 bytes: the bytes "DCTB", a version int and the
+ * name of the set of pieces in ASCII, padded with zeros to 8 bytes. Then follows the outcome of
+ * each position in 2 bits, four positions to a byte from the lowest bits up: 0 for a draw, 1 for
+ * a win, 2 for a loss and 3 for an index that is not a legal position. Last comes the distance to
+ * mate of each position in a byte, 0 for draws. Looking up a position reads one byte of either
+ * table, at an offset computed from its index.
+ */
+public class Tablebase {
+
+  public static final int LOSS = -1;
+  public static final int DRAW = 0;
+  public static final int WIN = 1;
+
+  static final int MAGIC = 0x44435442;
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 16;
+
+  private static final int NAME_BYTES = 8;
+  private static final int CODE_DRAW = 0;
+  private static final int CODE_WIN = 1;
+  private static final int CODE_LOSS = 2;
+  private static final int CODE_ILLEGAL = 3;
+  // The places of the outcome codes in the counts of countOutcomes.
+  private static final int[] OUTCOME_ORDER = {1, 0, 2, 3};
+
+  private Material material;
+  private ByteBuffer outcomes;
+  private ByteBuffer distances;
+
+  private Tablebase(Material material, ByteBuffer outcomes, ByteBuffer distances) {
+    this.material = material;
+    this.outcomes = outcomes;
+    this.distances = distances;
+  }
+
+  /**
+   * Builds a tablebase from the values of its positions, as found by TablebaseGenerator.
+   *
+   * @param material The set of pieces.
+   * @param values For each position, 0 for a draw, ILLEGAL for an index that is not a legal
+   *     position and otherwise the number of plies to mate plus 1, which is odd for losses.
+   * @return The tablebase.
+   */
+  static Tablebase fromValues(Material material, byte[] values) {
+    byte[] outcomes = new byte[(values.length + 3) / 4];
+    byte[] distances = new byte[values.length];
+    for (int index = 0; index < values.length; index++) {
+      int value = values[index] & 0xFF;
+      int code;
+      if (value == TablebaseGenerator.ILLEGAL) {
+        code = CODE_ILLEGAL;
+      } else if (value == 0) {
+        code = CODE_DRAW;
+      } else {
+        code = (value % 2 == 0) ? CODE_WIN : CODE_LOSS;
+        distances[index] = (byte) (value - 1);
+      }
+      outcomes[index >>> 2] |= (byte) (code << (2 * (index & 3)));
+    }
+    return new Tablebase(material, ByteBuffer.wrap(outcomes), ByteBuffer.wrap(distances));
+  }
+
+  /**
+   * Opens a tablebase file for lookups. The file is mapped into memory rather than read.
+   *
+   * @param path The path of the file, as written by write.
+   * @return The tablebase.
+   * @throws IOException If the file cannot be read or is not a tablebase.
+   */
+  public static Tablebase open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      channel.read(header, 0);
+      header.flip();
+      Material material = null;
+      if (header.remaining() == HEADER_BYTES
+          && header.getInt() == MAGIC && header.getInt() == VERSION) {
+        byte[] name = new byte[NAME_BYTES];
+        header.get(name);
+        try {
+          material = Material.parse(new String(name, StandardCharsets.US_ASCII).trim());
+        } catch (IllegalArgumentException e) {
+          material = null;
+        }
+      }
+      long positions = (material == null) ? 0 : material.getPositionCount();
+      if (material == null || size != HEADER_BYTES + (positions + 3) / 4 + positions) {
+        throw new IOException("Not a tablebase: " + path);
+      }
+      // The mappings stay valid after the channel is closed.
+      ByteBuffer outcomes =
+          channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, (positions + 3) / 4);
+      ByteBuffer distances = channel.map(
+          FileChannel.MapMode.READ_ONLY, HEADER_BYTES + (positions + 3) / 4, positions);
+      return new Tablebase(material, outcomes, distances);
+    }
+  }
+
+  /**
+   * Writes the tablebase to a file, replacing any file of that name.
+   *
+   * @param path The path of the file.
+   * @throws IOException If the file cannot be written.
+   */
+  public void write(Path path) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    header.putInt(MAGIC).putInt(VERSION);
+    header.put(material.getName().getBytes(StandardCharsets.US_ASCII));
+    header.position(HEADER_BYTES).flip();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer[] buffers = {header, outcomes.duplicate(), distances.duplicate()};
+      for (ByteBuffer buffer : buffers) {
+        buffer.rewind();
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      }
+    }
+  }
+
+  public String getName() {
+    return material.getName();
+  }
+
+  Material getMaterial() {
+    return material;
+  }
+
+  private int outcomeCode(long index) {
+    return (outcomes.get((int) (index >>> 2)) >>> (2 * (int) (index & 3))) & 3;
+  }
+
+  /**
+   * Looks up the outcome of a position.
+   *
+   * @param index The index of the position, see Material.
+   * @return WIN, DRAW or LOSS for the side to move, DRAW if the index is not a legal position.
+   */
+  int outcome(long index) {
+    switch (outcomeCode(index)) {
+      case CODE_WIN:
+        return WIN;
+      case CODE_LOSS:
+        return LOSS;
+      default:
+        return DRAW;
+    }
+  }
+
+  /**
+   * Looks up the distance to mate of a position.
+   *
+   * @param index The index of the position, see Material.
+   * @return The number of plies until mate with best play, 0 for a draw.
+   */
+  int distance(long index) {
+    return distances.get((int) index) & 0xFF;
+  }
+
+  /**
+   * Looks up the value of a position as TablebaseGenerator keeps it.
+   *
+   * @param index The index of the position, see Material.
+   * @return 0 for a draw, otherwise the number of plies to mate plus 1.
+   */
+  int value(long index) {
+    int code = outcomeCode(index);
+    return (code == CODE_WIN || code == CODE_LOSS) ? distance(index) + 1 : 0;
+  }
+
+  /**
+   * Counts the positions of each outcome.
+   *
+   * @return The numbers of wins, draws, losses and indices of illegal positions, for the side to
+   *     move.
+   */
+  public long[] countOutcomes() {
+    long[] counts = new long[4];
+    long positions = material.getPositionCount();
+    for (long index = 0; index < positions; index++) {
+      counts[OUTCOME_ORDER[outcomeCode(index)]]++;
+    }
+    return counts;
+  }
+
+  /**
+   * Finds the longest distance to mate.
+   *
+   * @return The largest number of plies to mate of any position.
+   */
+  public int getMaxDistance() {
+    int max = 0;
+    for (int index = 0; index < distances.capacity(); index++) {
+      max = Math.max(max, distances.get(index) & 0xFF);
+    }
+    return max;
+  }
+}
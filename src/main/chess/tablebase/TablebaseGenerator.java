@@ -0,0 +1,520 @@
+package chess.tablebase;
+
+import chess.Attacks;
+import chess.Bitboards;
+import chess.Game;
+import chess.piece.Piece;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Implements the generation of tablebases by retrograde analysis, on a fork/join pool. The
+ * tablebases of the sets of pieces a capture or a promotion leads to are generated first, down to
+ * the bare kings, so that moves leaving the set of pieces can be looked up.
+ *
+ * <p>Each position has a value: 0 while it is not known to be won or lost, which at the end means
+ * a draw, and otherwise the number of plies to mate plus 1. The first pass finds the checkmates,
+ * which are lost in 0 plies. Each level after that finds the positions that mate in one more ply:
+ * at odd levels those with a move to a position lost at the level before, and at even levels
+ * those all of whose moves lead to positions won by then. Rather than looking at every position,
+ * a level looks only at the positions a move of the level before can be taken back to, and at
+ * those whose moves leaving the set of pieces decide them at that level.
+ *
+ * <p>Every pass splits the positions into ranges that are handled in parallel. A pass only writes
+ * the values of the positions of its own range, and reads values settled by earlier passes, so the
+ * tasks need no locks; the candidates a level is to look at are marked by writing the same byte
+ * from any task.
+ */
+public class TablebaseGenerator {
+
+  /** The value of an index that is not a legal position. */
+  static final int ILLEGAL = 0xFF;
+
+  // How many positions one task handles without splitting.
+  private static final int RANGE_SIZE = 1 << 14;
+  // More than any position with at most four pieces has.
+  private static final int MAX_MOVES = 128;
+
+  private interface RangeAction {
+    long run(int from, int to);
+  }
+
+  private ForkJoinPool pool;
+  private Tablebases tablebases;
+
+  /**
+   * Constructor for a generator without tablebases.
+   *
+   * @param parallelism The number of threads of the pool.
+   */
+  public TablebaseGenerator(int parallelism) {
+    this(parallelism, new Tablebases());
+  }
+
+  /**
+   * Constructor for a generator that adds to tablebases found before.
+   *
+   * @param parallelism The number of threads of the pool.
+   * @param tablebases The tablebases, to which the generated ones are added.
+   */
+  public TablebaseGenerator(int parallelism, Tablebases tablebases) {
+    this.pool = new ForkJoinPool(parallelism);
+    this.tablebases = tablebases;
+  }
+
+  public Tablebases getTablebases() {
+    return tablebases;
+  }
+
+  /**
+   * Generates the tablebase of a set of pieces, and those it depends on, unless they are already
+   * there.
+   *
+   * @param name The set of pieces, such as "KRK", at most four including the kings.
+   * @return The tablebase.
+   * @throws IllegalArgumentException If the name is not a set of pieces a tablebase can cover.
+   */
+  public Tablebase generate(String name) {
+    Material material = Material.parse(name);
+    Tablebase tablebase = tablebases.get(material.getSignature());
+    if (tablebase != null) {
+      return tablebase;
+    }
+    for (String successor : successors(material)) {
+      generate(successor);
+    }
+    tablebase = new Retrograde(material).run();
+    tablebases.add(tablebase);
+    return tablebase;
+  }
+
+  /** Stops the threads of the pool. */
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  /** Lists the sets of pieces a capture or a promotion leads to. */
+  private static List<String> successors(Material material) {
+    List<String> successors = new ArrayList<>();
+    int[] codes = new int[material.getPieceCount()];
+    for (int slot = 0; slot < codes.length; slot++) {
+      codes[slot] = material.getCode(slot);
+    }
+    for (int slot = 0; slot < codes.length; slot++) {
+      int type = Bitboards.typeOf(codes[slot]);
+      if (type == Piece.KING) {
+        continue;
+      }
+      int[] captured = new int[codes.length - 1];
+      for (int i = 0, j = 0; i < codes.length; i++) {
+        if (i != slot) {
+          captured[j++] = codes[i];
+        }
+      }
+      successors.add(Material.nameOf(captured));
+      if (type == Piece.PAWN) {
+        for (int promoted = Piece.KNIGHT; promoted <= Piece.QUEEN; promoted++) {
+          int[] promotion = codes.clone();
+          promotion[slot] = Bitboards.code(promoted, Bitboards.playerOf(codes[slot]));
+          successors.add(Material.nameOf(promotion));
+        }
+      }
+    }
+    return successors;
+  }
+
+  private long forEachRange(int count, RangeAction action) {
+    return pool.invoke(new RangeTask(action, 0, count));
+  }
+
+  /** Runs an action over a range of positions, splitting it in halves while it is large. */
+  private static class RangeTask extends RecursiveTask<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    private RangeAction action;
+    private int from;
+    private int to;
+
+    RangeTask(RangeAction action, int from, int to) {
+      this.action = action;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Long compute() {
+      if (to - from <= RANGE_SIZE) {
+        return action.run(from, to);
+      }
+      int middle = (from + to) >>> 1;
+      RangeTask second = new RangeTask(action, middle, to);
+      second.fork();
+      long first = new RangeTask(action, from, middle).compute();
+      return first + second.join();
+    }
+  }
+
+  /** Holds the values of the positions of one set of pieces while they are found. */
+  private final class Retrograde {
+
+    private Material material;
+    private int pieceCount;
+    private byte[] values;
+    // The level at which moves leaving the set of pieces decide a position, 0 if none do.
+    private byte[] decidedAt;
+    private byte[] candidates;
+    // The tablebases moves leaving the set of pieces lead to, by signature of their pieces.
+    private long[] successorSignatures;
+    private Tablebase[] successorTablebases;
+    private boolean[] successorsMirrored;
+
+    Retrograde(Material material) {
+      this.material = material;
+      this.pieceCount = material.getPieceCount();
+      int positions = (int) material.getPositionCount();
+      values = new byte[positions];
+      decidedAt = new byte[positions];
+      candidates = new byte[positions];
+      List<String> successors = successors(material);
+      successorSignatures = new long[2 * successors.size()];
+      successorTablebases = new Tablebase[successorSignatures.length];
+      successorsMirrored = new boolean[successorSignatures.length];
+      for (int i = 0; i < successors.size(); i++) {
+        Tablebase tablebase = tablebases.get(successors.get(i));
+        long signature = tablebase.getMaterial().getSignature();
+        successorSignatures[2 * i] = signature;
+        successorTablebases[2 * i] = tablebase;
+        successorSignatures[2 * i + 1] = Material.mirror(signature);
+        successorTablebases[2 * i + 1] = tablebase;
+        successorsMirrored[2 * i + 1] = true;
+      }
+    }
+
+    Tablebase run() {
+      int positions = values.length;
+      LongAccumulator lastDecidedAt = new LongAccumulator(Math::max, 0);
+      forEachRange(positions, (from, to) -> {
+        Position position = new Position();
+        for (int index = from; index < to; index++) {
+          lastDecidedAt.accumulate(position.initialize(index));
+        }
+        return 0;
+      });
+      for (int level = 1; level < ILLEGAL - 1; level++) {
+        int previous = level;
+        forEachRange(positions, (from, to) -> {
+          Position position = new Position();
+          for (int index = from; index < to; index++) {
+            if ((values[index] & 0xFF) == previous) {
+              position.markPredecessors(index);
+            }
+          }
+          return 0;
+        });
+        int current = level;
+        long found = forEachRange(positions, (from, to) -> {
+          Position position = new Position();
+          long count = 0;
+          for (int index = from; index < to; index++) {
+            if (candidates[index] != 0 || (decidedAt[index] & 0xFF) == current) {
+              candidates[index] = 0;
+              if (values[index] == 0 && position.isDecidedAt(index, current)) {
+                values[index] = (byte) (current + 1);
+                count++;
+              }
+            }
+          }
+          return count;
+        });
+        if (found == 0 && level >= lastDecidedAt.get()) {
+          break;
+        }
+      }
+      return Tablebase.fromValues(material, values);
+    }
+
+    /** Decodes positions and generates their moves, with space of its own for one thread. */
+    private final class Position {
+
+      private int[] squares = new int[pieceCount];
+      private long occupied;
+      private Game.Player sideToMove;
+      private int[] childValues = new int[MAX_MOVES];
+      private boolean[] childLeaves = new boolean[MAX_MOVES];
+      private long[] successorPieces = new long[2 * (Piece.KING + 1)];
+
+      /**
+       * Decodes a position.
+       *
+       * @return Whether the position is legal: no two pieces on a square, no pawn on the first or
+       *     last rank and the side that just moved not in check.
+       */
+      private boolean decode(int index) {
+        sideToMove = ((index & 1) == Game.Player.WHITE.ordinal())
+            ? Game.Player.WHITE : Game.Player.BLACK;
+        occupied = 0;
+        boolean legal = true;
+        for (int slot = pieceCount - 1, rest = index >>> 1; slot >= 0; slot--, rest >>>= 6) {
+          int square = rest & 63;
+          squares[slot] = square;
+          legal &= (occupied & Attacks.bit(square)) == 0;
+          occupied |= Attacks.bit(square);
+          if (Bitboards.typeOf(material.getCode(slot)) == Piece.PAWN) {
+            legal &= square >= 8 && square < 56;
+          }
+        }
+        return legal && !isInCheck(Game.otherPlayer(sideToMove), -1);
+      }
+
+      private int encode(Game.Player player) {
+        int index = 0;
+        for (int slot = 0; slot < pieceCount; slot++) {
+          index = index * 64 + squares[slot];
+        }
+        return index * 2 + player.ordinal();
+      }
+
+      private int kingSlot(Game.Player player) {
+        return (player == Game.Player.WHITE) ? 0 : slotOf(Bitboards.code(Piece.KING, player));
+      }
+
+      private int slotOf(int code) {
+        for (int slot = 0; ; slot++) {
+          if (material.getCode(slot) == code) {
+            return slot;
+          }
+        }
+      }
+
+      /**
+       * Calculates whether the king of a player is attacked.
+       *
+       * @param player The player.
+       * @param captured The slot of a piece that is taken off the board, -1 if none.
+       * @return Whether the king is in check.
+       */
+      private boolean isInCheck(Game.Player player, int captured) {
+        int king = squares[kingSlot(player)];
+        for (int slot = 0; slot < pieceCount; slot++) {
+          int code = material.getCode(slot);
+          if (slot == captured || Bitboards.playerOf(code) == player) {
+            continue;
+          }
+          int type = Bitboards.typeOf(code);
+          long attacks = (type == Piece.PAWN)
+              ? Attacks.pawn(squares[slot], Bitboards.playerOf(code))
+              : Attacks.forPiece(type, squares[slot], occupied);
+          if ((attacks & Attacks.bit(king)) != 0) {
+            return true;
+          }
+        }
+        return false;
+      }
+
+      private int slotAt(int square) {
+        for (int slot = 0; slot < pieceCount; slot++) {
+          if (squares[slot] == square) {
+            return slot;
+          }
+        }
+        return -1;
+      }
+
+      /**
+       * Generates the legal moves of the decoded position, and looks up the value of the position
+       * each leads to, from the point of view of the side to move there.
+       *
+       * @return The number of moves.
+       */
+      private int generateChildren() {
+        int count = 0;
+        long own = 0;
+        for (int slot = 0; slot < pieceCount; slot++) {
+          if (Bitboards.playerOf(material.getCode(slot)) == sideToMove) {
+            own |= Attacks.bit(squares[slot]);
+          }
+        }
+        for (int slot = 0; slot < pieceCount; slot++) {
+          int code = material.getCode(slot);
+          if (Bitboards.playerOf(code) != sideToMove) {
+            continue;
+          }
+          int from = squares[slot];
+          int type = Bitboards.typeOf(code);
+          long targets;
+          if (type == Piece.PAWN) {
+            targets = Attacks.pawn(from, sideToMove) & occupied & ~own;
+            int step = (sideToMove == Game.Player.WHITE) ? 8 : -8;
+            if ((occupied & Attacks.bit(from + step)) == 0) {
+              targets |= Attacks.bit(from + step);
+              int startRank = (sideToMove == Game.Player.WHITE) ? 1 : 6;
+              if (from / 8 == startRank && (occupied & Attacks.bit(from + 2 * step)) == 0) {
+                targets |= Attacks.bit(from + 2 * step);
+              }
+            }
+          } else {
+            targets = Attacks.forPiece(type, from, occupied) & ~own;
+          }
+          for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int captured = slotAt(to);
+            long before = occupied;
+            occupied = (occupied & ~Attacks.bit(from)) | Attacks.bit(to);
+            squares[slot] = to;
+            if (!isInCheck(sideToMove, captured)) {
+              if (type == Piece.PAWN && (to < 8 || to >= 56)) {
+                for (int promoted = Piece.KNIGHT; promoted <= Piece.QUEEN; promoted++) {
+                  childLeaves[count] = true;
+                  childValues[count++] =
+                      successorValue(captured, slot, Bitboards.code(promoted, sideToMove));
+                }
+              } else if (captured >= 0) {
+                childLeaves[count] = true;
+                childValues[count++] = successorValue(captured, slot, code);
+              } else {
+                childLeaves[count] = false;
+                childValues[count++] = values[encode(Game.otherPlayer(sideToMove))] & 0xFF;
+              }
+            }
+            squares[slot] = from;
+            occupied = before;
+          }
+        }
+        return count;
+      }
+
+      /**
+       * Looks up the value of the position a move leaving the set of pieces leads to, with the
+       * piece moved already on its target square.
+       *
+       * @param captured The slot of the piece captured, -1 if none.
+       * @param moved The slot of the piece moved.
+       * @param code The piece code of the moved piece after the move.
+       * @return The value, from the point of view of the side to move after the move.
+       */
+      private int successorValue(int captured, int moved, int code) {
+        Arrays.fill(successorPieces, 0);
+        for (int slot = 0; slot < pieceCount; slot++) {
+          if (slot != captured) {
+            int pieceCode = (slot == moved) ? code : material.getCode(slot);
+            successorPieces[pieceCode] |= Attacks.bit(squares[slot]);
+          }
+        }
+        long signature = Material.signatureOf(successorPieces);
+        for (int i = 0; ; i++) {
+          if (successorSignatures[i] == signature) {
+            Tablebase tablebase = successorTablebases[i];
+            return tablebase.value(tablebase.getMaterial().indexOf(
+                successorPieces, Game.otherPlayer(sideToMove), successorsMirrored[i]));
+          }
+        }
+      }
+
+      /**
+       * Sets the value of a position if it is illegal or mate, and the level at which moves
+       * leaving the set of pieces decide it.
+       *
+       * @return The level, 0 if there is none.
+       */
+      long initialize(int index) {
+        if (!decode(index)) {
+          values[index] = (byte) ILLEGAL;
+          return 0;
+        }
+        int count = generateChildren();
+        if (count == 0) {
+          // Mate is lost in 0 plies, and stalemate stays a draw.
+          values[index] = (byte) (isInCheck(sideToMove, -1) ? 1 : 0);
+          return 0;
+        }
+        int fastestWin = Integer.MAX_VALUE;
+        int slowestLoss = 0;
+        boolean canDraw = false;
+        for (int i = 0; i < count; i++) {
+          if (childLeaves[i]) {
+            int value = childValues[i];
+            if (value == 0) {
+              canDraw = true;
+            } else if (value % 2 == 1) {
+              // The position moved to is lost in value - 1 plies, so this one is won in value.
+              fastestWin = Math.min(fastestWin, value);
+            } else {
+              slowestLoss = Math.max(slowestLoss, value);
+            }
+          }
+        }
+        int level = 0;
+        if (fastestWin != Integer.MAX_VALUE) {
+          level = fastestWin;
+        } else if (!canDraw) {
+          level = slowestLoss;
+        }
+        decidedAt[index] = (byte) level;
+        return level;
+      }
+
+      /** Marks the positions from which a move of the side that just moved leads to this one. */
+      void markPredecessors(int index) {
+        decode(index);
+        Game.Player mover = Game.otherPlayer(sideToMove);
+        for (int slot = 0; slot < pieceCount; slot++) {
+          int code = material.getCode(slot);
+          if (Bitboards.playerOf(code) != mover) {
+            continue;
+          }
+          int to = squares[slot];
+          int type = Bitboards.typeOf(code);
+          long origins;
+          if (type == Piece.PAWN) {
+            origins = 0;
+            int step = (mover == Game.Player.WHITE) ? 8 : -8;
+            int from = to - step;
+            if (from >= 8 && from < 56 && (occupied & Attacks.bit(from)) == 0) {
+              origins |= Attacks.bit(from);
+              int doubleStepRank = (mover == Game.Player.WHITE) ? 3 : 4;
+              if (to / 8 == doubleStepRank && (occupied & Attacks.bit(from - step)) == 0) {
+                origins |= Attacks.bit(from - step);
+              }
+            }
+          } else {
+            origins = Attacks.forPiece(type, to, occupied) & ~occupied;
+          }
+          for (; origins != 0; origins &= origins - 1) {
+            squares[slot] = Long.numberOfTrailingZeros(origins);
+            candidates[encode(mover)] = 1;
+          }
+          squares[slot] = to;
+        }
+      }
+
+      /**
+       * Calculates whether a position not yet won or lost is decided at a level: won at an odd
+       * level by a move to a position lost by then, lost at an even level if all its moves lead
+       * to positions won by then.
+       */
+      boolean isDecidedAt(int index, int level) {
+        decode(index);
+        int count = generateChildren();
+        boolean winning = level % 2 == 1;
+        for (int i = 0; i < count; i++) {
+          int value = childValues[i];
+          boolean settled = value != 0 && value <= level;
+          boolean lost = settled && value % 2 == 1;
+          if (winning && lost) {
+            return true;
+          }
+          if (!winning && (!settled || lost)) {
+            return false;
+          }
+        }
+        return !winning && count > 0;
+      }
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package chess.tablebase;
+
+import chess.Bitboards;
+import chess.Board;
+import chess.Game;
+import chess.piece.Piece;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implements lookups of positions on boards in a collection of tablebases. The tablebase of a
+ * position is found by the signature of its pieces, either as they are or with the colours
+ * swapped, and the position is then found by its index, so a lookup takes the same few steps
+ * whatever the size of the tablebases.
+ */
+public class Tablebases {
+
+  public static final String FILE_SUFFIX = ".dctb";
+
+  /** The result of a lookup of a position no tablebase covers. */
+  public static final int UNKNOWN = Integer.MIN_VALUE;
+
+  private Map<Long, Tablebase> bySignature = new HashMap<>();
+
+  /** Constructor for a collection without tablebases. */
+  public Tablebases() {}
+
+  /**
+   * Opens the tablebase files of a directory, those whose names end in FILE_SUFFIX.
+   *
+   * @param directory The directory.
+   * @return The collection.
+   * @throws IOException If a file cannot be read or is not a tablebase.
+   */
+  public static Tablebases open(Path directory) throws IOException {
+    Tablebases tablebases = new Tablebases();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+      for (Path file : files) {
+        tablebases.add(Tablebase.open(file));
+      }
+    }
+    return tablebases;
+  }
+
+  public void add(Tablebase tablebase) {
+    bySignature.put(tablebase.getMaterial().getSignature(), tablebase);
+  }
+
+  /**
+   * Finds the tablebase of a set of pieces, with the stronger side as White.
+   *
+   * @param name The set of pieces, such as "KQK".
+   * @return The tablebase, null if there is none.
+   * @throws IllegalArgumentException If the name is not a set of pieces a tablebase can cover.
+   */
+  public Tablebase get(String name) {
+    return bySignature.get(Material.parse(name).getSignature());
+  }
+
+  Tablebase get(long signature) {
+    return bySignature.get(signature);
+  }
+
+  public List<Tablebase> getTablebases() {
+    return new ArrayList<>(bySignature.values());
+  }
+
+  /**
+   * Looks up the outcome of the position of a board.
+   *
+   * @param board The board.
+   * @return Tablebase.WIN, DRAW or LOSS for the side to move, UNKNOWN if no tablebase covers the
+   *     position, as when it has too many pieces or castling rights or en passant is possible.
+   */
+  public int probeOutcome(Board board) {
+    return outcomeOf(probe(board));
+  }
+
+  /**
+   * Looks up the distance to mate of the position of a board.
+   *
+   * @param board The board.
+   * @return The number of plies until mate with best play, 0 for a draw or a position that is
+   *     already mate, UNKNOWN if no tablebase covers the position.
+   */
+  public int probeDistance(Board board) {
+    return distanceOf(probe(board));
+  }
+
+  /**
+   * Looks up the value of the position of a board, from which outcomeOf and distanceOf decode the
+   * outcome and the distance to mate. Callers that need both look the position up only once.
+   *
+   * @param board The board.
+   * @return The value as in Tablebase.value, UNKNOWN if no tablebase covers the position.
+   */
+  public int probe(Board board) {
+    Bitboards bitboards = board.getBitboards();
+    if (Long.bitCount(bitboards.occupied()) > Material.MAX_PIECES
+        || board.getCastlingRights() != 0 || board.getEnPassantSquare() >= 0) {
+      return UNKNOWN;
+    }
+    long[] pieces = new long[2 * (Piece.KING + 1)];
+    for (Game.Player player : Game.Player.values()) {
+      for (int type = Piece.PAWN; type <= Piece.KING; type++) {
+        pieces[Bitboards.code(type, player)] = bitboards.pieces(type, player);
+      }
+    }
+    long signature = Material.signatureOf(pieces);
+    Tablebase tablebase = bySignature.get(signature);
+    boolean mirrored = false;
+    if (tablebase == null) {
+      tablebase = bySignature.get(Material.mirror(signature));
+      mirrored = true;
+    }
+    if (tablebase == null) {
+      return UNKNOWN;
+    }
+    return tablebase.value(
+        tablebase.getMaterial().indexOf(pieces, board.getSideToMove(), mirrored));
+  }
+
+  /**
+   * Decodes the outcome from a value found by probe.
+   *
+   * @param value The value.
+   * @return Tablebase.WIN, DRAW or LOSS for the side to move, UNKNOWN if the value is.
+   */
+  public static int outcomeOf(int value) {
+    if (value <= 0) {
+      return (value == UNKNOWN) ? UNKNOWN : Tablebase.DRAW;
+    }
+    // The side to move wins after an odd number of plies, its own move being the last.
+    return ((value - 1) % 2 == 1) ? Tablebase.WIN : Tablebase.LOSS;
+  }
+
+  /**
+   * Decodes the distance to mate from a value found by probe.
+   *
+   * @param value The value.
+   * @return The number of plies until mate with best play, 0 for a draw, UNKNOWN if the value is.
+   */
+  public static int distanceOf(int value) {
+    if (value <= 0) {
+      return (value == UNKNOWN) ? UNKNOWN : 0;
+    }
+    return value - 1;
+  }
+}
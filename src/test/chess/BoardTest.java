@@ -0,0 +1,244 @@
+package chess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import chess.move.Castling;
+import chess.move.EnPassant;
+import chess.move.Move;
+import chess.move.MoveList;
+import chess.move.PackedMove;
+import chess.move.Promotion;
+import chess.piece.Piece;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BoardTest {
+
+  private Board board;
+
+  private void place(String position, char asciiPiece) {
+    board.placePiece(Piece.createPiece(new Position(position), asciiPiece));
+  }
+
+  private void assertUndoRestores(Move move) {
+    String before = board.viewBoard();
+    long key = board.getKey();
+    move.applyTo(board);
+    assertNotEquals(before, board.viewBoard());
+    move.undoFrom(board);
+    assertEquals(before, board.viewBoard());
+    assertEquals(key, board.getKey());
+    assertNull(board.getHistory().getLastMove());
+  }
+
+  @Test
+  public void undoCapture() {
+    board = new Board();
+    place("e1", 'K');
+    place("e8", 'k');
+    place("a1", 'R');
+    place("a8", 'n');
+    assertUndoRestores(new Move(new Position("a1"), new Position("a8")));
+  }
+
+  @Test
+  public void undoCastling() {
+    board = new Board();
+    place("e1", 'K');
+    place("h1", 'R');
+    place("e8", 'k');
+    assertUndoRestores(new Castling(
+        new Position("e1"), new Position("g1"), new Position("h1"), new Position("f1"), false));
+  }
+
+  @Test
+  public void undoEnPassant() {
+    board = new Board();
+    place("e1", 'K');
+    place("e8", 'k');
+    place("e5", 'P');
+    place("d5", 'p');
+    assertUndoRestores(new EnPassant(new Position("e5"), new Position("d6"), new Position("d5")));
+  }
+
+  @Test
+  public void undoPromotion() {
+    board = new Board();
+    place("e1", 'K');
+    place("e8", 'k');
+    place("b7", 'P');
+    place("a8", 'r');
+    assertUndoRestores(new Promotion(new Position("b7"), new Position("a8"), 'Q'));
+  }
+
+  @Test
+  public void keyOfTransposition() {
+    Game game = new Game();
+    game.setupStandardBoard();
+    game.startGame();
+    long startKey = game.getBoard().getKey();
+    game.tryMakeMove("e4");
+    game.tryMakeMove("e5");
+    game.tryMakeMove("Nf3");
+    game.tryMakeMove("Nc6");
+    assertNotEquals(startKey, game.getBoard().getKey());
+
+    Game transposed = new Game();
+    transposed.setupStandardBoard();
+    transposed.startGame();
+    assertEquals(startKey, transposed.getBoard().getKey());
+    transposed.tryMakeMove("Nf3");
+    transposed.tryMakeMove("Nc6");
+    transposed.tryMakeMove("e4");
+    assertNotEquals(game.getBoard().getKey(), transposed.getBoard().getKey());
+    transposed.tryMakeMove("e5");
+    assertEquals(game.getBoard().getKey(), transposed.getBoard().getKey());
+  }
+
+  @Test
+  public void packedMovesMatchMoveViews() {
+    board = new Board();
+    place("e1", 'K');
+    place("a1", 'R');
+    place("e8", 'k');
+    place("b7", 'P');
+    place("a8", 'r');
+    board.resetCastlingRights();
+    MoveList packedMoves = new MoveList();
+    board.generateMoves(Game.Player.WHITE, packedMoves);
+    assertEquals(board.getMoves(Game.Player.WHITE).size(), packedMoves.size());
+    for (int i = 0; i < packedMoves.size(); i++) {
+      Move move = Move.createMove(packedMoves.get(i));
+      assertEquals(packedMoves.get(i), move.encode());
+      assertUndoRestores(move);
+    }
+    Move castling = Move.createMove(
+        new Position("e1"), new Position("c1"), board.getMoves(Game.Player.WHITE));
+    assertTrue(castling instanceof Castling);
+  }
+
+  @Test
+  public void pieceMovesFollowBoardState() {
+    Game game = new Game();
+    game.setupStandardBoard();
+    game.startGame();
+    for (String move : new String[] {"e4", "a6", "Nf3", "a5", "Bc4", "a4", "e5", "d5"}) {
+      game.tryMakeMove(move);
+    }
+    board = game.getBoard();
+    int pieceMoves = 0;
+    boolean enPassant = false;
+    boolean castling = false;
+    for (Piece piece : board.getPieces(Game.Player.WHITE)) {
+      for (Move move : piece.getMoves(board)) {
+        pieceMoves++;
+        enPassant |= move instanceof EnPassant;
+        castling |= move instanceof Castling;
+      }
+    }
+    assertEquals(board.getMoves(Game.Player.WHITE).size(), pieceMoves);
+    assertTrue(enPassant);
+    assertTrue(castling);
+  }
+
+  @Test
+  public void hasMovesAgreesWithGeneratedMoves() {
+    String[] fens = {
+      Fen.STARTING_POSITION,
+      // Mate, stalemate and a double check only the king can answer.
+      "k7/1Q6/1K6/8/8/8/8/8 b - - 0 1",
+      "k7/2Q5/1K6/8/8/8/8/8 b - - 0 1",
+      "3Qr2k/8/8/8/8/3n4/8/4K3 w - - 0 1",
+      // The only legal move is an en passant capture.
+      "8/8/4p3/3pP3/8/8/5q2/k6K w - d6 0 1",
+      // Only a pinned piece can move, along its pin.
+      "7q/8/8/8/8/1p6/1B1n4/K6k w - - 0 1"
+    };
+    MoveList moves = new MoveList();
+    for (String fen : fens) {
+      board = Board.fromFen(fen);
+      board.generateMoves(board.getSideToMove(), moves);
+      assertEquals(fen, !moves.isEmpty(), board.hasMoves(board.getSideToMove()));
+    }
+    board = Board.fromFen("8/8/4p3/3pP3/8/8/5q2/k6K w - d6 0 1");
+    board.generateMoves(board.getSideToMove(), moves);
+    assertEquals(1, moves.size());
+    assertEquals(PackedMove.EN_PASSANT, PackedMove.kind(moves.get(0)));
+
+    // Along random games, including their ends.
+    Random random = new Random(2018);
+    for (int game = 0; game < 20; game++) {
+      board = Board.fromFen(Fen.STARTING_POSITION);
+      for (int ply = 0; ply < 200; ply++) {
+        board.generateMoves(board.getSideToMove(), moves);
+        assertEquals(!moves.isEmpty(), board.hasMoves(board.getSideToMove()));
+        if (moves.isEmpty()) {
+          break;
+        }
+        board.makeMove(moves.get(random.nextInt(moves.size())));
+      }
+    }
+  }
+
+  @Test
+  public void generatesCapturesAndPromotions() {
+    MoveList moves = new MoveList();
+    MoveList captures = new MoveList();
+    Random random = new Random(2018);
+    String[] fens = {
+      Fen.STARTING_POSITION,
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+      // Promotions by pushing and by capturing, and an en passant capture.
+      "1n5k/P7/8/3pP3/8/8/8/K7 w - d6 0 1"
+    };
+    for (String fen : fens) {
+      board = Board.fromFen(fen);
+      for (int ply = 0; ply < 100; ply++) {
+        Game.Player player = board.getSideToMove();
+        board.generateMoves(player, moves);
+        board.generateCaptures(player, captures);
+        int expected = 0;
+        for (int i = 0; i < moves.size(); i++) {
+          if (board.inCheck(player) || !MoveOrdering.isQuiet(board.getBitboards(), moves.get(i))) {
+            assertTrue(board.toFen(), captures.contains(moves.get(i)));
+            expected++;
+          }
+        }
+        assertEquals(board.toFen(), expected, captures.size());
+        if (moves.isEmpty()) {
+          break;
+        }
+        board.makeMove(moves.get(random.nextInt(moves.size())));
+      }
+    }
+  }
+
+  @Test
+  public void findsRepetitionsSinceLastPawnMove() {
+    Game game = new Game();
+    game.setupStandardBoard();
+    game.startGame();
+    board = game.getBoard();
+    History history = board.getHistory();
+    for (String move : new String[] {"Nf3", "Nf6", "Ng1", "Ng8"}) {
+      game.tryMakeMove(move);
+    }
+    assertTrue(history.isRepetition(board.getKey(), board.getHalfmoveClock()));
+    // The same knight moves after pawn moves repeat the position after the pawn moves, but the
+    // search must not look further back than the halfmove clock.
+    for (String move : new String[] {"e4", "e5", "Nf3", "Nf6", "Ng1", "Ng8"}) {
+      game.tryMakeMove(move);
+    }
+    assertEquals(4, board.getHalfmoveClock());
+    assertTrue(history.isRepetition(board.getKey(), board.getHalfmoveClock()));
+    assertFalse(history.isRepetition(board.getKey(), 3));
+    game.tryMakeMove("Nc3");
+    assertFalse(history.isRepetition(board.getKey(), board.getHalfmoveClock()));
+  }
+}
@@ -0,0 +1,109 @@
+package chess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FenTest {
+
+  private static final String[] POSITIONS = {
+      Fen.STARTING_POSITION,
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+      "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+      "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+      "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+      "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+      "4k3/8/8/8/3pP3/8/8/4K3 b - e3 0 40"
+  };
+
+  @Test
+  public void roundTrip() {
+    for (String fen : POSITIONS) {
+      assertEquals(fen, Board.fromFen(fen).toFen());
+    }
+  }
+
+  @Test
+  public void matchesPositionReachedByMoves() {
+    Game game = new Game();
+    game.setupStandardBoard();
+    game.startGame();
+    assertEquals(Fen.STARTING_POSITION, game.toFen());
+    game.tryMakeMove("e4");
+    game.tryMakeMove("Nf6");
+    game.tryMakeMove("e5");
+    game.tryMakeMove("d5");
+    String fen = "rnbqkb1r/ppp1pppp/5n2/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3";
+    assertEquals(fen, game.toFen());
+    assertEquals(game.getBoard().getKey(), Board.fromFen(fen).getKey());
+    game.tryMakeMove("Nf3");
+    game.tryMakeMove("Ng8");
+    assertEquals("rnbqkbnr/ppp1pppp/8/3pP3/8/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 4", game.toFen());
+  }
+
+  @Test
+  public void countersAreRestoredByUnmake() {
+    Board board = Board.fromFen("4k3/8/8/8/8/8/4P3/4K2R w K - 12 30");
+    board.makeMove(board.getMoves(Game.Player.WHITE).get(0).encode());
+    board.unmakeMove();
+    assertEquals("4k3/8/8/8/8/8/4P3/4K2R w K - 12 30", board.toFen());
+  }
+
+  @Test
+  public void optionalCounters() {
+    Board board = Board.fromFen("4k3/8/8/8/8/8/8/4K3 b - -");
+    assertSame(Game.Player.BLACK, board.getSideToMove());
+    assertEquals("4k3/8/8/8/8/8/8/4K3 b - - 0 1", board.toFen());
+  }
+
+  @Test
+  public void uncapturableEnPassantSquareIsDropped() {
+    Board board = Board.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+    assertEquals(-1, board.getEnPassantSquare());
+    assertEquals(Board.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1")
+        .getKey(), board.getKey());
+  }
+
+  @Test
+  public void invalidFen() {
+    String[] invalid = {
+        "",
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+        "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "rnbqkbnr/ppppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "rnbqkbnx/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkx - 0 1",
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - x 1",
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 2"
+    };
+    for (String fen : invalid) {
+      try {
+        Board.fromFen(fen);
+        throw new AssertionError("Accepted " + fen);
+      } catch (IllegalArgumentException e) {
+        assertTrue(e.getMessage().startsWith("Invalid FEN"));
+      }
+      assertFalse(new Game().startFromFen(fen));
+    }
+  }
+
+  @Test
+  public void gameFromFen() {
+    Game game = new Game();
+    assertFalse(game.startFromFen("8/8/8/8/8/8/8/4K3 w - - 0 1"));
+    assertTrue(game.startFromFen("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 5 20"));
+    assertSame(Game.Player.BLACK, game.getCurrentPlayer());
+    assertTrue(game.tryMakeMove("O-O"));
+    assertEquals("r4rk1/8/8/8/8/8/8/R3K2R w KQ - 6 21", game.toFen());
+    assertFalse(game.startFromFen(Fen.STARTING_POSITION));
+
+    Game mated = new Game();
+    assertTrue(mated.startFromFen("k7/1Q6/1K6/8/8/8/8/8 b - - 0 1"));
+    assertEquals(Game.State.WHITE_WIN, mated.getState());
+  }
+}
@@ -5,6 +5,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import chess.move.Move;
+
 import java.util.ArrayList;
 
 import org.junit.Test;
@@ -72,6 +74,20 @@ public class GameTest {
     ArrayList<Position> reach7 = game.whereCanItMoveTo(new Position("g1"));
   }
 
+  @Test
+  public void stalemate() {
+    game = new Game();
+    game.placePiece(new Position("a8"), 'k');
+    game.placePiece(new Position("c6"), 'K');
+    game.placePiece(new Position("b1"), 'Q');
+    game.startGame();
+    assertEquals(7, game.whereCanItMoveTo(new Position("c6")).size());
+    assertTrue(game.tryMakeMove("Qb6"));
+    assertEquals(Game.State.DRAW, game.getState());
+    assertTrue(game.whereCanItMoveTo(new Position("a8")).isEmpty());
+    assertFalse(game.tryMakeMove("Ka7"));
+  }
+
   @Test
   public void movingWithPositions() {
     game = new Game();
@@ -82,4 +98,62 @@ public class GameTest {
     assertFalse(game.tryMakeMove(new Position(6,4), new Position(4, 4)));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void notationVariants() {
+    game = new Game();
+    game.setupStandardBoard();
+    game.startGame();
+    assertTrue(game.tryMakeMove("e4"));
+    assertTrue(game.tryMakeMove("e5"));
+    assertTrue(game.tryMakeMove("Nf3"));
+    assertTrue(game.tryMakeMove("Nc6"));
+    assertTrue(game.tryMakeMove("Bc4"));
+    assertTrue(game.tryMakeMove("Nf6"));
+    assertFalse(game.tryMakeMove("Ne5"));
+    assertFalse(game.tryMakeMove("xe5"));
+    assertTrue(game.tryMakeMove("O-O"));
+    assertTrue(game.tryMakeMove("Nxe4"));
+    assertTrue(game.tryMakeMove("Bxf7+"));
+    assertTrue(game.tryMakeMove("Kxf7"));
+    assertEquals(
+            "r.bq.b.r\npppp.kpp\n..n.....\n....p...\n....n...\n.....N..\nPPPP.PPP\nRNBQ.RK.\n",
+            game.viewBoard());
+  }
+
+  @Test
+  public void disambiguationAndPromotion() {
+    game = new Game();
+    game.placePiece(new Position("a1"), 'K');
+    game.placePiece(new Position("h8"), 'k');
+    game.placePiece(new Position("b1"), 'N');
+    game.placePiece(new Position("f1"), 'N');
+    game.placePiece(new Position("b7"), 'P');
+    game.startGame();
+    assertFalse(game.tryMakeMove("Nd2"));
+    assertTrue(game.tryMakeMove("Nfd2"));
+    assertTrue(game.tryMakeMove("Kg8"));
+    assertFalse(game.tryMakeMove("b8"));
+    assertTrue(game.tryMakeMove("b8=N"));
+    assertEquals('N', game.getBoard().atPosition(new Position("b8")).toAsciiSymbol());
+  }
+
+  @Test
+  public void legalMoveNotations() {
+    game = new Game();
+    game.setupStandardBoard();
+    game.startGame();
+    game.tryMakeMove("f3");
+    game.tryMakeMove("e5");
+    game.tryMakeMove("g4");
+    ArrayList<String> notations = game.getLegalMoveNotations();
+    assertEquals(30, notations.size());
+    assertTrue(notations.contains("Qh4#"));
+    Board board = game.getBoard();
+    ArrayList<Move> legalMoves = board.getMoves(game.getCurrentPlayer());
+    for (int i = 0; i < legalMoves.size(); i++) {
+      assertEquals(legalMoves.get(i).getNotation(legalMoves, board), notations.get(i));
+      assertSame(legalMoves.get(i), Move.createMove(notations.get(i), legalMoves, board));
+    }
+  }
+
+}
@@ -0,0 +1,56 @@
+package chess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import chess.move.MoveList;
+import chess.move.PackedMove;
+
+import org.junit.Test;
+
+public class MoveOrderingTest {
+
+  private static int square(String notation) {
+    return new Position(notation).getIndex();
+  }
+
+  @Test
+  public void stages() {
+    Game game = new Game();
+    game.placePiece(new Position("e1"), 'K');
+    game.placePiece(new Position("e8"), 'k');
+    game.placePiece(new Position("d1"), 'Q');
+    game.placePiece(new Position("c3"), 'P');
+    game.placePiece(new Position("d4"), 'q');
+    game.placePiece(new Position("g7"), 'P');
+    game.placePiece(new Position("h1"), 'N');
+    game.startGame();
+    Board board = game.getBoard();
+    MoveOrdering ordering = new MoveOrdering();
+    int quiet = PackedMove.encode(square("h1"), square("g3"));
+    int killer = PackedMove.encode(square("h1"), square("f2"));
+    ordering.addCutoff(board, killer, 3, 2);
+    int hashMove = PackedMove.encode(square("e1"), square("f1"));
+
+    MoveList moves = new MoveList();
+    board.generateOrderedMoves(Game.Player.WHITE, moves, ordering, 3, hashMove);
+    assertEquals(hashMove, moves.pickBest(0));
+    // The pawn takes the queen before the queen does, and both before the promotions.
+    assertEquals(PackedMove.encode(square("c3"), square("d4")), moves.pickBest(1));
+    assertEquals(PackedMove.encode(square("d1"), square("d4")), moves.pickBest(2));
+    assertEquals(
+        PackedMove.promotion(square("g7"), square("g8"), Bitboards.codeOf('Q')), moves.pickBest(3));
+    for (int i = 4; i < 7; i++) {
+      moves.pickBest(i);
+    }
+    assertEquals(killer, moves.pickBest(7));
+
+    int previous = Integer.MAX_VALUE;
+    for (int i = 0; i < moves.size(); i++) {
+      moves.pickBest(i);
+      assertTrue(moves.getScore(i) <= previous);
+      previous = moves.getScore(i);
+    }
+    assertTrue(moves.contains(quiet));
+  }
+}
@@ -0,0 +1,79 @@
+package chess;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/** Compares perft counts with the published counts of the standard reference positions. */
+public class PerftTest {
+
+  private static void assertPerft(String name, Board board, long... expected) {
+    Perft perft = new Perft();
+    for (int depth = 1; depth <= expected.length; depth++) {
+      String before = board.viewBoard();
+      long key = board.getKey();
+      assertEquals(name + " depth " + depth, expected[depth - 1], perft.perft(board, depth));
+      assertEquals(before, board.viewBoard());
+      assertEquals(key, board.getKey());
+    }
+    System.out.println(name + ": " + perft.getNodesPerSecond() + " nodes per second");
+  }
+
+  @Test
+  public void startingPosition() {
+    Board board = Board.fromFen(Fen.STARTING_POSITION);
+    assertPerft("Starting position", board, 20, 400, 8902, 197281);
+  }
+
+  @Test
+  public void kiwipete() {
+    Board board =
+        Board.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -");
+    assertPerft("Kiwipete", board, 48, 2039, 97862);
+  }
+
+  @Test
+  public void rookEndgame() {
+    Board board = Board.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -");
+    assertPerft("Rook endgame", board, 14, 191, 2812, 43238);
+  }
+
+  @Test
+  public void promotions() {
+    Board board =
+        Board.fromFen("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+    assertPerft("Promotions", board, 6, 264, 9467);
+  }
+
+  @Test
+  public void discoveredChecks() {
+    Board board = Board.fromFen("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8");
+    assertPerft("Discovered checks", board, 44, 1486, 62379);
+  }
+
+  @Test
+  public void middlegame() {
+    Board board =
+        Board.fromFen(
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+    assertPerft("Middlegame", board, 46, 2079, 89890);
+  }
+
+  @Test
+  public void parallel() {
+    Board board =
+        Board.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -");
+    String before = board.viewBoard();
+    ParallelPerft perft = new ParallelPerft(4);
+    assertEquals(97862, perft.perft(board, 3));
+    assertEquals(48, perft.divide(board, 1).size());
+    assertEquals(before, board.viewBoard());
+    perft.shutdown();
+
+    ParallelPerft hashed = new ParallelPerft(4, new PerftTable(1));
+    assertEquals(197281, hashed.perft(Board.fromFen(Fen.STARTING_POSITION), 4));
+    assertEquals(4085603, hashed.perft(board, 4));
+    System.out.println("Parallel kiwipete: " + hashed.getNodesPerSecond() + " nodes per second");
+    hashed.shutdown();
+  }
+}
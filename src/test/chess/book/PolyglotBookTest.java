@@ -0,0 +1,145 @@
+package chess.book;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import chess.Board;
+import chess.Fen;
+import chess.io.GameRecord;
+import chess.io.IllegalMoveException;
+import chess.io.PgnGame;
+import chess.io.PgnReader;
+import chess.move.MoveList;
+import chess.move.PackedMove;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PolyglotBookTest {
+
+  private static final String GAMES = ""
+      + "1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 4. Ba4 Nf6 5. O-O Be7 1-0\n"
+      + "\n"
+      + "1. e4 e5 2. Nf3 Nc6 3. Bc4 Bc5 1/2-1/2\n"
+      + "\n"
+      + "1. d4 d5 2. c4 e6 0-1\n"
+      + "\n"
+      + "1. e4 c5 2. Nf3 d6 1-0\n";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static List<GameRecord> records() throws IOException, IllegalMoveException {
+    PgnReader reader = new PgnReader(Channels.newChannel(
+        new ByteArrayInputStream(GAMES.getBytes(StandardCharsets.UTF_8))));
+    List<GameRecord> records = new ArrayList<>();
+    for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+      records.add(game.toRecord());
+    }
+    return records;
+  }
+
+  @Test
+  public void keysMatchPolyglot() {
+    // The keys given with the specification of the format.
+    assertEquals(0x463b96181691fc9cL,
+        PolyglotKey.of(Board.fromFen(Fen.STARTING_POSITION)));
+    assertEquals(0x823c9b50fd114196L, PolyglotKey.of(Board.fromFen(
+        "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1")));
+    assertEquals(0x0756b94461c50fb0L, PolyglotKey.of(Board.fromFen(
+        "rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2")));
+    assertEquals(0x662fafb965db29d4L, PolyglotKey.of(Board.fromFen(
+        "rnbqkbnr/ppp1pppp/8/3pP3/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 2")));
+    assertEquals(0x22a48b5a8e47ff78L, PolyglotKey.of(Board.fromFen(
+        "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3")));
+    assertEquals(0x652a607ca3f242c1L, PolyglotKey.of(Board.fromFen(
+        "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR b kq - 0 3")));
+    assertEquals(0x00fdd303c946bdd9L, PolyglotKey.of(Board.fromFen(
+        "rnbq1bnr/ppp1pkpp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR w - - 0 4")));
+    assertEquals(0x3c8123ea7b067637L, PolyglotKey.of(Board.fromFen(
+        "rnbqkbnr/p1pppppp/8/8/PpP4P/8/1P1PPPP1/RNBQKBNR b KQkq c3 0 3")));
+    assertEquals(0x5c3f9b829b279560L, PolyglotKey.of(Board.fromFen(
+        "rnbqkbnr/p1pppppp/8/8/P6P/R1p5/1P1PPPP1/1NBQKBNR b Kkq - 0 4")));
+  }
+
+  @Test
+  public void buildsAndProbesBook() throws IOException, IllegalMoveException {
+    List<GameRecord> games = records();
+    PolyglotBookBuilder builder = new PolyglotBookBuilder(10);
+    for (GameRecord game : games) {
+      builder.add(game);
+    }
+    Path path = folder.getRoot().toPath().resolve("book.bin");
+    builder.write(path);
+    assertEquals(builder.getEntryCount() * PolyglotBook.ENTRY_BYTES, Files.size(path));
+
+    try (PolyglotBook book = PolyglotBook.open(path)) {
+      assertEquals(builder.getEntryCount(), book.getEntryCount());
+      MoveList moves = new MoveList();
+      Board board = Board.fromFen(Fen.STARTING_POSITION);
+      // 1. e4 won twice and drew once, 1. d4 lost once.
+      assertEquals(5, book.probe(board, moves));
+      assertEquals(1, moves.size());
+      assertEquals(games.get(0).getMove(0), moves.get(0));
+      assertEquals(5, moves.getScore(0));
+      assertEquals(1, book.count(PolyglotKey.of(board)));
+
+      // Black lost with 1... e5 and 1... c5, and drew with 1... e5.
+      board.makeMove(games.get(0).getMove(0));
+      assertEquals(1, book.probe(board, moves));
+      assertEquals(games.get(0).getMove(1), moves.get(0));
+
+      // Castling is stored as the king taking its rook, and read back as castling.
+      Board castling = games.get(0).createInitialBoard();
+      for (int ply = 0; ply < 8; ply++) {
+        castling.makeMove(games.get(0).getMove(ply));
+      }
+      int move = book.pick(castling, moves, new Random(1));
+      assertEquals(PackedMove.CASTLING, PackedMove.kind(move));
+      assertEquals(games.get(0).getMove(8), move);
+
+      // The position after the last move is past the depth of the book.
+      Board deep = games.get(0).replay();
+      assertEquals(0, book.probe(deep, moves));
+      assertTrue(moves.isEmpty());
+      assertEquals(PackedMove.NONE, book.pick(deep, moves, new Random(1)));
+    }
+  }
+
+  @Test
+  public void picksByWeight() throws IOException {
+    Board board = Board.fromFen(Fen.STARTING_POSITION);
+    MoveList legal = new MoveList();
+    board.generateMoves(board.getSideToMove(), legal);
+    PolyglotBookBuilder builder = new PolyglotBookBuilder(1);
+    // Three wins for the first legal move and one for the second.
+    for (int i = 0; i < 4; i++) {
+      builder.add(new GameRecord(new HashMap<>(), "1-0", new int[] {legal.get((i < 3) ? 0 : 1)}));
+    }
+    Path path = folder.getRoot().toPath().resolve("weights.bin");
+    builder.write(path);
+    try (PolyglotBook book = PolyglotBook.open(path)) {
+      MoveList moves = new MoveList();
+      Random random = new Random(2018);
+      int first = 0;
+      for (int i = 0; i < 4000; i++) {
+        if (book.pick(board, moves, random) == legal.get(0)) {
+          first++;
+        }
+      }
+      assertTrue("first move picked " + first + " times", first > 2800 && first < 3200);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package chess.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import chess.Bitboards;
+import chess.Board;
+import chess.Game;
+import chess.PieceSquareTables;
+import chess.Position;
+import chess.move.MoveList;
+
+import org.junit.Test;
+
+public class EvaluatorTest {
+
+  private static void assertScoresMatchRebuilt(Bitboards bitboards) {
+    Bitboards rebuilt = new Bitboards();
+    for (int square = 0; square < 64; square++) {
+      if (bitboards.pieceAt(square) != Bitboards.EMPTY) {
+        rebuilt.put(square, bitboards.pieceAt(square));
+      }
+    }
+    assertEquals(rebuilt.getMiddlegameScore(), bitboards.getMiddlegameScore());
+    assertEquals(rebuilt.getEndgameScore(), bitboards.getEndgameScore());
+    assertEquals(rebuilt.getPhase(), bitboards.getPhase());
+  }
+
+  /** Walks two plies deep through every move, checking the totals at each step. */
+  private static void walk(Board board, int depth) {
+    assertScoresMatchRebuilt(board.getBitboards());
+    if (depth == 0) {
+      return;
+    }
+    MoveList moves = new MoveList();
+    board.generateMoves(board.getSideToMove(), moves);
+    for (int i = 0; i < moves.size(); i++) {
+      board.makeMove(moves.get(i));
+      walk(board, depth - 1);
+      board.unmakeMove();
+    }
+  }
+
+  @Test
+  public void startingPositionIsEven() {
+    Game game = new Game();
+    game.setupStandardBoard();
+    game.startGame();
+    assertEquals(0, Evaluator.evaluate(game.getBoard()));
+    assertEquals(PieceSquareTables.MAX_PHASE, game.getBoard().getBitboards().getPhase());
+    game.tryMakeMove("e4");
+    assertTrue(Evaluator.evaluate(game.getBoard()) < 0);
+  }
+
+  @Test
+  public void incrementalScoresMatchRebuiltScores() {
+    Game game = new Game();
+    String[] rows = {"r...k..r", "Pppp.ppp", ".b...nbN", "nP......",
+        "BBP.P...", "q....N..", "Pp.P..PP", "R..Q.RK."};
+    for (int i = 0; i < rows.length; i++) {
+      for (int file = 0; file < rows[i].length(); file++) {
+        char symbol = rows[i].charAt(file);
+        if (symbol != '.') {
+          game.placePiece(new Position(7 - i, file), symbol);
+        }
+      }
+    }
+    game.startGame();
+    walk(game.getBoard(), 2);
+  }
+
+  @Test
+  public void mirroredPositionsScoreAlike() {
+    Game white = new Game();
+    white.placePiece(new Position("e1"), 'K');
+    white.placePiece(new Position("e8"), 'k');
+    white.placePiece(new Position("d4"), 'N');
+    white.placePiece(new Position("b7"), 'P');
+    white.startGame();
+
+    Game black = new Game();
+    black.placePiece(new Position("e8"), 'k');
+    black.placePiece(new Position("e1"), 'K');
+    black.placePiece(new Position("d5"), 'n');
+    black.placePiece(new Position("b2"), 'p');
+    black.startGame();
+    black.getBoard().setSideToMove(Game.Player.BLACK);
+    assertEquals(Evaluator.evaluate(white.getBoard()), Evaluator.evaluate(black.getBoard()));
+  }
+}
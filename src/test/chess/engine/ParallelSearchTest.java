@@ -0,0 +1,47 @@
+package chess.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import chess.Game;
+import chess.Position;
+
+import org.junit.Test;
+
+public class ParallelSearchTest {
+
+  @Test
+  public void agreesWithSingleThread() {
+    Game game = new Game();
+    game.placePiece(new Position("e1"), 'K');
+    game.placePiece(new Position("d1"), 'R');
+    game.placePiece(new Position("e8"), 'k');
+    game.placePiece(new Position("d5"), 'q');
+    game.placePiece(new Position("a7"), 'p');
+    game.startGame();
+    String before = game.viewBoard();
+    long key = game.getBoard().getKey();
+
+    ParallelSearch search = new ParallelSearch(3, new TranspositionTable(4));
+    search.setMaxDepth(4);
+    SearchResult result = search.search(game.getBoard());
+    assertEquals("d1d5", result.getBestMove().getCoordinateNotation());
+    assertEquals(4, result.getDepth());
+    assertTrue(result.getNodes() > 0);
+    assertEquals(before, game.viewBoard());
+    assertEquals(key, game.getBoard().getKey());
+  }
+
+  @Test
+  public void stopsAtTimeLimit() {
+    Game game = new Game();
+    game.setupStandardBoard();
+    game.startGame();
+    ParallelSearch search = new ParallelSearch(2, new TranspositionTable(4));
+    search.setTimeLimit(200);
+    long start = System.nanoTime();
+    SearchResult result = search.search(game.getBoard());
+    assertTrue(System.nanoTime() - start < 2000000000L);
+    assertTrue(result.getBestMove() != null);
+  }
+}
@@ -0,0 +1,118 @@
+package chess.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import chess.Board;
+import chess.Fen;
+import chess.Game;
+import chess.Position;
+import chess.move.Move;
+
+import org.junit.Test;
+
+public class SearchTest {
+
+  private Game game;
+
+  private void place(String position, char asciiPiece) {
+    game.placePiece(new Position(position), asciiPiece);
+  }
+
+  @Test
+  public void mateInOne() {
+    game = new Game();
+    place("g1", 'K');
+    place("a1", 'R');
+    place("g8", 'k');
+    place("f7", 'p');
+    place("g7", 'p');
+    place("h7", 'p');
+    game.startGame();
+    Search search = new Search();
+    search.setMaxDepth(4);
+    SearchResult result = search.search(game.getBoard());
+    assertEquals("a1a8", result.viewPrincipalVariation());
+    assertTrue(result.isMate());
+    assertEquals(Search.MATE - 1, result.getScore());
+  }
+
+  @Test
+  public void winsHangingQueen() {
+    game = new Game();
+    place("e1", 'K');
+    place("d1", 'R');
+    place("e8", 'k');
+    place("d5", 'q');
+    game.startGame();
+    String before = game.viewBoard();
+    long key = game.getBoard().getKey();
+    Search search = new Search();
+    search.setMaxDepth(3);
+    SearchResult result = search.search(game.getBoard());
+    assertEquals("d1d5", result.getBestMove().getCoordinateNotation());
+    assertEquals(3, result.getDepth());
+    assertEquals(before, game.viewBoard());
+    assertEquals(key, game.getBoard().getKey());
+  }
+
+  @Test
+  public void stopsAtNodeLimit() {
+    game = new Game();
+    game.setupStandardBoard();
+    game.startGame();
+    Search search = new Search();
+    search.setNodeLimit(5000);
+    SearchResult result = search.search(game.getBoard());
+    assertTrue(result.getNodes() <= 5000);
+    assertTrue(result.getDepth() >= 1);
+    Move best = result.getBestMove();
+    assertTrue(game.tryMakeMove(best.getPosBefore(), best.getPosAfter()));
+  }
+
+  @Test
+  public void noMoves() {
+    game = new Game();
+    place("a8", 'k');
+    place("c7", 'K');
+    place("b6", 'Q');
+    game.startGame();
+    Board board = game.getBoard();
+    board.setSideToMove(Game.Player.BLACK);
+    SearchResult result = new Search().search(board);
+    assertNull(result.getBestMove());
+    assertEquals(0, result.getScore());
+  }
+
+  @Test
+  public void avoidsDefendedPawn() {
+    game = new Game();
+    place("g1", 'K');
+    place("d1", 'Q');
+    place("g8", 'k');
+    place("d5", 'p');
+    place("e6", 'p');
+    game.startGame();
+    Search search = new Search();
+    search.setMaxDepth(1);
+    SearchResult result = search.search(game.getBoard());
+    assertTrue(!result.getBestMove().getCoordinateNotation().equals("d1d5"));
+    assertTrue(result.getScore() > 0);
+  }
+
+  @Test
+  public void principalVariationReachesDepthThroughTableHits() {
+    TranspositionTable table = new TranspositionTable(16);
+    Board board = Board.fromFen(Fen.STARTING_POSITION);
+    Search first = new Search(table);
+    first.setMaxDepth(5);
+    assertEquals(5, first.search(board).getPrincipalVariation().size());
+    // A second search finds exact entries below the root, and still reports the whole variation.
+    Search second = new Search(table);
+    second.setMaxDepth(5);
+    SearchResult result = second.search(board);
+    assertEquals(5, result.getPrincipalVariation().size());
+    assertEquals(Fen.STARTING_POSITION, board.toFen());
+  }
+}
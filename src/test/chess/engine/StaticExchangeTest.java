@@ -0,0 +1,57 @@
+package chess.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import chess.Board;
+import chess.Position;
+import chess.move.PackedMove;
+import chess.piece.Piece;
+
+import org.junit.Test;
+
+public class StaticExchangeTest {
+
+  private Board board;
+
+  private void place(String position, char asciiPiece) {
+    board.placePiece(Piece.createPiece(new Position(position), asciiPiece));
+  }
+
+  private int exchange(String from, String to) {
+    int move = PackedMove.encode(new Position(from).getIndex(), new Position(to).getIndex());
+    return new StaticExchange().evaluate(board.getBitboards(), move);
+  }
+
+  @Test
+  public void undefendedPiece() {
+    board = new Board();
+    place("e1", 'R');
+    place("e5", 'p');
+    assertEquals(100, exchange("e1", "e5"));
+  }
+
+  @Test
+  public void defendedPiece() {
+    board = new Board();
+    place("e1", 'R');
+    place("e5", 'p');
+    place("d6", 'p');
+    assertEquals(100 - 500, exchange("e1", "e5"));
+    place("d4", 'N');
+    // NxP, PxN and RxP.
+    assertEquals(100 - 320 + 100, exchange("d4", "e5"));
+  }
+
+  @Test
+  public void xrayAttackers() {
+    board = new Board();
+    place("e1", 'R');
+    place("e2", 'R');
+    place("e5", 'n');
+    place("e8", 'r');
+    // RxN, RxR, RxR: the second white rook joins once the first has left.
+    assertEquals(320, exchange("e2", "e5"));
+    place("f6", 'p');
+    assertEquals(320 - 500, exchange("e2", "e5"));
+  }
+}
@@ -0,0 +1,44 @@
+package chess.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import chess.move.PackedMove;
+
+import org.junit.Test;
+
+public class TranspositionTableTest {
+
+  @Test
+  public void storeAndProbe() {
+    TranspositionTable table = new TranspositionTable(1);
+    int move = PackedMove.promotion(52, 60, 9);
+    table.store(0x1234567890ABCDEFL, 7, TranspositionTable.UPPER_BOUND, -Search.MATE + 3, move);
+    long entry = table.probe(0x1234567890ABCDEFL);
+    assertEquals(move, TranspositionTable.move(entry));
+    assertEquals(-Search.MATE + 3, TranspositionTable.score(entry));
+    assertEquals(7, TranspositionTable.depth(entry));
+    assertEquals(TranspositionTable.UPPER_BOUND, TranspositionTable.bound(entry));
+    assertEquals(0, table.probe(0x1234567890ABCDEEL));
+    assertEquals(0.5, table.getHitRate(), 0);
+  }
+
+  @Test
+  public void deepResultsStay() {
+    TranspositionTable table = new TranspositionTable(1);
+    // The keys share a bucket, as the bucket is chosen by the upper half.
+    long deep = 0x0000000100000001L;
+    long shallow = 0x0000000100000002L;
+    long recent = 0x0000000100000003L;
+    table.store(deep, 9, TranspositionTable.EXACT, 10, PackedMove.encode(12, 28));
+    table.store(shallow, 2, TranspositionTable.EXACT, 20, PackedMove.encode(11, 27));
+    table.store(recent, 1, TranspositionTable.EXACT, 30, PackedMove.encode(6, 21));
+    assertEquals(10, TranspositionTable.score(table.probe(deep)));
+    assertEquals(0, table.probe(shallow));
+    assertEquals(30, TranspositionTable.score(table.probe(recent)));
+
+    table.store(deep, 3, TranspositionTable.LOWER_BOUND, 40, PackedMove.NONE);
+    long entry = table.probe(deep);
+    assertEquals(3, TranspositionTable.depth(entry));
+    assertEquals(PackedMove.encode(12, 28), TranspositionTable.move(entry));
+  }
+}
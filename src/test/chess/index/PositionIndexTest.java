@@ -0,0 +1,111 @@
+package chess.index;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import chess.Board;
+import chess.Fen;
+import chess.io.GameRecord;
+import chess.move.MoveList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PositionIndexTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /** Plays random legal moves from the starting position. */
+  private static GameRecord randomGame(Random random, int length) {
+    Board board = Board.fromFen(Fen.STARTING_POSITION);
+    MoveList moves = new MoveList();
+    List<Integer> played = new ArrayList<>();
+    for (int i = 0; i < length; i++) {
+      board.generateMoves(board.getSideToMove(), moves);
+      if (moves.isEmpty()) {
+        break;
+      }
+      int move = moves.get(random.nextInt(moves.size()));
+      board.makeMove(move);
+      played.add(move);
+    }
+    int[] packed = new int[played.size()];
+    for (int i = 0; i < packed.length; i++) {
+      packed[i] = played.get(i);
+    }
+    return new GameRecord(new HashMap<>(), "*", packed);
+  }
+
+  @Test
+  public void findsGamesByPosition() throws IOException {
+    Random random = new Random(2018);
+    List<GameRecord> games = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      games.add(randomGame(random, 40));
+    }
+    Path path = folder.getRoot().toPath().resolve("games.index");
+    try (PositionIndexBuilder builder = new PositionIndexBuilder(path)) {
+      for (GameRecord game : games) {
+        builder.add(game);
+      }
+      builder.build();
+      assertEquals(300, builder.getGames());
+    }
+    assertFalse(Files.exists(Paths.get(path + ".entries")));
+
+    try (PositionIndex index = PositionIndex.open(path)) {
+      long[] start = index.lookup(Board.fromFen(Fen.STARTING_POSITION));
+      assertEquals(300, start.length);
+      for (int i = 0; i < start.length; i++) {
+        assertEquals(i + 1, PositionIndex.gameOf(start[i]));
+        assertEquals(0, PositionIndex.plyOf(start[i]));
+      }
+
+      // Every position of every game is found, with the game among its references.
+      for (int game = 0; game < games.size(); game++) {
+        Board board = games.get(game).createInitialBoard();
+        GameRecord record = games.get(game);
+        for (int ply = 0; ply <= record.getMoveCount(); ply++) {
+          if (ply > 0) {
+            board.makeMove(record.getMove(ply - 1));
+          }
+          List<Long> references = new ArrayList<>();
+          for (long reference : index.lookup(board)) {
+            references.add(reference);
+          }
+          long expected = ((long) (game + 1) << 32) | ply;
+          if (!references.contains(expected)) {
+            fail("Game " + (game + 1) + " ply " + ply + " not found");
+          }
+          assertEquals(references.size(), index.count(board.getKey()));
+          List<Long> sorted = new ArrayList<>(references);
+          Collections.sort(sorted);
+          assertEquals(sorted, references);
+        }
+      }
+      assertArrayEquals(new long[0], index.lookup(0x123456789L));
+      assertEquals(0, index.count(0x123456789L));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsOtherFiles() throws IOException {
+    Path path = folder.newFile("not.index").toPath();
+    Files.write(path, new byte[64]);
+    PositionIndex.open(path);
+  }
+}
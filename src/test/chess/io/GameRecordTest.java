@@ -0,0 +1,174 @@
+package chess.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import chess.Bitboards;
+import chess.Board;
+import chess.Game;
+import chess.move.PackedMove;
+import chess.piece.Piece;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class GameRecordTest {
+
+  private static final String GAMES = ""
+      + "[Event \"Ruy Lopez\"]\n"
+      + "[White \"\u00c5sa\"]\n"
+      + "\n"
+      + "1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 4. Ba4 Nf6 5. O-O Be7 6. Re1 b5 7. Bb3 d6 8. c3 O-O 1-0\n"
+      + "\n"
+      + "[Event \"Promotion\"]\n"
+      + "[FEN \"8/1P6/8/8/8/8/6k1/4K3 w - - 0 1\"]\n"
+      + "\n"
+      + "1. b8=N Kf3 2. Nc6 *\n"
+      + "\n"
+      + "[Event \"En passant\"]\n"
+      + "\n"
+      + "1. e4 Nf6 2. e5 d5 3. exd6 1/2-1/2\n";
+
+  private static List<GameRecord> records() throws IOException, IllegalMoveException {
+    PgnReader reader = new PgnReader(Channels.newChannel(
+        new ByteArrayInputStream(GAMES.getBytes(StandardCharsets.UTF_8))));
+    List<GameRecord> records = new ArrayList<>();
+    for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+      records.add(game.toRecord());
+    }
+    return records;
+  }
+
+  private static byte[] write(List<GameRecord> records, GameRecordWriter.Encoding encoding)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GameRecordWriter writer = new GameRecordWriter(Channels.newChannel(bytes), encoding)) {
+      for (GameRecord record : records) {
+        writer.write(record);
+      }
+      assertEquals(records.size(), writer.getGames());
+    }
+    return bytes.toByteArray();
+  }
+
+  private static List<GameRecord> read(byte[] bytes) throws IOException {
+    List<GameRecord> records = new ArrayList<>();
+    try (GameRecordReader reader =
+        new GameRecordReader(Channels.newChannel(new ByteArrayInputStream(bytes)))) {
+      for (GameRecord record = reader.next(); record != null; record = reader.next()) {
+        records.add(record);
+      }
+    }
+    return records;
+  }
+
+  private static int[] moves(GameRecord record) {
+    int[] moves = new int[record.getMoveCount()];
+    for (int i = 0; i < moves.length; i++) {
+      moves[i] = record.getMove(i);
+    }
+    return moves;
+  }
+
+  @Test
+  public void roundTrip() throws IOException, IllegalMoveException {
+    List<GameRecord> records = records();
+    for (GameRecordWriter.Encoding encoding : GameRecordWriter.Encoding.values()) {
+      List<GameRecord> copies = read(write(records, encoding));
+      assertEquals(records.size(), copies.size());
+      for (int i = 0; i < records.size(); i++) {
+        GameRecord record = records.get(i);
+        GameRecord copy = copies.get(i);
+        assertEquals(record.getTags(), copy.getTags());
+        assertEquals(record.getResult(), copy.getResult());
+        assertArrayEquals(moves(record), moves(copy));
+        assertEquals(record.replay().toFen(), copy.replay().toFen());
+      }
+    }
+    assertEquals("\u00c5sa", records.get(0).getTag("White"));
+    assertEquals("1/2-1/2", records.get(2).getResult());
+    Board board = records.get(1).replay();
+    assertEquals("8/8/2N5/8/8/5k2/8/4K3 b - - 2 2", board.toFen());
+  }
+
+  @Test
+  public void oneBytePerMove() throws IOException, IllegalMoveException {
+    List<GameRecord> records = records();
+    GameRecord untagged = new GameRecord(
+        new HashMap<>(), records.get(0).getResult(), moves(records.get(0)));
+    byte[] bytes = write(Arrays.asList(untagged), GameRecordWriter.Encoding.MOVE_INDEX);
+    // The file header, the frame length, the encoding, the tag count, the result and move count.
+    assertEquals(5 + 1 + 1 + 1 + 1 + 1 + 16, bytes.length);
+  }
+
+  @Test
+  public void largeFrames() throws IOException {
+    int[] moves = new int[0];
+    Map<String, String> tags = new HashMap<>();
+    char[] text = new char[100000];
+    Arrays.fill(text, 'x');
+    tags.put("Annotator", new String(text));
+    GameRecord record = new GameRecord(tags, "*", moves);
+    List<GameRecord> copies =
+        read(write(Arrays.asList(record, record, record), GameRecordWriter.Encoding.PACKED));
+    assertEquals(3, copies.size());
+    assertEquals(new String(text), copies.get(2).getTag("Annotator"));
+  }
+
+  @Test
+  public void corruptRecords() throws IOException, IllegalMoveException {
+    byte[] bytes = write(records(), GameRecordWriter.Encoding.MOVE_INDEX);
+    byte[][] corrupt = {
+        "Not a record".getBytes(StandardCharsets.US_ASCII),
+        Arrays.copyOf(bytes, bytes.length - 1),
+        Arrays.copyOf(bytes, bytes.length + 1)
+    };
+    for (byte[] data : corrupt) {
+      try {
+        read(data);
+        fail();
+      } catch (IOException e) {
+        assertTrue(e.getMessage().startsWith("Corrupt game record"));
+      }
+    }
+    assertNull(new GameRecordReader(Channels.newChannel(new ByteArrayInputStream(
+        Arrays.copyOf(bytes, GameRecordWriter.MAGIC.length)))).next());
+  }
+
+  @Test
+  public void malformedPackedMoves() throws IOException {
+    int e2 = 12;
+    int e4 = 28;
+    int[] malformed = {
+        PackedMove.NONE,
+        PackedMove.encode(e2, e4) | (1 << 20),
+        PackedMove.encode(e2, e4, PackedMove.CASTLING),
+        PackedMove.encode(e2, e4, PackedMove.EN_PASSANT),
+        PackedMove.promotion(52, 60, Bitboards.code(Piece.KING, Game.Player.WHITE)),
+        PackedMove.promotion(e2, e4, Bitboards.code(Piece.QUEEN, Game.Player.WHITE))
+    };
+    for (int move : malformed) {
+      GameRecord record = new GameRecord(
+          new HashMap<>(), "*", new int[] {PackedMove.encode(e2, e4), move});
+      try {
+        read(write(Arrays.asList(record), GameRecordWriter.Encoding.PACKED));
+        fail(PackedMove.toCoordinateNotation(move));
+      } catch (IOException e) {
+        assertTrue(e.getMessage().startsWith("Corrupt game record: bad packed move"));
+      }
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package chess.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import chess.Board;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PgnReaderTest {
+
+  private static final String GAMES = ""
+      + "% A comment line for the tools that wrote the file\n"
+      + "[Event \"Casual \\\"blitz\\\"\"]\n"
+      + "[White \"\u00c5sa\"]\n"
+      + "[Black \"Bo\"]\n"
+      + "\n"
+      + "1. e4 e5 {The open game} 2. Nf3 (2. f4 exf4 {gambit} (2... d5)) Nc6 $1\n"
+      + "3.Bb5 a6 4. Ba4 ; the main line\n"
+      + "Nf6 5. O-O Be7 1/2-1/2\n"
+      + "\n"
+      + "[Event \"Mate\"]\n"
+      + "[SetUp \"1\"]\n"
+      + "[FEN \"7k/8/6K1/8/8/8/8/R7 w - - 0 1\"]\n"
+      + "\n"
+      + "1. Ra8# 1-0\n"
+      + "\n"
+      + "[Event \"No result\"]\n"
+      + "\n"
+      + "1. d4 d5 2. c4\n"
+      + "[Event \"Illegal\"]\n"
+      + "\n"
+      + "1. e4 e5 2. Ke3\n"
+      + "Nf6 *\n";
+
+  private static PgnReader reader(String pgn) {
+    return new PgnReader(
+        Channels.newChannel(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8))));
+  }
+
+  private static List<String> moves(PgnGame game) {
+    List<String> moves = new ArrayList<>();
+    for (int i = 0; i < game.getMoveCount(); i++) {
+      moves.add(game.getMove(i));
+    }
+    return moves;
+  }
+
+  @Test
+  public void readsGames() throws IOException {
+    PgnReader reader = reader(GAMES);
+    PgnGame game = reader.next();
+    assertEquals(1, game.getNumber());
+    assertEquals("Casual \"blitz\"", game.getTag("Event"));
+    assertEquals("\u00c5sa", game.getTag("White"));
+    assertEquals(3, game.getTags().size());
+    assertEquals("[e4, e5, Nf3, Nc6, Bb5, a6, Ba4, Nf6, O-O, Be7]", moves(game).toString());
+    assertEquals(6, game.getMoveLine(0));
+    assertEquals(7, game.getMoveLine(4));
+    assertEquals(8, game.getMoveLine(7));
+    assertEquals("1/2-1/2", game.getResult());
+
+    game = reader.next();
+    assertEquals("Mate", game.getTag("Event"));
+    assertEquals("[Ra8#]", moves(game).toString());
+    assertEquals("1-0", game.getResult());
+
+    game = reader.next();
+    assertEquals("[d4, d5, c4]", moves(game).toString());
+    assertEquals("*", game.getResult());
+
+    game = reader.next();
+    assertEquals("Illegal", game.getTag("Event"));
+    assertEquals(4, game.getMoveCount());
+    assertEquals(19, game.getLine());
+    assertNull(reader.next());
+    assertNull(reader.next());
+  }
+
+  @Test
+  public void endsGamesWithoutMovetext() throws IOException {
+    PgnReader reader = reader(""
+        + "[Event \"First\"]\n"
+        + "[Round \"1\"]\n"
+        + "\n"
+        + "[Event \"Second\"]\n"
+        + "\r\n"
+        + "[Event \"Third\"]\n"
+        + "\n"
+        + "1. e4 *\n");
+    String[] events = {"First", "Second", "Third"};
+    for (String event : events) {
+      PgnGame game = reader.next();
+      assertEquals(event, game.getTag("Event"));
+      assertEquals(event.equals("Third") ? 1 : 0, game.getMoveCount());
+      assertEquals(event.equals("First") ? "1" : null, game.getTag("Round"));
+    }
+    assertNull(reader.next());
+  }
+
+  @Test
+  public void replaysGames() throws IOException, IllegalMoveException {
+    PgnReader reader = reader(GAMES);
+    Board board = reader.next().replay();
+    assertEquals("r1bqk2r/1pppbppp/p1n2n2/4p3/B3P3/5N2/PPPP1PPP/RNBQ1RK1 w kq - 4 6",
+        board.toFen());
+    board = reader.next().replay();
+    assertEquals(true, board.inCheckMate(board.getSideToMove()));
+    reader.next().replay();
+
+    PgnGame game = reader.next();
+    try {
+      game.replay();
+      fail();
+    } catch (IllegalMoveException e) {
+      assertEquals(21, e.getLine());
+      assertEquals(2, e.getMoveIndex());
+      assertEquals(4, e.getGameNumber());
+      assertEquals("Illegal move Ke3 in game 4 on line 21", e.getMessage());
+    }
+  }
+
+  @Test
+  public void importsInParallel() throws IOException {
+    StringBuilder pgn = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      pgn.append(GAMES);
+    }
+    for (int threads : new int[] {1, 3}) {
+      List<Long> illegal = Collections.synchronizedList(new ArrayList<>());
+      PgnImport pgnImport = new PgnImport(threads);
+      pgnImport.run(reader(pgn.toString()), new PgnImport.Handler() {
+        @Override
+        public void onGame(PgnGame game, Board board) {}
+
+        @Override
+        public void onIllegalMove(PgnGame game, IllegalMoveException exception) {
+          illegal.add(exception.getGameNumber());
+        }
+      });
+      assertEquals(400, pgnImport.getGames());
+      assertEquals(100, pgnImport.getIllegalGames());
+      assertEquals(100 * (10 + 1 + 3), pgnImport.getMoves());
+      Collections.sort(illegal);
+      assertEquals(4L, (long) illegal.get(0));
+      assertEquals(400L, (long) illegal.get(99));
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package chess.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import chess.Fen;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GameServerTest {
+
+  private GameServer server;
+
+  @Before
+  public void start() throws IOException {
+    server = GameServer.start(0);
+  }
+
+  @After
+  public void stop() throws IOException {
+    server.close();
+  }
+
+  /** A connection to the server, sending one request at a time. */
+  private class Client implements AutoCloseable {
+    Socket socket;
+    BufferedReader in;
+    Writer out;
+
+    Client() throws IOException {
+      socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+      in = new BufferedReader(
+          new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+      out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+    }
+
+    String request(String request) throws IOException {
+      out.write(request + "\n");
+      out.flush();
+      return in.readLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+      socket.close();
+    }
+  }
+
+  @Test
+  public void playsGames() throws IOException {
+    try (Client client = new Client()) {
+      String id = client.request("new").substring(3);
+      assertEquals(20, client.request("moves " + id).split(" ").length - 1);
+      assertEquals("ok " + "PLAY " + Fen.STARTING_POSITION, client.request("state " + id));
+      assertEquals("ok PLAY", client.request("move " + id + " f3"));
+      assertEquals("error illegal move e4", client.request("move " + id + " e4 "));
+      assertEquals("ok PLAY", client.request("move " + id + " e5"));
+      assertEquals("ok PLAY", client.request("move " + id + " g4"));
+      assertEquals("ok BLACK_WIN", client.request("move " + id + " Qh4#"));
+      assertEquals("ok", client.request("moves " + id));
+
+      // A second game from a position, played by another connection.
+      String other = client.request("new 7k/8/6K1/8/8/8/8/R7 w - - 0 1").substring(3);
+      try (Client second = new Client()) {
+        assertEquals("ok WHITE_WIN", second.request("move " + other + " Ra8#"));
+      }
+      assertEquals(2, server.getOpenGames());
+      assertEquals("ok", client.request("end " + id));
+      assertEquals("error no game " + id, client.request("state " + id));
+      assertEquals(1, server.getOpenGames());
+
+      assertEquals("error invalid FEN", client.request("new 8/8/8/8/8/8/8/8 w - - 0 1"));
+      assertEquals("error invalid game id", client.request("state x"));
+      assertEquals("error unknown request", client.request("undo " + other));
+      assertTrue(client.request("stats").contains(" games=1 "));
+      assertEquals(5, server.getMoves());
+    }
+  }
+
+  @Test
+  public void serialisesMovesOfOneGame() throws Exception {
+    String id;
+    try (Client client = new Client()) {
+      id = client.request("new").substring(3);
+    }
+    // Knights going back and forth, by four connections at once. Whichever thread moves, each
+    // move must be made in full before the next is checked.
+    String[] moves = {"Nf3", "Nf6", "Ng1", "Ng8"};
+    List<Thread> threads = new ArrayList<>();
+    int[] made = new int[4];
+    for (int i = 0; i < 4; i++) {
+      int player = i;
+      threads.add(new Thread(() -> {
+        try (Client client = new Client()) {
+          for (int attempt = 0; attempt < 500; attempt++) {
+            if (client.request("move " + id + " " + moves[player]).startsWith("ok")) {
+              made[player]++;
+            }
+          }
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    int total = made[0] + made[1] + made[2] + made[3];
+    assertEquals(total, server.getMoves());
+    // Each move was legal only after the one before it, so the knights went round in turn, and
+    // the halfmove clock counts every move made.
+    String[] placements = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR",
+        "rnbqkbnr/pppppppp/8/8/8/5N2/PPPPPPPP/RNBQKB1R",
+        "rnbqkb1r/pppppppp/5n2/8/8/5N2/PPPPPPPP/RNBQKB1R",
+        "rnbqkb1r/pppppppp/5n2/8/8/8/PPPPPPPP/RNBQKBNR"};
+    try (Client client = new Client()) {
+      String[] fen = client.request("state " + id).split(" ");
+      assertEquals(placements[total % 4], fen[2]);
+      assertEquals(total, Integer.parseInt(fen[6]));
+    }
+  }
+
+  @Test
+  public void generatesLoad() throws InterruptedException {
+    LoadGenerator load = new LoadGenerator(
+        InetAddress.getLoopbackAddress().getHostAddress(), server.getPort());
+    load.run(16, 300);
+    assertEquals(0, load.getErrors());
+    assertTrue(load.getGames() >= 16);
+    assertEquals(server.getMoves(), load.getMoves());
+    assertEquals(0, server.getOpenGames());
+    assertTrue(load.getLatencyMicros(0.5) <= load.getLatencyMicros(0.99));
+    assertTrue(load.getLatencyMicros(0.99) <= load.getLatencyMicros(1));
+  }
+}
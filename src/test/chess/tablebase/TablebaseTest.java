@@ -0,0 +1,188 @@
+package chess.tablebase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import chess.Board;
+import chess.Game;
+import chess.engine.Search;
+import chess.engine.SearchResult;
+import chess.move.MoveList;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TablebaseTest {
+
+  private static Tablebases tablebases;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @BeforeClass
+  public static void generate() {
+    TablebaseGenerator generator = new TablebaseGenerator(2);
+    generator.generate("KQK");
+    generator.generate("KRK");
+    generator.generate("KPK");
+    generator.shutdown();
+    tablebases = generator.getTablebases();
+  }
+
+  /** Places the pieces on random squares, returning null if that is not a legal position. */
+  private static Board randomBoard(String pieces, Random random) {
+    char[] squares = new char[64];
+    for (int i = 0; i < pieces.length(); i++) {
+      int square = random.nextInt(64);
+      boolean pawn = Character.toLowerCase(pieces.charAt(i)) == 'p';
+      if (squares[square] != 0 || (pawn && (square < 8 || square >= 56))) {
+        return null;
+      }
+      squares[square] = pieces.charAt(i);
+    }
+    StringBuilder fen = new StringBuilder();
+    for (int rank = 7; rank >= 0; rank--) {
+      int empty = 0;
+      for (int file = 0; file < 8; file++) {
+        char piece = squares[rank * 8 + file];
+        if (piece == 0) {
+          empty++;
+          continue;
+        }
+        if (empty > 0) {
+          fen.append(empty);
+          empty = 0;
+        }
+        fen.append(piece);
+      }
+      if (empty > 0) {
+        fen.append(empty);
+      }
+      fen.append(rank > 0 ? "/" : "");
+    }
+    fen.append(random.nextBoolean() ? " w" : " b").append(" - - 0 1");
+    Board board = Board.fromFen(fen.toString());
+    if (board.inCheck(Game.otherPlayer(board.getSideToMove()))) {
+      return null;
+    }
+    return board;
+  }
+
+  /** Checks a position against the outcomes and distances of the positions after its moves. */
+  private static void assertConsistent(Board board) {
+    MoveList moves = new MoveList();
+    board.generateMoves(board.getSideToMove(), moves);
+    int expectedOutcome = Tablebase.LOSS;
+    int expectedDistance = 0;
+    if (moves.isEmpty() && !board.inCheck(board.getSideToMove())) {
+      expectedOutcome = Tablebase.DRAW;
+    }
+    for (int i = 0; i < moves.size(); i++) {
+      board.makeMove(moves.get(i));
+      int outcome = tablebases.probeOutcome(board);
+      int distance = tablebases.probeDistance(board) + 1;
+      board.unmakeMove();
+      if (outcome == Tablebase.LOSS) {
+        expectedDistance = (expectedOutcome == Tablebase.WIN)
+            ? Math.min(expectedDistance, distance) : distance;
+        expectedOutcome = Tablebase.WIN;
+      } else if (outcome == Tablebase.DRAW && expectedOutcome != Tablebase.WIN) {
+        expectedOutcome = Tablebase.DRAW;
+        expectedDistance = 0;
+      } else if (expectedOutcome == Tablebase.LOSS) {
+        expectedDistance = Math.max(expectedDistance, distance);
+      }
+    }
+    String fen = board.toFen();
+    assertEquals(fen, expectedOutcome, tablebases.probeOutcome(board));
+    assertEquals(fen, expectedDistance, tablebases.probeDistance(board));
+  }
+
+  @Test
+  public void longestMates() {
+    assertEquals(20, tablebases.get("KQK").getMaxDistance());
+    assertEquals(32, tablebases.get("KRK").getMaxDistance());
+    assertEquals(56, tablebases.get("KPK").getMaxDistance());
+    assertEquals(0, tablebases.get("KNK").getMaxDistance());
+  }
+
+  @Test
+  public void agreesWithMoves() {
+    Random random = new Random(2018);
+    String[] sets = {"KQk", "KRk", "KPk", "Kkq", "Kkp"};
+    int checked = 0;
+    while (checked < 2000) {
+      Board board = randomBoard(sets[checked % sets.length], random);
+      if (board != null) {
+        assertConsistent(board);
+        checked++;
+      }
+    }
+  }
+
+  @Test
+  public void probesPositions() {
+    // A rook pawn cannot win against a king in front of it.
+    Board board = Board.fromFen("k7/8/K7/P7/8/8/8/8 w - - 0 1");
+    assertEquals(Tablebase.DRAW, tablebases.probeOutcome(board));
+    // Mate on the move, and mated.
+    board = Board.fromFen("k7/8/1K6/8/8/8/7Q/8 w - - 0 1");
+    assertEquals(Tablebase.WIN, tablebases.probeOutcome(board));
+    assertEquals(1, tablebases.probeDistance(board));
+    int value = tablebases.probe(board);
+    assertEquals(Tablebase.WIN, Tablebases.outcomeOf(value));
+    assertEquals(1, Tablebases.distanceOf(value));
+    board = Board.fromFen("k7/1Q6/1K6/8/8/8/8/8 b - - 0 1");
+    assertEquals(Tablebase.LOSS, tablebases.probeOutcome(board));
+    assertEquals(0, tablebases.probeDistance(board));
+    // The same position with the colours swapped is looked up mirrored.
+    Board white = Board.fromFen("8/8/8/4k3/8/8/8/R3K3 b - - 0 1");
+    Board black = Board.fromFen("r3k3/8/8/8/4K3/8/8/8 w - - 0 1");
+    assertEquals(Tablebase.LOSS, tablebases.probeOutcome(black));
+    assertEquals(tablebases.probeDistance(white), tablebases.probeDistance(black));
+    // Too many pieces, and castling rights.
+    assertEquals(Tablebases.UNKNOWN,
+        tablebases.probeOutcome(Board.fromFen("k7/8/1K6/8/8/8/8/6QQ w - - 0 1")));
+    assertEquals(Tablebases.UNKNOWN,
+        tablebases.probeOutcome(Board.fromFen("k7/8/8/8/8/8/8/4K2R w K - 0 1")));
+    assertEquals(Tablebases.UNKNOWN, Tablebases.distanceOf(Tablebases.UNKNOWN));
+  }
+
+  @Test
+  public void readsWrittenFiles() throws IOException {
+    Path directory = folder.getRoot().toPath();
+    for (Tablebase tablebase : tablebases.getTablebases()) {
+      tablebase.write(directory.resolve(tablebase.getName() + Tablebases.FILE_SUFFIX));
+    }
+    Tablebases read = Tablebases.open(directory);
+    assertEquals(tablebases.getTablebases().size(), read.getTablebases().size());
+    Tablebase krk = read.get("KRK");
+    assertEquals(32, krk.getMaxDistance());
+    long[] expected = tablebases.get("KRK").countOutcomes();
+    long[] counts = krk.countOutcomes();
+    for (int i = 0; i < counts.length; i++) {
+      assertEquals(expected[i], counts[i]);
+    }
+    Board board = Board.fromFen("8/8/8/4k3/8/8/8/R3K3 b - - 0 1");
+    assertEquals(tablebases.probeDistance(board), read.probeDistance(board));
+  }
+
+  @Test
+  public void searchScoresExactMates() {
+    Board board = Board.fromFen("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+    int distance = tablebases.probeDistance(board);
+    assertTrue(distance > 20);
+    Search search = new Search();
+    search.setTablebases(tablebases);
+    search.setMaxDepth(2);
+    SearchResult result = search.search(board);
+    assertTrue(result.isMate());
+    assertEquals(Search.MATE - distance, result.getScore());
+  }
+}